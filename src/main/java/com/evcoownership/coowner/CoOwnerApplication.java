@@ -5,6 +5,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.web.servlet.support.SpringBootServletInitializer;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import com.evcoownership.coowner.repository.UserRepository;
 import com.evcoownership.coowner.repository.RoleRepository;
@@ -13,6 +14,7 @@ import com.evcoownership.coowner.model.User;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @SpringBootApplication
+@EnableScheduling
 public class CoOwnerApplication extends SpringBootServletInitializer {
 
     public static void main(String[] args) {
@@ -1,122 +1,144 @@
 package com.evcoownership.coowner.controller;
 
-import com.evcoownership.coowner.model.*;
-import com.evcoownership.coowner.repository.*;
-import com.evcoownership.coowner.service.GroupService;
+import com.evcoownership.coowner.dto.AdminBookingRow;
+import com.evcoownership.coowner.dto.AdminExpenseRow;
+import com.evcoownership.coowner.dto.AdminGroupRow;
+import com.evcoownership.coowner.dto.AdminPaymentRow;
+import com.evcoownership.coowner.dto.AdminUserRow;
+import com.evcoownership.coowner.dto.AdminVehicleRow;
+import com.evcoownership.coowner.dto.KeysetPage;
+import com.evcoownership.coowner.dto.UserDto;
+import com.evcoownership.coowner.model.User;
+import com.evcoownership.coowner.repository.UserRepository;
+import com.evcoownership.coowner.security.PrincipalCache;
+import com.evcoownership.coowner.security.TokenRevocationService;
+import com.evcoownership.coowner.service.AdminListingService;
+import com.evcoownership.coowner.service.UsageRollupService;
+import com.evcoownership.coowner.service.UserService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/admin")
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminController {
 
-    private final GroupRepository groupRepository;
     private final UserRepository userRepository;
-    private final VehicleRepository vehicleRepository;
-    private final BookingRepository bookingRepository;
-    private final ExpenseRepository expenseRepository;
-    private final PaymentRepository paymentRepository;
-    private final GroupService groupService;
+    private final AdminListingService adminListingService;
+    private final UsageRollupService usageRollupService;
+    private final TokenRevocationService revocationService;
+    private final PrincipalCache principalCache;
+    private final UserService userService;
 
-    public AdminController(GroupRepository groupRepository,
-                          UserRepository userRepository,
-                          VehicleRepository vehicleRepository,
-                          BookingRepository bookingRepository,
-                          ExpenseRepository expenseRepository,
-                          PaymentRepository paymentRepository,
-                          GroupService groupService) {
-        this.groupRepository = groupRepository;
+    public AdminController(UserRepository userRepository,
+                          AdminListingService adminListingService,
+                          UsageRollupService usageRollupService,
+                          TokenRevocationService revocationService,
+                          PrincipalCache principalCache,
+                          UserService userService) {
         this.userRepository = userRepository;
-        this.vehicleRepository = vehicleRepository;
-        this.bookingRepository = bookingRepository;
-        this.expenseRepository = expenseRepository;
-        this.paymentRepository = paymentRepository;
-        this.groupService = groupService;
+        this.adminListingService = adminListingService;
+        this.usageRollupService = usageRollupService;
+        this.revocationService = revocationService;
+        this.principalCache = principalCache;
+        this.userService = userService;
     }
 
+    // Các danh sách admin: keyset theo id, truyền nextCursor của trang trước làm cursor
     @GetMapping("/groups")
-    public ResponseEntity<List<Group>> getAllGroups() {
-        // Use GroupService.getAllGroups() to ensure ownershipShares are loaded
-        return ResponseEntity.ok(groupService.getAllGroups());
+    public ResponseEntity<KeysetPage<AdminGroupRow>> getAllGroups(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "desc") String sort,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(adminListingService.listGroups(name, cursor, sort, limit));
     }
 
     @GetMapping("/users")
-    public ResponseEntity<List<User>> getAllUsers() {
-        // Sử dụng findAllWithRoles() để đảm bảo load roles
-        // Nếu có lỗi, fallback về findAll() (có EntityGraph)
-        try {
-            List<User> users = userRepository.findAllWithRoles();
-            // Trigger loading của roles cho mỗi user để đảm bảo được load
-            users.forEach(user -> user.getRoles().size());
-            return ResponseEntity.ok(users);
-        } catch (Exception e) {
-            // Fallback về findAll() nếu query có vấn đề
-            List<User> users = userRepository.findAll();
-            // Trigger loading của roles cho mỗi user
-            users.forEach(user -> user.getRoles().size());
-            return ResponseEntity.ok(users);
-        }
+    public ResponseEntity<KeysetPage<AdminUserRow>> getAllUsers(
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "desc") String sort,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(adminListingService.listUsers(email, role, cursor, sort, limit));
     }
 
     @GetMapping("/vehicles")
-    public ResponseEntity<List<Vehicle>> getAllVehicles() {
-        return ResponseEntity.ok(vehicleRepository.findAll());
+    public ResponseEntity<KeysetPage<AdminVehicleRow>> getAllVehicles(
+            @RequestParam(required = false) String plate,
+            @RequestParam(required = false) String model,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "desc") String sort,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(adminListingService.listVehicles(plate, model, cursor, sort, limit));
     }
 
     @GetMapping("/bookings")
-    public ResponseEntity<List<Booking>> getAllBookings() {
-        return ResponseEntity.ok(bookingRepository.findAll());
+    public ResponseEntity<KeysetPage<AdminBookingRow>> getAllBookings(
+            @RequestParam(required = false) Long vehicleId,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "desc") String sort,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(adminListingService.listBookings(vehicleId, userId, status, from, to,
+                cursor, sort, limit));
     }
 
     @GetMapping("/expenses")
-    @org.springframework.transaction.annotation.Transactional(readOnly = true)
-    public ResponseEntity<List<Expense>> getAllExpenses() {
-        List<Expense> expenses = expenseRepository.findAll();
-        // Force initialize all lazy-loaded associations to avoid proxy serialization issues
-        for (Expense expense : expenses) {
-            try {
-                // Force initialize group and its associations
-                if (expense.getGroup() != null) {
-                    org.hibernate.Hibernate.initialize(expense.getGroup());
-                    // Access group fields to ensure they're loaded
-                    expense.getGroup().getId();
-                    expense.getGroup().getName();
-                    // Force initialize group.createdBy
-                    if (expense.getGroup().getCreatedBy() != null) {
-                        org.hibernate.Hibernate.initialize(expense.getGroup().getCreatedBy());
-                        expense.getGroup().getCreatedBy().getId();
-                        expense.getGroup().getCreatedBy().getEmail();
-                        expense.getGroup().getCreatedBy().getFullName();
-                    }
-                }
-                // Force initialize vehicle
-                if (expense.getVehicle() != null) {
-                    org.hibernate.Hibernate.initialize(expense.getVehicle());
-                    expense.getVehicle().getId();
-                    expense.getVehicle().getPlate();
-                }
-                // Force initialize createdBy
-                if (expense.getCreatedBy() != null) {
-                    org.hibernate.Hibernate.initialize(expense.getCreatedBy());
-                    expense.getCreatedBy().getId();
-                    expense.getCreatedBy().getEmail();
-                    expense.getCreatedBy().getFullName();
-                }
-            } catch (Exception e) {
-                // Log but continue with other expenses
-                System.err.println("Error loading expense " + expense.getId() + ": " + e.getMessage());
-            }
-        }
-        return ResponseEntity.ok(expenses);
+    public ResponseEntity<KeysetPage<AdminExpenseRow>> getAllExpenses(
+            @RequestParam(required = false) Long groupId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "desc") String sort,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(adminListingService.listExpenses(groupId, status, type, fromDate, toDate,
+                cursor, sort, limit));
     }
 
     @GetMapping("/payments")
-    public ResponseEntity<List<Payment>> getAllPayments() {
-        return ResponseEntity.ok(paymentRepository.findAll());
+    public ResponseEntity<KeysetPage<AdminPaymentRow>> getAllPayments(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String method,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "desc") String sort,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(adminListingService.listPayments(userId, status, method, cursor, sort, limit));
+    }
+
+    // Tính lại rollup sử dụng từ usage_history (sau khi sửa dữ liệu trực tiếp hoặc lần đầu triển khai)
+    @PostMapping("/usage-rollups/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildUsageRollups() {
+        return ResponseEntity.ok(usageRollupService.rebuild());
     }
-}
 
+    // Thu hồi mọi token đã phát hành cho user (ví dụ khi khóa tài khoản hoặc đổi role)
+    @PostMapping("/users/{userId}/revoke-tokens")
+    public ResponseEntity<Map<String, Object>> revokeUserTokens(@PathVariable Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User không tồn tại"));
+        revocationService.revokeAllForUser(user.getEmail());
+        principalCache.invalidate(user.getEmail());
+        return ResponseEntity.ok(Map.of("userId", userId, "message", "Đã thu hồi token của user"));
+    }
+
+    // Đổi role của user; token cũ (mang role cũ) bị thu hồi tự động
+    @PutMapping("/users/{userId}/roles")
+    public ResponseEntity<UserDto> updateUserRoles(@PathVariable Long userId, @RequestBody Set<String> roles) {
+        return ResponseEntity.ok(userService.updateRoles(userId, roles));
+    }
+}
@@ -1,7 +1,9 @@
 package com.evcoownership.coowner.controller;
 
 import com.evcoownership.coowner.security.JwtService;
+import com.evcoownership.coowner.security.PrincipalCache;
 import com.evcoownership.coowner.security.SecurityUtils;
+import com.evcoownership.coowner.security.TokenRevocationService;
 import com.evcoownership.coowner.repository.UserRepository;
 import com.evcoownership.coowner.model.User;
 import com.evcoownership.coowner.model.Role;
@@ -26,15 +28,18 @@ public class AuthController {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final SecurityUtils securityUtils;
+    private final TokenRevocationService revocationService;
 
     public AuthController(UserRepository userRepository,
                           PasswordEncoder passwordEncoder,
                           JwtService jwtService,
-                          SecurityUtils securityUtils) {
+                          SecurityUtils securityUtils,
+                          TokenRevocationService revocationService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
         this.securityUtils = securityUtils;
+        this.revocationService = revocationService;
     }
 
     @PostMapping("/login")
@@ -46,7 +51,7 @@ public class AuthController {
         if (!passwordEncoder.matches(req.getPassword(), user.getPassword())) {
             throw new IllegalArgumentException("Email hoặc mật khẩu không đúng");
         }
-        String token = jwtService.generateToken(user.getEmail());
+        String token = jwtService.generateToken(PrincipalCache.toPrincipal(user));
         
         // Đảm bảo roles được load trước khi serialize (trigger loading)
         user.getRoles().size();
@@ -67,11 +72,22 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/logout")
+    @Operation(summary = "Logout", description = "Revoke the bearer token used for this request")
+    public ResponseEntity<Map<String, Object>> logout(@RequestHeader("Authorization") String authHeader) {
+        if (!authHeader.startsWith("Bearer ")) {
+            throw new IllegalArgumentException("Thiếu token");
+        }
+        revocationService.revoke(jwtService.verify(authHeader.substring(7)));
+        return ResponseEntity.ok(Map.of("message", "Đã đăng xuất"));
+    }
+
     @GetMapping("/me")
     @Operation(summary = "Get current user info", description = "Returns current authenticated user information with roles")
     public ResponseEntity<Map<String, Object>> getCurrentUser() {
-        // getCurrentUser() sử dụng findByEmail với @EntityGraph sẽ eager load roles
-        User user = securityUtils.getCurrentUser();
+        // fullName không có trong token nên đọc user theo id của principal (findById có @EntityGraph roles)
+        User user = userRepository.findById(securityUtils.getCurrentUser().id())
+                .orElseThrow(() -> new IllegalArgumentException("User không tồn tại"));
         
         // Đảm bảo roles được load trước khi serialize (trigger loading)
         user.getRoles().size();
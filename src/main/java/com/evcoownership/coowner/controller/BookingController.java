@@ -1,9 +1,13 @@
 package com.evcoownership.coowner.controller;
 
+import com.evcoownership.coowner.dto.BatchBookingResult;
+import com.evcoownership.coowner.dto.CreateBatchBookingRequest;
 import com.evcoownership.coowner.dto.CreateBookingRequest;
+import com.evcoownership.coowner.dto.VehicleAvailability;
 import com.evcoownership.coowner.model.Booking;
-import com.evcoownership.coowner.model.User;
+import com.evcoownership.coowner.security.AuthenticatedUser;
 import com.evcoownership.coowner.service.BookingService;
+import com.evcoownership.coowner.service.VehicleAvailabilityService;
 
 // --- THÊM CÁC IMPORT CỦA SWAGGER ---
 import io.swagger.v3.oas.annotations.Operation;
@@ -15,13 +19,18 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus; 
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal; 
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/bookings")
@@ -31,6 +40,9 @@ public class BookingController {
     @Autowired
     private BookingService bookingService;
 
+    @Autowired
+    private VehicleAvailabilityService vehicleAvailabilityService;
+
     @Operation(
             summary = "Tạo một đặt chỗ mới",
             description = "Tạo một bản ghi đặt chỗ mới cho người dùng đã đăng nhập."
@@ -45,7 +57,7 @@ public class BookingController {
     public ResponseEntity<Booking> createBooking(
             @Valid @RequestBody CreateBookingRequest request,
             @Parameter(hidden = true) 
-            @AuthenticationPrincipal User currentUser
+            @AuthenticationPrincipal AuthenticatedUser currentUser
     ) {
         
         if (currentUser == null) {
@@ -59,6 +71,30 @@ public class BookingController {
         return ResponseEntity.status(HttpStatus.CREATED).body(newBooking);
     }
 
+    @Operation(
+            summary = "Đặt nhiều slot / đặt lặp lại",
+            description = "Nhận danh sách slot hoặc quy tắc lặp (ví dụ mỗi ngày trong tuần cùng khung giờ), " +
+                    "kiểm tra toàn bộ với một range query và insert các slot hợp lệ theo lô. " +
+                    "Trả về kết quả chấp nhận/từ chối cho từng slot."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Đã xử lý lô, xem kết quả từng slot"),
+            @ApiResponse(responseCode = "400", description = "Dữ liệu không hợp lệ"),
+            @ApiResponse(responseCode = "401", description = "Chưa xác thực"),
+            @ApiResponse(responseCode = "409", description = "Không thuộc group của xe hoặc vượt quá số slot cho phép")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<BatchBookingResult> createBatchBookings(
+            @Valid @RequestBody CreateBatchBookingRequest request,
+            @Parameter(hidden = true)
+            @AuthenticationPrincipal AuthenticatedUser currentUser
+    ) {
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(bookingService.createBatchBookings(request, currentUser));
+    }
+
     @Operation(
             summary = "Lấy danh sách đặt chỗ theo xe",
             description = "Lấy tất cả các đặt chỗ cho một xe cụ thể, với tùy chọn lọc theo khoảng thời gian."
@@ -81,4 +117,54 @@ public class BookingController {
         List<Booking> bookings = bookingService.findBookings(vehicleId, startTime, endTime);
         return ResponseEntity.ok(bookings);
     }
-}
\ No newline at end of file
+
+    @Operation(
+            summary = "Tìm khoảng trống của xe",
+            description = "Trả về các khoảng thời gian xe còn trống (không có đặt chỗ) trong [from, to) " +
+                    "cho một hoặc nhiều xe của một group, chỉ giữ khoảng dài tối thiểu minDurationMinutes. " +
+                    "Hỗ trợ ETag/If-None-Match để client poll mà không phải tải lại khi lịch không đổi."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Danh sách khoảng trống theo từng xe"),
+            @ApiResponse(responseCode = "304", description = "Lịch không thay đổi so với ETag client gửi lên"),
+            @ApiResponse(responseCode = "401", description = "Chưa xác thực"),
+            @ApiResponse(responseCode = "409", description = "Tham số không hợp lệ, xe không tồn tại hoặc không phải member của group")
+    })
+    @GetMapping("/availability")
+    public ResponseEntity<List<VehicleAvailability>> getAvailability(
+            @Parameter(description = "ID group, lấy tất cả xe của group nếu không truyền vehicleIds")
+            @RequestParam(required = false) Long groupId,
+
+            @Parameter(description = "Danh sách ID xe (tùy chọn)")
+            @RequestParam(required = false) List<Long> vehicleIds,
+
+            @Parameter(description = "Từ thời điểm", example = "2025-01-06T00:00:00", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+
+            @Parameter(description = "Đến thời điểm", example = "2025-01-13T00:00:00", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+
+            @Parameter(description = "Thời lượng tối thiểu của một khoảng trống (phút)", example = "60")
+            @RequestParam(defaultValue = "0") long minDurationMinutes,
+
+            @Parameter(hidden = true) WebRequest webRequest,
+
+            @Parameter(hidden = true)
+            @AuthenticationPrincipal AuthenticatedUser currentUser
+    ) {
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        List<Long> ids = vehicleAvailabilityService.resolveVehicleIds(groupId, vehicleIds, currentUser.id());
+        Duration minDuration = Duration.ofMinutes(minDurationMinutes);
+
+        String etag = vehicleAvailabilityService.etag(ids, from, to, minDuration);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.maxAge(30, TimeUnit.SECONDS).cachePrivate())
+                .body(vehicleAvailabilityService.findFreeWindows(ids, from, to, minDuration));
+    }
+}
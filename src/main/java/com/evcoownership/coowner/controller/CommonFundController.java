@@ -1,15 +1,20 @@
 package com.evcoownership.coowner.controller;
 
+import com.evcoownership.coowner.dto.FundTransactionPage;
 import com.evcoownership.coowner.model.CommonFund;
 import com.evcoownership.coowner.model.FundTransaction;
-import com.evcoownership.coowner.model.User;
+import com.evcoownership.coowner.security.AuthenticatedUser;
 import com.evcoownership.coowner.security.SecurityUtils;
 import com.evcoownership.coowner.service.CommonFundService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/funds")
@@ -26,9 +31,9 @@ public class CommonFundController {
     @PostMapping
     public ResponseEntity<CommonFund> create(@RequestBody CreateFundRequest request) {
         // Verify user is member of the group (unless admin)
-        com.evcoownership.coowner.model.User currentUser = securityUtils.getCurrentUser();
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
         if (!securityUtils.isAdmin(currentUser)) {
-            fundService.verifyUserCanAccessGroupFunds(request.getGroupId(), currentUser.getId());
+            fundService.verifyUserCanAccessGroupFunds(request.getGroupId(), currentUser.id());
         }
         return ResponseEntity.ok(fundService.createFund(
             request.getGroupId(), 
@@ -41,12 +46,12 @@ public class CommonFundController {
     public ResponseEntity<FundTransaction> deposit(@PathVariable Long fundId,
                                                   @RequestParam BigDecimal amount,
                                                   @RequestParam(required = false) String description) {
-        User currentUser = securityUtils.getCurrentUser();
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
         // Verify user is member of the fund's group (unless admin)
         if (!securityUtils.isAdmin(currentUser)) {
-            fundService.verifyUserCanAccessFund(fundId, currentUser.getId());
+            fundService.verifyUserCanAccessFund(fundId, currentUser.id());
         }
-        return ResponseEntity.ok(fundService.deposit(fundId, amount, currentUser.getId(), description));
+        return ResponseEntity.ok(fundService.deposit(fundId, amount, currentUser.id(), description));
     }
 
     @PostMapping("/{fundId}/withdraw")
@@ -54,20 +59,20 @@ public class CommonFundController {
                                                    @RequestParam BigDecimal amount,
                                                    @RequestParam(required = false) String description,
                                                    @RequestParam(required = false) String reference) {
-        User currentUser = securityUtils.getCurrentUser();
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
         // Verify user is member of the fund's group (unless admin)
         if (!securityUtils.isAdmin(currentUser)) {
-            fundService.verifyUserCanAccessFund(fundId, currentUser.getId());
+            fundService.verifyUserCanAccessFund(fundId, currentUser.id());
         }
-        return ResponseEntity.ok(fundService.withdraw(fundId, amount, currentUser.getId(), description, reference));
+        return ResponseEntity.ok(fundService.withdraw(fundId, amount, currentUser.id(), description, reference));
     }
 
     @GetMapping("/group/{groupId}")
     public ResponseEntity<List<CommonFund>> getGroupFunds(@PathVariable Long groupId) {
         // Verify user is member of the group (unless admin)
-        com.evcoownership.coowner.model.User currentUser = securityUtils.getCurrentUser();
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
         if (!securityUtils.isAdmin(currentUser)) {
-            fundService.verifyUserCanAccessGroupFunds(groupId, currentUser.getId());
+            fundService.verifyUserCanAccessGroupFunds(groupId, currentUser.id());
         }
         return ResponseEntity.ok(fundService.getGroupFunds(groupId));
     }
@@ -75,13 +80,43 @@ public class CommonFundController {
     @GetMapping("/{fundId}/transactions")
     public ResponseEntity<List<FundTransaction>> getTransactions(@PathVariable Long fundId) {
         // Verify user is member of the fund's group (unless admin)
-        com.evcoownership.coowner.model.User currentUser = securityUtils.getCurrentUser();
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
         if (!securityUtils.isAdmin(currentUser)) {
-            fundService.verifyUserCanAccessFund(fundId, currentUser.getId());
+            fundService.verifyUserCanAccessFund(fundId, currentUser.id());
         }
         return ResponseEntity.ok(fundService.getFundTransactions(fundId));
     }
 
+    @GetMapping("/{fundId}/transactions/page")
+    public ResponseEntity<FundTransactionPage> getTransactionPage(
+            @PathVariable Long fundId,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeDate,
+            @RequestParam(required = false) Long beforeId) {
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
+        if (!securityUtils.isAdmin(currentUser)) {
+            fundService.verifyUserCanAccessFund(fundId, currentUser.id());
+        }
+        return ResponseEntity.ok(fundService.getFundTransactionPage(fundId, beforeDate, beforeId, limit));
+    }
+
+    // Số dư tại một thời điểm trong quá khứ (mặc định là hiện tại)
+    @GetMapping("/{fundId}/balance")
+    public ResponseEntity<Map<String, Object>> getBalance(
+            @PathVariable Long fundId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
+        if (!securityUtils.isAdmin(currentUser)) {
+            fundService.verifyUserCanAccessFund(fundId, currentUser.id());
+        }
+        LocalDateTime at = asOf != null ? asOf : LocalDateTime.now();
+        Map<String, Object> response = new HashMap<>();
+        response.put("fundId", fundId);
+        response.put("asOf", at);
+        response.put("balance", fundService.getBalanceAsOf(fundId, at));
+        return ResponseEntity.ok(response);
+    }
+
     // Inner class for request body
     public static class CreateFundRequest {
         private Long groupId;
@@ -1,7 +1,7 @@
 package com.evcoownership.coowner.controller;
 
 import com.evcoownership.coowner.model.Dispute;
-import com.evcoownership.coowner.model.User;
+import com.evcoownership.coowner.security.AuthenticatedUser;
 import com.evcoownership.coowner.security.SecurityUtils;
 import com.evcoownership.coowner.service.DisputeService;
 import org.springframework.http.ResponseEntity;
@@ -25,17 +25,17 @@ public class DisputeController {
 
     @PostMapping
     public ResponseEntity<Dispute> create(@RequestBody Map<String, Object> request) {
-        User currentUser = securityUtils.getCurrentUser();
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
         Long groupId = Long.valueOf(request.get("groupId").toString());
-        return ResponseEntity.ok(disputeService.createDispute(groupId, currentUser.getId(), request));
+        return ResponseEntity.ok(disputeService.createDispute(groupId, currentUser.id(), request));
     }
 
     @PutMapping("/{id}/resolve")
     @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
     public ResponseEntity<Dispute> resolve(@PathVariable Long id,
                                          @RequestParam String resolution) {
-        User currentUser = securityUtils.getCurrentUser();
-        return ResponseEntity.ok(disputeService.resolveDispute(id, currentUser.getId(), resolution));
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
+        return ResponseEntity.ok(disputeService.resolveDispute(id, currentUser.id(), resolution));
     }
 
     @GetMapping
@@ -46,9 +46,8 @@ public class DisputeController {
 
     @GetMapping("/group/{groupId}")
     public ResponseEntity<List<Dispute>> getGroupDisputes(@PathVariable Long groupId) {
-        User currentUser = securityUtils.getCurrentUser();
-        boolean isAdminOrStaff = currentUser.getRoles().stream()
-            .anyMatch(role -> "ADMIN".equals(role.getName()) || "STAFF".equals(role.getName()));
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
+        boolean isAdminOrStaff = securityUtils.isAdminOrStaff(currentUser);
         
         if (!isAdminOrStaff) {
         }
@@ -2,7 +2,7 @@ package com.evcoownership.coowner.controller;
 
 import com.evcoownership.coowner.dto.CreateEContractRequest;
 import com.evcoownership.coowner.model.EContract;
-import com.evcoownership.coowner.model.User;
+import com.evcoownership.coowner.security.AuthenticatedUser;
 import com.evcoownership.coowner.security.SecurityUtils;
 import com.evcoownership.coowner.service.EContractService;
 import org.springframework.http.ResponseEntity;
@@ -27,14 +27,14 @@ public class EContractController {
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
     public ResponseEntity<EContract> create(@Validated @RequestBody CreateEContractRequest req) {
-        User currentUser = securityUtils.getCurrentUser();
-        return ResponseEntity.ok(contractService.createContract(req, currentUser.getId()));
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
+        return ResponseEntity.ok(contractService.createContract(req, currentUser.id()));
     }
 
     @PutMapping("/{id}/sign")
     public ResponseEntity<EContract> sign(@PathVariable Long id) {
         // User chỉ ký được contract của group mình thuộc về
-        User currentUser = securityUtils.getCurrentUser();
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
         // TODO: Check if user is member of contract's group
         return ResponseEntity.ok(contractService.signContract(id));
     }
@@ -42,12 +42,8 @@ public class EContractController {
     @GetMapping("/group/{groupId}")
     public ResponseEntity<List<EContract>> getGroupContracts(@PathVariable Long groupId) {
         // User chỉ xem được contracts của group mình thuộc về
-        User currentUser = securityUtils.getCurrentUser();
-        boolean isAdminOrStaff = false;
-        if (currentUser != null && currentUser.getRoles() != null) {
-            isAdminOrStaff = currentUser.getRoles().stream()
-                .anyMatch(role -> role != null && ("ADMIN".equals(role.getName()) || "STAFF".equals(role.getName())));
-        }
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
+        boolean isAdminOrStaff = securityUtils.isAdminOrStaff(currentUser);
         
         if (!isAdminOrStaff) {
             // TODO: Check if user is member of group
@@ -1,15 +1,20 @@
 package com.evcoownership.coowner.controller;
 
 import com.evcoownership.coowner.dto.CreateExpenseRequest;
+import com.evcoownership.coowner.dto.ExpenseImportResult;
 import com.evcoownership.coowner.model.Expense;
 import com.evcoownership.coowner.model.ExpenseShare;
-import com.evcoownership.coowner.model.User;
+import com.evcoownership.coowner.security.AuthenticatedUser;
 import com.evcoownership.coowner.security.SecurityUtils;
+import com.evcoownership.coowner.service.ExpenseImportService;
 import com.evcoownership.coowner.service.ExpenseService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -17,78 +22,101 @@ import java.util.List;
 public class ExpenseController {
 
     private final ExpenseService expenseService;
+    private final ExpenseImportService expenseImportService;
     private final SecurityUtils securityUtils;
 
-    public ExpenseController(ExpenseService expenseService, SecurityUtils securityUtils) {
+    public ExpenseController(ExpenseService expenseService,
+                             ExpenseImportService expenseImportService,
+                             SecurityUtils securityUtils) {
         this.expenseService = expenseService;
+        this.expenseImportService = expenseImportService;
         this.securityUtils = securityUtils;
     }
 
     @PostMapping
     public ResponseEntity<Expense> create(@Validated @RequestBody CreateExpenseRequest req) {
-        User currentUser = securityUtils.getCurrentUser();
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
         // Admin không thể tạo expense
         if (securityUtils.isAdmin(currentUser)) {
             throw new IllegalArgumentException("Admin không thể tạo chi phí");
         }
-        return ResponseEntity.ok(expenseService.createExpense(req, currentUser.getId()));
+        return ResponseEntity.ok(expenseService.createExpense(req, currentUser.id()));
+    }
+
+    // Import hàng loạt từ CSV (có header) hoặc mảng JSON; trả về số dòng đã lưu và lỗi của từng dòng
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ExpenseImportResult> importCsv(InputStream body) throws IOException {
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
+        if (securityUtils.isAdmin(currentUser)) {
+            throw new IllegalArgumentException("Admin không thể tạo chi phí");
+        }
+        return ResponseEntity.ok(expenseImportService.importCsv(body, currentUser.id()));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ExpenseImportResult> importJson(InputStream body) throws IOException {
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
+        if (securityUtils.isAdmin(currentUser)) {
+            throw new IllegalArgumentException("Admin không thể tạo chi phí");
+        }
+        return ResponseEntity.ok(expenseImportService.importJson(body, currentUser.id()));
     }
 
     @GetMapping("/group/{groupId}")
     public ResponseEntity<List<Expense>> getGroupExpenses(@PathVariable Long groupId) {
-        User currentUser = securityUtils.getCurrentUser();
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
         // Chỉ member của group mới được xem expenses
-        expenseService.verifyUserIsGroupMember(groupId, currentUser.getId());
+        expenseService.verifyUserIsGroupMember(groupId, currentUser.id());
         return ResponseEntity.ok(expenseService.getGroupExpenses(groupId));
     }
 
     @GetMapping("/my-shares")
     public ResponseEntity<List<ExpenseShare>> getMyExpenseShares() {
-        User currentUser = securityUtils.getCurrentUser();
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
         // Admin không thể xem expense shares của user
         if (securityUtils.isAdmin(currentUser)) {
             throw new IllegalArgumentException("Admin không thể xem chi phí của người dùng");
         }
-        return ResponseEntity.ok(expenseService.getUserExpenseShares(currentUser.getId()));
+        return ResponseEntity.ok(expenseService.getUserExpenseShares(currentUser.id()));
     }
 
     @PutMapping("/{id}/approve")
     public ResponseEntity<Expense> approveExpense(@PathVariable Long id) {
-        User currentUser = securityUtils.getCurrentUser();
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
         // Admin không thể approve expense
         if (securityUtils.isAdmin(currentUser)) {
             throw new IllegalArgumentException("Admin không thể thao tác với chi phí của người dùng");
         }
-        return ResponseEntity.ok(expenseService.approveExpense(id, currentUser.getId()));
+        return ResponseEntity.ok(expenseService.approveExpense(id, currentUser.id()));
     }
 
     @PutMapping("/{id}/reject")
     public ResponseEntity<Expense> rejectExpense(@PathVariable Long id) {
-        User currentUser = securityUtils.getCurrentUser();
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
         // Admin không thể reject expense
         if (securityUtils.isAdmin(currentUser)) {
             throw new IllegalArgumentException("Admin không thể thao tác với chi phí của người dùng");
         }
-        return ResponseEntity.ok(expenseService.rejectExpense(id, currentUser.getId()));
+        return ResponseEntity.ok(expenseService.rejectExpense(id, currentUser.id()));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Expense> get(@PathVariable Long id) {
-        User currentUser = securityUtils.getCurrentUser();
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
         Expense expense = expenseService.getExpense(id);
         // Chỉ member của group mới được xem expense
-        expenseService.verifyUserIsGroupMember(expense.getGroup().getId(), currentUser.getId());
+        expenseService.verifyUserIsGroupMember(expense.getGroup().getId(), currentUser.id());
         return ResponseEntity.ok(expense);
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
-        User currentUser = securityUtils.getCurrentUser();
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
         // Admin không thể xóa expense
         if (securityUtils.isAdmin(currentUser)) {
             throw new IllegalArgumentException("Admin không thể xóa chi phí của người dùng");
         }
-        expenseService.deleteExpense(id, currentUser.getId());
+        expenseService.deleteExpense(id, currentUser.id());
         return ResponseEntity.noContent().build();
     }
 }
@@ -2,84 +2,99 @@ package com.evcoownership.coowner.controller;
 
 import com.evcoownership.coowner.dto.AddMemberRequest;
 import com.evcoownership.coowner.dto.CreateGroupRequest;
+import com.evcoownership.coowner.dto.UserGroupDto;
 import com.evcoownership.coowner.model.Group;
 import com.evcoownership.coowner.model.OwnershipShare;
-import com.evcoownership.coowner.model.User;
+import com.evcoownership.coowner.security.AuthenticatedUser;
 import com.evcoownership.coowner.security.SecurityUtils;
+import com.evcoownership.coowner.service.GroupDashboardService;
 import com.evcoownership.coowner.service.GroupService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/groups")
 public class GroupController {
 
     private final GroupService groupService;
+    private final GroupDashboardService groupDashboardService;
     private final SecurityUtils securityUtils;
 
-    public GroupController(GroupService groupService, SecurityUtils securityUtils) {
+    public GroupController(GroupService groupService, GroupDashboardService groupDashboardService,
+                           SecurityUtils securityUtils) {
         this.groupService = groupService;
+        this.groupDashboardService = groupDashboardService;
         this.securityUtils = securityUtils;
     }
 
     @GetMapping
-    public ResponseEntity<List<Group>> list() {
-        User currentUser = securityUtils.getCurrentUser();
-        return ResponseEntity.ok(groupService.getUserGroups(currentUser.getId()));
+    public ResponseEntity<List<UserGroupDto>> list() {
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
+        return ResponseEntity.ok(groupService.getUserGroups(currentUser.id()));
     }
 
     @PostMapping
     public ResponseEntity<Group> create(@Validated @RequestBody CreateGroupRequest req) {
-        User currentUser = securityUtils.getCurrentUser();
-        return ResponseEntity.ok(groupService.createGroup(req, currentUser.getId()));
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
+        return ResponseEntity.ok(groupService.createGroup(req, currentUser.id()));
     }
 
     @PostMapping("/{id}/members")
     public ResponseEntity<OwnershipShare> addMember(@PathVariable Long id,
                                                     @Validated @RequestBody AddMemberRequest req) {
-        User currentUser = securityUtils.getCurrentUser();
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
         // Chỉ người tạo group (group owner) mới được thêm member
-        groupService.verifyUserIsGroupOwner(id, currentUser.getId());
+        groupService.verifyUserIsGroupOwner(id, currentUser.id());
         return ResponseEntity.ok(groupService.addMember(id, req));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Group> get(@PathVariable Long id) {
-        User currentUser = securityUtils.getCurrentUser();
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
         // Admin có thể xem tất cả groups, user thường chỉ xem được groups mình là member
         if (!securityUtils.isAdmin(currentUser)) {
-            groupService.verifyUserIsMember(id, currentUser.getId());
+            groupService.verifyUserIsMember(id, currentUser.id());
         }
         return ResponseEntity.ok(groupService.getGroup(id));
     }
 
+    @GetMapping("/{id}/dashboard")
+    public ResponseEntity<Map<String, Object>> dashboard(@PathVariable Long id) {
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
+        if (!securityUtils.isAdmin(currentUser)) {
+            groupService.verifyUserIsMember(id, currentUser.id());
+        }
+        return ResponseEntity.ok(groupDashboardService.getDashboard(id));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
-        User currentUser = securityUtils.getCurrentUser();
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
         // Chỉ người tạo group (group owner) mới được xóa group
-        groupService.verifyUserIsGroupOwner(id, currentUser.getId());
+        groupService.verifyUserIsGroupOwner(id, currentUser.id());
         groupService.deleteGroup(id);
         return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/{id}/members")
     public ResponseEntity<List<OwnershipShare>> getMembers(@PathVariable Long id) {
-        User currentUser = securityUtils.getCurrentUser();
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
         // Admin có thể xem members của tất cả groups, user thường chỉ xem được groups mình là member
         if (!securityUtils.isAdmin(currentUser)) {
-            groupService.verifyUserIsMember(id, currentUser.getId());
+            groupService.verifyUserIsMember(id, currentUser.id());
         }
         return ResponseEntity.ok(groupService.getGroupMembers(id));
     }
 
     @DeleteMapping("/{groupId}/members/{userId}")
     public ResponseEntity<Void> removeMember(@PathVariable Long groupId, @PathVariable Long userId) {
-        User currentUser = securityUtils.getCurrentUser();
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
         // Chỉ người tạo group (group owner) mới được remove member
-        groupService.verifyUserIsGroupOwner(groupId, currentUser.getId());
+        groupService.verifyUserIsGroupOwner(groupId, currentUser.id());
         groupService.removeMember(groupId, userId);
         return ResponseEntity.noContent().build();
     }
@@ -87,8 +102,8 @@ public class GroupController {
     @PutMapping("/{groupId}/transfer-ownership")
     public ResponseEntity<Group> transferOwnership(@PathVariable Long groupId,
                                                    @RequestBody TransferOwnershipRequest request) {
-        User currentUser = securityUtils.getCurrentUser();
-        return ResponseEntity.ok(groupService.transferOwnership(groupId, request.getNewOwnerId(), currentUser.getId()));
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
+        return ResponseEntity.ok(groupService.transferOwnership(groupId, request.getNewOwnerId(), currentUser.id()));
     }
 
     // Inner class for request body
@@ -0,0 +1,36 @@
+package com.evcoownership.coowner.controller;
+
+import com.evcoownership.coowner.security.AuthenticatedUser;
+import com.evcoownership.coowner.security.SecurityUtils;
+import com.evcoownership.coowner.service.GroupEventBroadcaster;
+import com.evcoownership.coowner.service.GroupService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/groups")
+public class GroupEventController {
+
+    private final GroupEventBroadcaster groupEventBroadcaster;
+    private final GroupService groupService;
+    private final SecurityUtils securityUtils;
+
+    public GroupEventController(GroupEventBroadcaster groupEventBroadcaster,
+                                GroupService groupService,
+                                SecurityUtils securityUtils) {
+        this.groupEventBroadcaster = groupEventBroadcaster;
+        this.groupService = groupService;
+        this.securityUtils = securityUtils;
+    }
+
+    // Stream SSE các thay đổi của group (vote, booking, expense, payment) thay cho việc poll từng endpoint
+    @GetMapping(value = "/{groupId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@PathVariable Long groupId) {
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
+        if (!securityUtils.isAdmin(currentUser)) {
+            groupService.verifyUserIsMember(groupId, currentUser.id());
+        }
+        return groupEventBroadcaster.subscribe(groupId, currentUser.id());
+    }
+}
@@ -1,7 +1,7 @@
 package com.evcoownership.coowner.controller;
 
 import com.evcoownership.coowner.model.Payment;
-import com.evcoownership.coowner.model.User;
+import com.evcoownership.coowner.security.AuthenticatedUser;
 import com.evcoownership.coowner.security.SecurityUtils;
 import com.evcoownership.coowner.service.PaymentService;
 import org.springframework.http.ResponseEntity;
@@ -24,13 +24,13 @@ public class PaymentController {
 
     @PostMapping
     public ResponseEntity<Payment> create(@RequestBody CreatePaymentRequest request) {
-        User currentUser = securityUtils.getCurrentUser();
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
         if (securityUtils.isAdmin(currentUser)) {
             throw new IllegalArgumentException("Admin không thể tạo thanh toán");
         }
         return ResponseEntity.ok(paymentService.processPayment(
             request.getExpenseShareId(), 
-            currentUser.getId(), 
+            currentUser.id(), 
             request.getAmount(), 
             request.getMethod()
         ));
@@ -38,11 +38,11 @@ public class PaymentController {
 
     @GetMapping("/my-payments")
     public ResponseEntity<List<Payment>> getMyPayments() {
-        User currentUser = securityUtils.getCurrentUser();
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
         if (securityUtils.isAdmin(currentUser)) {
             throw new IllegalArgumentException("Admin không thể xem thanh toán của người dùng");
         }
-        return ResponseEntity.ok(paymentService.getUserPayments(currentUser.getId()));
+        return ResponseEntity.ok(paymentService.getUserPayments(currentUser.id()));
     }
 
     @GetMapping("/expense-share/{expenseShareId}")
@@ -1,12 +1,18 @@
 package com.evcoownership.coowner.controller;
 
+import com.evcoownership.coowner.security.AuthenticatedUser;
 import com.evcoownership.coowner.security.SecurityUtils;
+import com.evcoownership.coowner.service.ReportExportService;
 import com.evcoownership.coowner.service.ReportService;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -14,10 +20,13 @@ import java.util.Map;
 public class ReportController {
 
     private final ReportService reportService;
+    private final ReportExportService reportExportService;
     private final SecurityUtils securityUtils;
 
-    public ReportController(ReportService reportService, SecurityUtils securityUtils) {
+    public ReportController(ReportService reportService, ReportExportService reportExportService,
+                            SecurityUtils securityUtils) {
         this.reportService = reportService;
+        this.reportExportService = reportExportService;
         this.securityUtils = securityUtils;
     }
 
@@ -27,14 +36,39 @@ public class ReportController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
         // Verify user is member of the group (unless admin)
-        com.evcoownership.coowner.model.User currentUser = securityUtils.getCurrentUser();
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
         if (!securityUtils.isAdmin(currentUser)) {
             // Only verify membership if user is not admin
-            reportService.verifyUserCanAccessGroupReport(groupId, currentUser.getId());
+            reportService.verifyUserCanAccessGroupReport(groupId, currentUser.id());
         }
         return ResponseEntity.ok(reportService.getGroupFinancialReport(groupId, startDate, endDate));
     }
 
+    // Export chi tiết chi phí / expense share / payment của nhiều group; admin bỏ trống groupIds để lấy tất cả
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportFinancialLines(
+            @RequestParam(required = false) List<Long> groupIds,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "csv") String format) {
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
+        String normalizedFormat = format.toLowerCase();
+        List<Long> resolvedGroupIds = reportExportService.resolveGroupIds(groupIds, startDate, endDate,
+                normalizedFormat, securityUtils.isAdmin(currentUser), currentUser.id());
+
+        boolean xlsx = "xlsx".equals(normalizedFormat);
+        String fileName = "financial-report-" + startDate + "-" + endDate + (xlsx ? ".xlsx" : ".csv");
+        MediaType contentType = xlsx
+                ? MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
+                : MediaType.parseMediaType("text/csv;charset=UTF-8");
+        StreamingResponseBody body = out ->
+                reportExportService.export(resolvedGroupIds, startDate, endDate, normalizedFormat, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(contentType)
+                .body(body);
+    }
+
     @GetMapping("/user/{userId}")
     public ResponseEntity<Map<String, Object>> getUserExpenseReport(
             @PathVariable Long userId,
@@ -44,8 +78,10 @@ public class ReportController {
     }
 
     @GetMapping("/usage-vs-ownership/{groupId}")
-    public ResponseEntity<Map<String, Object>> compareUsageVsOwnership(@PathVariable Long groupId) {
-        return ResponseEntity.ok(reportService.compareUsageVsOwnership(groupId));
+    public ResponseEntity<Map<String, Object>> compareUsageVsOwnership(
+            @PathVariable Long groupId,
+            @RequestParam(required = false) Integer days) {
+        return ResponseEntity.ok(reportService.compareUsageVsOwnership(groupId, days));
     }
 }
 
@@ -1,7 +1,7 @@
 package com.evcoownership.coowner.controller;
 
 import com.evcoownership.coowner.model.UsageHistory;
-import com.evcoownership.coowner.model.User;
+import com.evcoownership.coowner.security.AuthenticatedUser;
 import com.evcoownership.coowner.security.SecurityUtils;
 import com.evcoownership.coowner.service.UsageHistoryService;
 import org.springframework.http.ResponseEntity;
@@ -26,8 +26,8 @@ public class UsageHistoryController {
     @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
     public ResponseEntity<UsageHistory> checkIn(@RequestParam Long bookingId,
                                                 @RequestParam Integer odometer) {
-        User currentUser = securityUtils.getCurrentUser();
-        return ResponseEntity.ok(usageHistoryService.checkIn(bookingId, currentUser.getId(), odometer));
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
+        return ResponseEntity.ok(usageHistoryService.checkIn(bookingId, currentUser.id(), odometer));
     }
 
     @PostMapping("/{id}/check-out")
@@ -35,17 +35,16 @@ public class UsageHistoryController {
     public ResponseEntity<UsageHistory> checkOut(@PathVariable Long id,
                                                   @RequestParam Integer odometer,
                                                   @RequestParam(required = false) String notes) {
-        User currentUser = securityUtils.getCurrentUser();
-        return ResponseEntity.ok(usageHistoryService.checkOut(id, currentUser.getId(), odometer, notes));
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
+        return ResponseEntity.ok(usageHistoryService.checkOut(id, currentUser.id(), odometer, notes));
     }
 
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<UsageHistory>> getUserHistory(@PathVariable Long userId) {
-        User currentUser = securityUtils.getCurrentUser();
-        boolean isAdminOrStaff = currentUser.getRoles().stream()
-            .anyMatch(role -> "ADMIN".equals(role.getName()) || "STAFF".equals(role.getName()));
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
+        boolean isAdminOrStaff = securityUtils.isAdminOrStaff(currentUser);
         
-        if (!isAdminOrStaff && !currentUser.getId().equals(userId)) {
+        if (!isAdminOrStaff && !currentUser.id().equals(userId)) {
             throw new IllegalArgumentException("Bạn không có quyền xem lịch sử của user khác");
         }
         return ResponseEntity.ok(usageHistoryService.getUserHistory(userId));
@@ -58,8 +57,8 @@ public class UsageHistoryController {
 
     @GetMapping("/my-history")
     public ResponseEntity<List<UsageHistory>> getMyHistory() {
-        User currentUser = securityUtils.getCurrentUser();
-        return ResponseEntity.ok(usageHistoryService.getUserHistory(currentUser.getId()));
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
+        return ResponseEntity.ok(usageHistoryService.getUserHistory(currentUser.id()));
     }
 
     @GetMapping("/{id}")
@@ -1,9 +1,10 @@
 package com.evcoownership.coowner.controller;
 
-import com.evcoownership.coowner.model.User;
+import com.evcoownership.coowner.dto.UserVoteDto;
 import com.evcoownership.coowner.model.UserVote;
 import com.evcoownership.coowner.model.Vote;
 import com.evcoownership.coowner.model.VoteOption;
+import com.evcoownership.coowner.security.AuthenticatedUser;
 import com.evcoownership.coowner.security.SecurityUtils;
 import com.evcoownership.coowner.service.VoteService;
 import org.springframework.http.ResponseEntity;
@@ -11,6 +12,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/votes")
@@ -26,22 +28,22 @@ public class VoteController {
 
     @PostMapping
     public ResponseEntity<Vote> create(@RequestBody CreateVoteRequest request) {
-        User currentUser = securityUtils.getCurrentUser();
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
         return ResponseEntity.ok(voteService.createVote(
             request.getGroupId(), 
             request.getTopic(), 
             request.getDescription(), 
             request.getVotingMethod(), 
             request.getDeadline(), 
-            currentUser.getId()
+            currentUser
         ));
     }
 
     @PostMapping("/{voteId}/cast")
-    public ResponseEntity<UserVote> castVote(@PathVariable Long voteId,
+    public ResponseEntity<UserVoteDto> castVote(@PathVariable Long voteId,
                                            @RequestBody CastVoteRequest request) {
-        User currentUser = securityUtils.getCurrentUser();
-        return ResponseEntity.ok(voteService.castVote(voteId, currentUser.getId(), request.getChoice()));
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
+        return ResponseEntity.ok(voteService.castVote(voteId, currentUser.id(), request.getChoice()));
     }
 
     @GetMapping("/group/{groupId}")
@@ -59,10 +61,16 @@ public class VoteController {
         return ResponseEntity.ok(voteService.getVoteOptions(id));
     }
 
+    // Kết quả theo votingMethod, đọc từ tally trong bộ nhớ
+    @GetMapping("/{id}/results")
+    public ResponseEntity<Map<String, Object>> getResults(@PathVariable Long id) {
+        return ResponseEntity.ok(voteService.getVoteResults(id));
+    }
+
     @GetMapping("/{id}/my-vote")
     public ResponseEntity<UserVote> getMyVote(@PathVariable Long id) {
-        User currentUser = securityUtils.getCurrentUser();
-        UserVote myVote = voteService.getMyVote(id, currentUser.getId());
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
+        UserVote myVote = voteService.getMyVote(id, currentUser.id());
         if (myVote == null) {
             return ResponseEntity.notFound().build();
         }
@@ -71,14 +79,14 @@ public class VoteController {
 
     @PutMapping("/{id}/close")
     public ResponseEntity<Vote> closeVote(@PathVariable Long id) {
-        User currentUser = securityUtils.getCurrentUser();
-        return ResponseEntity.ok(voteService.closeVote(id, currentUser.getId()));
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
+        return ResponseEntity.ok(voteService.closeVote(id, currentUser.id()));
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
-        User currentUser = securityUtils.getCurrentUser();
-        voteService.deleteVote(id, currentUser.getId());
+        AuthenticatedUser currentUser = securityUtils.getCurrentUser();
+        voteService.deleteVote(id, currentUser.id());
         return ResponseEntity.noContent().build();
     }
 
@@ -0,0 +1,7 @@
+package com.evcoownership.coowner.dto;
+
+import java.time.LocalDateTime;
+
+public record AdminBookingRow(Long bookingId, Long vehicleId, String vehiclePlate, Long userId, String userEmail,
+                              LocalDateTime startTime, LocalDateTime endTime, String status) {
+}
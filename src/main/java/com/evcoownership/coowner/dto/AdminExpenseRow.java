@@ -0,0 +1,9 @@
+package com.evcoownership.coowner.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record AdminExpenseRow(Long id, Long groupId, String groupName, Long vehicleId, String vehiclePlate,
+                              Long createdById, String createdByEmail, String type, BigDecimal amount,
+                              LocalDate date, String splitMethod, String status) {
+}
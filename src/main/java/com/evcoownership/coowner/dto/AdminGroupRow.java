@@ -0,0 +1,4 @@
+package com.evcoownership.coowner.dto;
+
+public record AdminGroupRow(Long id, String name, Long createdById, String createdByEmail, Long memberCount) {
+}
@@ -0,0 +1,8 @@
+package com.evcoownership.coowner.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record AdminPaymentRow(Long id, Long expenseShareId, Long userId, String userEmail, BigDecimal amount,
+                              String method, String status, LocalDateTime createdAt, LocalDateTime completedAt) {
+}
@@ -0,0 +1,15 @@
+package com.evcoownership.coowner.dto;
+
+import java.util.List;
+
+public record AdminUserRow(Long id, String email, String fullName, List<String> roles) {
+
+    // Dùng trong JPQL; roles được gắn sau bằng một query cho cả trang
+    public AdminUserRow(Long id, String email, String fullName) {
+        this(id, email, fullName, List.of());
+    }
+
+    public AdminUserRow withRoles(List<String> roles) {
+        return new AdminUserRow(id, email, fullName, roles);
+    }
+}
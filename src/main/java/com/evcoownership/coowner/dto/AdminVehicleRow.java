@@ -0,0 +1,4 @@
+package com.evcoownership.coowner.dto;
+
+public record AdminVehicleRow(Long id, String vin, String plate, String model, Long contractId) {
+}
@@ -0,0 +1,17 @@
+package com.evcoownership.coowner.dto;
+
+import java.time.LocalDateTime;
+
+// Mọi thứ cần để kiểm tra một lá phiếu, lấy bằng một query:
+// ownershipPercentage null nghĩa là user không phải member của group
+public record BallotEligibility(Long voteId, Long groupId, String status, LocalDateTime deadline, String votingMethod,
+                                Double ownershipPercentage, Long adminRoleCount) {
+
+    public boolean isMember() {
+        return ownershipPercentage != null;
+    }
+
+    public boolean isAdmin() {
+        return adminRoleCount != null && adminRoleCount > 0;
+    }
+}
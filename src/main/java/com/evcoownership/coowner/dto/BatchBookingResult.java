@@ -0,0 +1,19 @@
+package com.evcoownership.coowner.dto;
+
+import java.util.List;
+
+public class BatchBookingResult {
+    private Long vehicleId;
+    private int acceptedCount;
+    private int rejectedCount;
+    private List<BookingSlotResult> results; // cùng thứ tự với slot trong request
+
+    public Long getVehicleId() { return vehicleId; }
+    public void setVehicleId(Long vehicleId) { this.vehicleId = vehicleId; }
+    public int getAcceptedCount() { return acceptedCount; }
+    public void setAcceptedCount(int acceptedCount) { this.acceptedCount = acceptedCount; }
+    public int getRejectedCount() { return rejectedCount; }
+    public void setRejectedCount(int rejectedCount) { this.rejectedCount = rejectedCount; }
+    public List<BookingSlotResult> getResults() { return results; }
+    public void setResults(List<BookingSlotResult> results) { this.results = results; }
+}
@@ -0,0 +1,7 @@
+package com.evcoownership.coowner.dto;
+
+import java.time.LocalDateTime;
+
+// Khoảng đã đặt kèm id booking, dùng để nạp BookingIntervalIndex mà không load entity Booking
+public record BookingIntervalRow(Long bookingId, Long vehicleId, LocalDateTime startTime, LocalDateTime endTime) {
+}
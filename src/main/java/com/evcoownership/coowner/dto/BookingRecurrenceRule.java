@@ -0,0 +1,37 @@
+package com.evcoownership.coowner.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+// Quy tắc lặp: đặt cùng khung giờ vào các thứ trong tuần, từ fromDate tới untilDate (bao gồm)
+public class BookingRecurrenceRule {
+    @NotNull
+    private LocalDate fromDate;
+
+    @NotNull
+    private LocalDate untilDate;
+
+    @NotEmpty
+    private Set<DayOfWeek> daysOfWeek; // MONDAY, TUESDAY, ...
+
+    @NotNull
+    private LocalTime startTime;
+
+    @NotNull
+    private LocalTime endTime; // nếu <= startTime thì kết thúc vào ngày hôm sau
+
+    public LocalDate getFromDate() { return fromDate; }
+    public void setFromDate(LocalDate fromDate) { this.fromDate = fromDate; }
+    public LocalDate getUntilDate() { return untilDate; }
+    public void setUntilDate(LocalDate untilDate) { this.untilDate = untilDate; }
+    public Set<DayOfWeek> getDaysOfWeek() { return daysOfWeek; }
+    public void setDaysOfWeek(Set<DayOfWeek> daysOfWeek) { this.daysOfWeek = daysOfWeek; }
+    public LocalTime getStartTime() { return startTime; }
+    public void setStartTime(LocalTime startTime) { this.startTime = startTime; }
+    public LocalTime getEndTime() { return endTime; }
+    public void setEndTime(LocalTime endTime) { this.endTime = endTime; }
+}
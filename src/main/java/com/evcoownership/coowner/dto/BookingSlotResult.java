@@ -0,0 +1,29 @@
+package com.evcoownership.coowner.dto;
+
+import java.time.LocalDateTime;
+
+public class BookingSlotResult {
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private boolean accepted;
+    private String reason; // lý do từ chối, null nếu được chấp nhận
+
+    public BookingSlotResult() {
+    }
+
+    public BookingSlotResult(LocalDateTime startTime, LocalDateTime endTime, boolean accepted, String reason) {
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.accepted = accepted;
+        this.reason = reason;
+    }
+
+    public LocalDateTime getStartTime() { return startTime; }
+    public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+    public LocalDateTime getEndTime() { return endTime; }
+    public void setEndTime(LocalDateTime endTime) { this.endTime = endTime; }
+    public boolean isAccepted() { return accepted; }
+    public void setAccepted(boolean accepted) { this.accepted = accepted; }
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+}
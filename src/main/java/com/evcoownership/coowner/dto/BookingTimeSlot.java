@@ -0,0 +1,7 @@
+package com.evcoownership.coowner.dto;
+
+import java.time.LocalDateTime;
+
+// Khoảng thời gian đã đặt của một xe (projection, không load entity Booking)
+public record BookingTimeSlot(Long vehicleId, LocalDateTime startTime, LocalDateTime endTime) {
+}
@@ -0,0 +1,28 @@
+package com.evcoownership.coowner.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+
+public class CreateBatchBookingRequest {
+
+    @Schema(description = "ID của xe (Vehicle) cần đặt", example = "1", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotNull(message = "Vehicle ID cannot be null")
+    private Long vehicleId;
+
+    @Schema(description = "Danh sách slot cụ thể (dùng thay cho hoặc cùng với recurrence)")
+    @Valid
+    private List<BookingSlotRequest> slots;
+
+    @Schema(description = "Quy tắc lặp, ví dụ mỗi thứ 2-6 từ 07:30 đến 09:00")
+    @Valid
+    private BookingRecurrenceRule recurrence;
+
+    public Long getVehicleId() { return vehicleId; }
+    public void setVehicleId(Long vehicleId) { this.vehicleId = vehicleId; }
+    public List<BookingSlotRequest> getSlots() { return slots; }
+    public void setSlots(List<BookingSlotRequest> slots) { this.slots = slots; }
+    public BookingRecurrenceRule getRecurrence() { return recurrence; }
+    public void setRecurrence(BookingRecurrenceRule recurrence) { this.recurrence = recurrence; }
+}
@@ -5,6 +5,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Map;
 
 public class CreateExpenseRequest {
     @NotNull
@@ -25,7 +26,9 @@ public class CreateExpenseRequest {
     private String description;
 
     @NotBlank
-    private String splitMethod; // BY_OWNERSHIP, BY_USAGE, EQUAL
+    private String splitMethod; // BY_OWNERSHIP, BY_USAGE, EQUAL, CUSTOM_WEIGHTS, FIXED_AMOUNTS
+
+    private Map<Long, BigDecimal> allocations; // userId -> trọng số (CUSTOM_WEIGHTS) hoặc số tiền (FIXED_AMOUNTS)
 
     public Long getGroupId() { return groupId; }
     public void setGroupId(Long groupId) { this.groupId = groupId; }
@@ -41,5 +44,7 @@ public class CreateExpenseRequest {
     public void setDescription(String description) { this.description = description; }
     public String getSplitMethod() { return splitMethod; }
     public void setSplitMethod(String splitMethod) { this.splitMethod = splitMethod; }
+    public Map<Long, BigDecimal> getAllocations() { return allocations; }
+    public void setAllocations(Map<Long, BigDecimal> allocations) { this.allocations = allocations; }
 }
 
@@ -0,0 +1,7 @@
+package com.evcoownership.coowner.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record DashboardExpenseRow(Long id, String type, BigDecimal amount, LocalDate date, String splitMethod) {
+}
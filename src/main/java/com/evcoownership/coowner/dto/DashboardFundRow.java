@@ -0,0 +1,6 @@
+package com.evcoownership.coowner.dto;
+
+import java.math.BigDecimal;
+
+public record DashboardFundRow(Long id, String fundType, BigDecimal balance) {
+}
@@ -0,0 +1,4 @@
+package com.evcoownership.coowner.dto;
+
+public record DashboardVehicleRow(Long id, String plate, String model) {
+}
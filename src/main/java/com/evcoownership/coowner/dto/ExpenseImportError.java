@@ -0,0 +1,19 @@
+package com.evcoownership.coowner.dto;
+
+public class ExpenseImportError {
+    private int rowNumber; // số dòng trong file (CSV tính cả dòng header) hoặc vị trí phần tử JSON, bắt đầu từ 1
+    private String message;
+
+    public ExpenseImportError() {
+    }
+
+    public ExpenseImportError(int rowNumber, String message) {
+        this.rowNumber = rowNumber;
+        this.message = message;
+    }
+
+    public int getRowNumber() { return rowNumber; }
+    public void setRowNumber(int rowNumber) { this.rowNumber = rowNumber; }
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
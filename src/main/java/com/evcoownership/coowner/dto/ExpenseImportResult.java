@@ -0,0 +1,19 @@
+package com.evcoownership.coowner.dto;
+
+import java.util.List;
+
+public class ExpenseImportResult {
+    private int totalRows;
+    private int importedCount;
+    private int failedCount;
+    private List<ExpenseImportError> errors; // chỉ gồm các dòng lỗi, theo thứ tự trong file
+
+    public int getTotalRows() { return totalRows; }
+    public void setTotalRows(int totalRows) { this.totalRows = totalRows; }
+    public int getImportedCount() { return importedCount; }
+    public void setImportedCount(int importedCount) { this.importedCount = importedCount; }
+    public int getFailedCount() { return failedCount; }
+    public void setFailedCount(int failedCount) { this.failedCount = failedCount; }
+    public List<ExpenseImportError> getErrors() { return errors; }
+    public void setErrors(List<ExpenseImportError> errors) { this.errors = errors; }
+}
@@ -0,0 +1,7 @@
+package com.evcoownership.coowner.dto;
+
+import java.math.BigDecimal;
+
+// Số lượng, tổng phải trả và tổng đã trả của các expense share theo status
+public record ExpenseShareTotalsRow(String status, Long count, BigDecimal amount, BigDecimal paidAmount) {
+}
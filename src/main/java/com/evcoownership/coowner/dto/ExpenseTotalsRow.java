@@ -0,0 +1,7 @@
+package com.evcoownership.coowner.dto;
+
+import java.math.BigDecimal;
+
+// Số lượng và tổng tiền chi phí theo (type, status)
+public record ExpenseTotalsRow(String type, String status, Long count, BigDecimal amount) {
+}
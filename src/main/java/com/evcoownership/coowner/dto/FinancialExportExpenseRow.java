@@ -0,0 +1,9 @@
+package com.evcoownership.coowner.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record FinancialExportExpenseRow(Long id, Long groupId, String groupName, LocalDate date, String type,
+                                        String description, BigDecimal amount, String splitMethod, String status,
+                                        String vehiclePlate, String createdByEmail) {
+}
@@ -0,0 +1,9 @@
+package com.evcoownership.coowner.dto;
+
+import java.math.BigDecimal;
+
+// Một expense share kèm tổng các payment COMPLETED và số payment của share đó
+public record FinancialExportShareRow(Long expenseId, Long shareId, Long userId, String userEmail, BigDecimal amount,
+                                      BigDecimal paidAmount, String status, BigDecimal completedPayments,
+                                      Long paymentCount) {
+}
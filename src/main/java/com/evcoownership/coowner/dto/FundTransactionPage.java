@@ -0,0 +1,19 @@
+package com.evcoownership.coowner.dto;
+
+import com.evcoownership.coowner.model.FundTransaction;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class FundTransactionPage {
+    private List<FundTransaction> items; // mới nhất trước
+    private LocalDateTime nextBeforeDate; // truyền lại làm beforeDate/beforeId để lấy trang sau; null nếu hết
+    private Long nextBeforeId;
+
+    public List<FundTransaction> getItems() { return items; }
+    public void setItems(List<FundTransaction> items) { this.items = items; }
+    public LocalDateTime getNextBeforeDate() { return nextBeforeDate; }
+    public void setNextBeforeDate(LocalDateTime nextBeforeDate) { this.nextBeforeDate = nextBeforeDate; }
+    public Long getNextBeforeId() { return nextBeforeId; }
+    public void setNextBeforeId(Long nextBeforeId) { this.nextBeforeId = nextBeforeId; }
+}
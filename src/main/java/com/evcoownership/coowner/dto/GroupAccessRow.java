@@ -0,0 +1,4 @@
+package com.evcoownership.coowner.dto;
+
+public record GroupAccessRow(Long groupId, Long creatorId) {
+}
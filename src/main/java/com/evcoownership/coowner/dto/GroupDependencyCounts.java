@@ -0,0 +1,5 @@
+package com.evcoownership.coowner.dto;
+
+// Số bản ghi còn tham chiếu tới group, dùng để quyết định có được xóa group hay không
+public record GroupDependencyCounts(Long vehicles, Long expenses, Long bookings, Long votes, Long funds) {
+}
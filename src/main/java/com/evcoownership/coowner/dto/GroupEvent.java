@@ -0,0 +1,18 @@
+package com.evcoownership.coowner.dto;
+
+import java.time.LocalDateTime;
+
+// Sự kiện thay đổi trong một group, gửi tới client qua SSE sau khi transaction commit.
+// Chỉ mang id; client tự gọi API để lấy dữ liệu mới
+public record GroupEvent(String type, Long groupId, Long entityId, LocalDateTime occurredAt) {
+
+    public static final String VOTE_CAST = "VOTE_CAST";
+    public static final String BOOKING_CREATED = "BOOKING_CREATED";
+    public static final String EXPENSE_CREATED = "EXPENSE_CREATED";
+    public static final String EXPENSE_APPROVED = "EXPENSE_APPROVED";
+    public static final String PAYMENT_PROCESSED = "PAYMENT_PROCESSED";
+
+    public static GroupEvent of(String type, Long groupId, Long entityId) {
+        return new GroupEvent(type, groupId, entityId, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,5 @@
+package com.evcoownership.coowner.dto;
+
+public record GroupMemberRow(Long groupId, Long shareId, Long userId, String email, String fullName,
+                             double percentage) {
+}
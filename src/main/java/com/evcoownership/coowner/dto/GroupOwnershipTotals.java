@@ -0,0 +1,4 @@
+package com.evcoownership.coowner.dto;
+
+public record GroupOwnershipTotals(Long memberCount, Double totalPercentage) {
+}
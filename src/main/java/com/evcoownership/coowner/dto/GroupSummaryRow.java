@@ -0,0 +1,4 @@
+package com.evcoownership.coowner.dto;
+
+public record GroupSummaryRow(Long groupId, String name, Long creatorId, String creatorEmail, String creatorFullName) {
+}
@@ -0,0 +1,21 @@
+package com.evcoownership.coowner.dto;
+
+import java.util.List;
+
+public class KeysetPage<T> {
+    private List<T> items;
+    private Long nextCursor; // id của dòng cuối, truyền lại làm cursor để lấy trang sau; null nếu hết
+
+    public KeysetPage() {
+    }
+
+    public KeysetPage(List<T> items, Long nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+    public Long getNextCursor() { return nextCursor; }
+    public void setNextCursor(Long nextCursor) { this.nextCursor = nextCursor; }
+}
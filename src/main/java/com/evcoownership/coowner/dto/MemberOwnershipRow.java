@@ -0,0 +1,5 @@
+package com.evcoownership.coowner.dto;
+
+// Tỉ lệ sở hữu của một member kèm tên hiển thị, không load entity User (roles EAGER)
+public record MemberOwnershipRow(Long userId, String fullName, double percentage) {
+}
@@ -0,0 +1,6 @@
+package com.evcoownership.coowner.dto;
+
+import java.time.LocalDateTime;
+
+public record TimeWindow(LocalDateTime startTime, LocalDateTime endTime) {
+}
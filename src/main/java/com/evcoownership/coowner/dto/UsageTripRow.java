@@ -0,0 +1,8 @@
+package com.evcoownership.coowner.dto;
+
+import java.time.LocalDateTime;
+
+// Một chuyến đi đã check-out, chỉ gồm các cột cần để tính rollup
+public record UsageTripRow(Long id, Long userId, Long vehicleId, LocalDateTime startTime,
+                           LocalDateTime endTime, Integer distance) {
+}
@@ -0,0 +1,10 @@
+package com.evcoownership.coowner.dto;
+
+import java.util.List;
+
+// Giữ cùng dạng JSON với entity Group (createdBy, ownershipShares[].user) nhưng chỉ gồm các cột cần hiển thị
+public record UserGroupDto(Long id, String name, UserDto createdBy, List<Member> ownershipShares) {
+
+    public record Member(Long id, UserDto user, double percentage) {
+    }
+}
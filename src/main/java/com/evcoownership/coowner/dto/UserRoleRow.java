@@ -0,0 +1,4 @@
+package com.evcoownership.coowner.dto;
+
+public record UserRoleRow(Long userId, String roleName) {
+}
@@ -0,0 +1,5 @@
+package com.evcoownership.coowner.dto;
+
+// Tổng thời gian (phút) và quãng đường (km) sử dụng xe của một user trong một khoảng thời gian
+public record UserUsageTotals(Long userId, Long usageMinutes, Long distanceKm) {
+}
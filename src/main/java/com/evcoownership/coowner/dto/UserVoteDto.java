@@ -0,0 +1,7 @@
+package com.evcoownership.coowner.dto;
+
+import java.time.LocalDateTime;
+
+// Kết quả bỏ phiếu trả về client: chỉ các id, không kèm entity vote/user
+public record UserVoteDto(Long voteId, Long userId, String choice, LocalDateTime votedAt) {
+}
@@ -0,0 +1,7 @@
+package com.evcoownership.coowner.dto;
+
+import java.util.List;
+
+// Các khoảng trống (không có booking còn hiệu lực) của một xe trong khoảng thời gian được hỏi
+public record VehicleAvailability(Long vehicleId, List<TimeWindow> freeWindows) {
+}
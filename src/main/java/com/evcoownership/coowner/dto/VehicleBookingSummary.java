@@ -0,0 +1,5 @@
+package com.evcoownership.coowner.dto;
+
+// Tóm tắt booking còn hiệu lực của một xe (dùng để phát hiện index lệch so với bảng bookings)
+public record VehicleBookingSummary(Long vehicleId, Long bookingCount, Long maxBookingId) {
+}
@@ -0,0 +1,5 @@
+package com.evcoownership.coowner.dto;
+
+// Xe và group sở hữu nó (groupId null nếu xe chưa gắn hợp đồng)
+public record VehicleGroupRef(Long vehicleId, Long groupId) {
+}
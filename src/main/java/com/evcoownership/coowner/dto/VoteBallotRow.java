@@ -0,0 +1,5 @@
+package com.evcoownership.coowner.dto;
+
+// Một lá phiếu kèm tỉ lệ sở hữu hiện tại của người bỏ phiếu (null nếu đã rời group)
+public record VoteBallotRow(Long userId, String choice, Double ownershipPercentage) {
+}
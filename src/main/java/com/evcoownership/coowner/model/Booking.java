@@ -6,7 +6,9 @@ import com.evcoownership.coowner.model.User;
 import com.evcoownership.coowner.model.EContract;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+    @Index(name = "idx_bookings_vehicle_start", columnList = "vehicle_id, start_time")
+})
 public class Booking {
 
     @Id
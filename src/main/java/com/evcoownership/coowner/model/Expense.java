@@ -9,7 +9,10 @@ import java.time.LocalDate;
 @Table(name = "expenses")
 public class Expense {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Sequence (cấp 50 id mỗi lần) thay cho IDENTITY để Hibernate gom được insert thành JDBC batch
+    // Database cũ (cột IDENTITY) phải chạy db/migration/expenses_identity_to_sequence.sql trước khi deploy
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expenses_seq")
+    @SequenceGenerator(name = "expenses_seq", sequenceName = "expenses_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false)
@@ -40,7 +43,7 @@ public class Expense {
     private String description;
 
     @Column(nullable = false)
-    private String splitMethod; // BY_OWNERSHIP (theo tỉ lệ sở hữu), BY_USAGE (theo mức sử dụng), EQUAL (chia đều)
+    private String splitMethod; // BY_OWNERSHIP (theo tỉ lệ sở hữu), BY_USAGE (theo mức sử dụng), EQUAL (chia đều), CUSTOM_WEIGHTS, FIXED_AMOUNTS
 
     @Column(nullable = false)
     private String status; // PENDING, APPROVED, REJECTED, PAID
@@ -8,7 +8,10 @@ import java.math.BigDecimal;
 @Table(name = "expense_shares")
 public class ExpenseShare {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Sequence (cấp 50 id mỗi lần) thay cho IDENTITY để Hibernate gom được insert thành JDBC batch
+    // Database cũ (cột IDENTITY) phải chạy db/migration/expenses_identity_to_sequence.sql trước khi deploy
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expense_shares_seq")
+    @SequenceGenerator(name = "expense_shares_seq", sequenceName = "expense_shares_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false)
@@ -0,0 +1,33 @@
+package com.evcoownership.coowner.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Số dư của quỹ vào cuối ngày snapshotDate (gồm mọi giao dịch có transactionDate trước 0h ngày hôm sau)
+@Entity
+@Table(name = "fund_balance_snapshots",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"fund_id", "snapshot_date"}))
+public class FundBalanceSnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "fund_id", nullable = false)
+    private Long fundId;
+
+    @Column(name = "snapshot_date", nullable = false)
+    private LocalDate snapshotDate;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal balance;
+
+    public Long getId() { return id; }
+    public Long getFundId() { return fundId; }
+    public void setFundId(Long fundId) { this.fundId = fundId; }
+    public LocalDate getSnapshotDate() { return snapshotDate; }
+    public void setSnapshotDate(LocalDate snapshotDate) { this.snapshotDate = snapshotDate; }
+    public BigDecimal getBalance() { return balance; }
+    public void setBalance(BigDecimal balance) { this.balance = balance; }
+}
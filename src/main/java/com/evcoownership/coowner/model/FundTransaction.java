@@ -7,7 +7,8 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "fund_transactions")
+@Table(name = "fund_transactions",
+        indexes = @Index(name = "idx_fund_transactions_fund_date", columnList = "fund_id, transaction_date, id"))
 public class FundTransaction {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,47 @@
+package com.evcoownership.coowner.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+// Tổng hợp mức sử dụng theo (user, xe, ngày), cập nhật dần khi check-out để báo cáo không phải quét usage_history
+@Entity
+@Table(name = "usage_daily_rollups",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "vehicle_id", "usage_date"}),
+        indexes = @Index(name = "idx_usage_rollups_date_user", columnList = "usage_date, user_id"))
+public class UsageDailyRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "vehicle_id", nullable = false)
+    private Long vehicleId;
+
+    @Column(name = "usage_date", nullable = false)
+    private LocalDate usageDate; // Ngày bắt đầu chuyến đi
+
+    @Column(name = "usage_minutes", nullable = false)
+    private long usageMinutes;
+
+    @Column(name = "distance_km", nullable = false)
+    private long distanceKm;
+
+    @Column(name = "trip_count", nullable = false)
+    private int tripCount;
+
+    public Long getId() { return id; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public Long getVehicleId() { return vehicleId; }
+    public void setVehicleId(Long vehicleId) { this.vehicleId = vehicleId; }
+    public LocalDate getUsageDate() { return usageDate; }
+    public void setUsageDate(LocalDate usageDate) { this.usageDate = usageDate; }
+    public long getUsageMinutes() { return usageMinutes; }
+    public void setUsageMinutes(long usageMinutes) { this.usageMinutes = usageMinutes; }
+    public long getDistanceKm() { return distanceKm; }
+    public void setDistanceKm(long distanceKm) { this.distanceKm = distanceKm; }
+    public int getTripCount() { return tripCount; }
+    public void setTripCount(int tripCount) { this.tripCount = tripCount; }
+}
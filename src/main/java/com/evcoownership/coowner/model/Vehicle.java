@@ -22,6 +22,11 @@ public class Vehicle {
     @JoinColumn(name = "group_id", nullable = false)
     private EContract group; // tam dung EContract lam group de stub
 
+    // Tăng trong cùng transaction với mỗi lần ghi booking của xe (đang giữ row lock);
+    // BookingIntervalIndex so giá trị này để biết index trong bộ nhớ còn khớp với DB
+    @Column(name = "booking_version")
+    private Long bookingVersion;
+
     public Long getId() { return id; }
     public String getVin() { return vin; }
     public void setVin(String vin) { this.vin = vin; }
@@ -34,4 +39,7 @@ public class Vehicle {
 
     public EContract getGroup() { return group; }
     public void setGroup(EContract group) { this.group = group; }
+
+    public long getBookingVersion() { return bookingVersion == null ? 0L : bookingVersion; }
+    public void setBookingVersion(long bookingVersion) { this.bookingVersion = bookingVersion; }
 }
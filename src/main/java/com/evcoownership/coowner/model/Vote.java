@@ -5,7 +5,7 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "votes")
+@Table(name = "votes", indexes = @Index(name = "idx_votes_status_deadline", columnList = "status, deadline"))
 public class Vote {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -1,18 +1,28 @@
 package com.evcoownership.coowner.repository;
 
+import com.evcoownership.coowner.dto.AdminBookingRow;
+import com.evcoownership.coowner.dto.BookingIntervalRow;
+import com.evcoownership.coowner.dto.BookingTimeSlot;
+import com.evcoownership.coowner.dto.DashboardBookingRow;
+import com.evcoownership.coowner.dto.VehicleBookingSummary;
 import com.evcoownership.coowner.model.Booking;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
     List<Booking> findByVehicle_Id(Long vehicleId);
 
+    // Booking đã hủy không còn chiếm slot
     @Query("SELECT COUNT(b) > 0 FROM Booking b " +
            "WHERE b.vehicle.id = :vehicleId " +
+           "AND UPPER(b.status) <> 'CANCELLED' " +
            "AND b.startTime < :newEndTime " +
            "AND b.endTime > :newStartTime")
     boolean existsOverlappingBooking(
@@ -27,4 +37,102 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
         LocalDateTime endTime
     );
 
-}
\ No newline at end of file
+    // Dùng cho BookingIntervalIndex khi đối soát định kỳ; booking kết thúc trước :since đã bị bỏ khỏi index
+    @Query("SELECT new com.evcoownership.coowner.dto.VehicleBookingSummary(b.vehicle.id, COUNT(b), MAX(b.bookingId)) " +
+           "FROM Booking b " +
+           "WHERE UPPER(b.status) <> 'CANCELLED' " +
+           "AND b.endTime > :since " +
+           "GROUP BY b.vehicle.id")
+    List<VehicleBookingSummary> summarizeActiveBookingsByVehicle(@Param("since") LocalDateTime since);
+
+    // Nạp index của một xe: chỉ (id, start, end) của booking còn hiệu lực chưa kết thúc
+    @Query("SELECT new com.evcoownership.coowner.dto.BookingIntervalRow(b.bookingId, b.vehicle.id, b.startTime, b.endTime) " +
+           "FROM Booking b " +
+           "WHERE b.vehicle.id = :vehicleId " +
+           "AND UPPER(b.status) <> 'CANCELLED' " +
+           "AND b.endTime > :since")
+    List<BookingIntervalRow> findActiveIntervalsByVehicle(
+        @Param("vehicleId") Long vehicleId,
+        @Param("since") LocalDateTime since
+    );
+
+    // Warm-up lúc khởi động: một query cho mọi xe
+    @Query("SELECT new com.evcoownership.coowner.dto.BookingIntervalRow(b.bookingId, b.vehicle.id, b.startTime, b.endTime) " +
+           "FROM Booking b " +
+           "WHERE UPPER(b.status) <> 'CANCELLED' " +
+           "AND b.endTime > :since")
+    List<BookingIntervalRow> findActiveIntervalsEndingAfter(@Param("since") LocalDateTime since);
+
+    // Các booking còn hiệu lực của xe giao với [from, to), sắp theo thời gian bắt đầu
+    @Query("SELECT new com.evcoownership.coowner.dto.BookingTimeSlot(b.vehicle.id, b.startTime, b.endTime) " +
+           "FROM Booking b " +
+           "WHERE b.vehicle.id = :vehicleId " +
+           "AND UPPER(b.status) <> 'CANCELLED' " +
+           "AND b.startTime < :to " +
+           "AND b.endTime > :from " +
+           "ORDER BY b.startTime")
+    List<BookingTimeSlot> findActiveSlotsInRange(
+        @Param("vehicleId") Long vehicleId,
+        @Param("from") LocalDateTime from,
+        @Param("to") LocalDateTime to
+    );
+
+    // Id của các booking vừa insert theo lô: slot được nhận không giao nhau và không giao booking còn hiệu lực
+    // nào của xe, nên booking còn hiệu lực bắt đầu đúng các mốc đó chỉ có thể là booking mới
+    @Query("SELECT b.bookingId FROM Booking b " +
+           "WHERE b.vehicle.id = :vehicleId " +
+           "AND UPPER(b.status) <> 'CANCELLED' " +
+           "AND b.startTime IN :startTimes " +
+           "ORDER BY b.startTime")
+    List<Long> findActiveIdsByVehicleAndStartTimes(
+        @Param("vehicleId") Long vehicleId,
+        @Param("startTimes") Collection<LocalDateTime> startTimes
+    );
+
+    // Dùng cho tìm slot trống: sắp theo xe rồi theo thời gian bắt đầu (index vehicle_id, start_time)
+    @Query("SELECT new com.evcoownership.coowner.dto.BookingTimeSlot(b.vehicle.id, b.startTime, b.endTime) " +
+           "FROM Booking b " +
+           "WHERE b.vehicle.id IN :vehicleIds " +
+           "AND UPPER(b.status) <> 'CANCELLED' " +
+           "AND b.startTime < :to " +
+           "AND b.endTime > :from " +
+           "ORDER BY b.vehicle.id, b.startTime")
+    List<BookingTimeSlot> findActiveSlotsForVehiclesInRange(
+        @Param("vehicleIds") Collection<Long> vehicleIds,
+        @Param("from") LocalDateTime from,
+        @Param("to") LocalDateTime to
+    );
+
+    // Danh sách admin; khoảng id (afterId, beforeId) do AdminListingService tính từ cursor, chiều sắp xếp do Pageable
+    @Query("SELECT new com.evcoownership.coowner.dto.AdminBookingRow(b.bookingId, v.id, v.plate, u.id, u.email, " +
+           "b.startTime, b.endTime, b.status) " +
+           "FROM Booking b LEFT JOIN b.vehicle v LEFT JOIN b.user u " +
+           "WHERE (:vehicleId IS NULL OR v.id = :vehicleId) " +
+           "AND (:userId IS NULL OR u.id = :userId) " +
+           "AND (:status IS NULL OR b.status = :status) " +
+           "AND (:from IS NULL OR b.startTime >= :from) " +
+           "AND (:to IS NULL OR b.startTime < :to) " +
+           "AND b.bookingId > :afterId AND b.bookingId < :beforeId")
+    List<AdminBookingRow> findAdminPage(@Param("vehicleId") Long vehicleId,
+                                        @Param("userId") Long userId,
+                                        @Param("status") String status,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to,
+                                        @Param("afterId") Long afterId,
+                                        @Param("beforeId") Long beforeId,
+                                        Pageable pageable);
+
+    // Booking sắp tới của các xe thuộc group (xe -> hợp đồng -> group), bỏ booking đã hủy
+    @Query("SELECT new com.evcoownership.coowner.dto.DashboardBookingRow(b.bookingId, v.id, v.plate, b.user.id, " +
+           "b.startTime, b.endTime, b.status) " +
+           "FROM Booking b JOIN b.vehicle v WHERE v.group.group.id = :groupId " +
+           "AND b.endTime > :now AND UPPER(b.status) <> 'CANCELLED' ORDER BY b.startTime")
+    List<DashboardBookingRow> findUpcomingDashboardRowsByGroupId(@Param("groupId") Long groupId,
+                                                                 @Param("now") LocalDateTime now,
+                                                                 Pageable pageable);
+
+    // Booking còn hiệu lực (PENDING/CONFIRMED) của user trên các xe thuộc group
+    @Query("SELECT COUNT(b) FROM Booking b WHERE b.user.id = :userId AND b.group.group.id = :groupId " +
+           "AND UPPER(b.status) IN ('PENDING', 'CONFIRMED')")
+    long countActiveByUserInGroup(@Param("userId") Long userId, @Param("groupId") Long groupId);
+}
@@ -1,13 +1,37 @@
 package com.evcoownership.coowner.repository;
 
+import com.evcoownership.coowner.dto.DashboardFundRow;
 import com.evcoownership.coowner.model.CommonFund;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
 public interface CommonFundRepository extends JpaRepository<CommonFund, Long> {
     List<CommonFund> findByGroupId(Long groupId);
     Optional<CommonFund> findByGroupIdAndFundType(Long groupId, String fundType);
-}
 
+    @Query("SELECT f.group.id FROM CommonFund f WHERE f.id = :fundId")
+    Optional<Long> findGroupIdByFundId(@Param("fundId") Long fundId);
+
+    @Query("SELECT f.id FROM CommonFund f")
+    List<Long> findAllIds();
+
+    // Cộng/trừ số dư bằng một câu UPDATE nguyên tử, không đọc-sửa-ghi trong Java nên không mất cập nhật
+    @Modifying
+    @Query("UPDATE CommonFund f SET f.balance = f.balance + :amount WHERE f.id = :fundId")
+    int addToBalance(@Param("fundId") Long fundId, @Param("amount") BigDecimal amount);
+
+    // Chỉ trừ khi đủ số dư; trả về 0 nếu không đủ (hoặc fund không tồn tại)
+    @Modifying
+    @Query("UPDATE CommonFund f SET f.balance = f.balance - :amount WHERE f.id = :fundId AND f.balance >= :amount")
+    int subtractFromBalance(@Param("fundId") Long fundId, @Param("amount") BigDecimal amount);
+
+    @Query("SELECT new com.evcoownership.coowner.dto.DashboardFundRow(f.id, f.fundType, f.balance) " +
+           "FROM CommonFund f WHERE f.group.id = :groupId ORDER BY f.id")
+    List<DashboardFundRow> findDashboardRowsByGroupId(@Param("groupId") Long groupId);
+}
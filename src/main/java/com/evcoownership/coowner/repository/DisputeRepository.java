@@ -0,0 +1,11 @@
+package com.evcoownership.coowner.repository;
+
+import com.evcoownership.coowner.model.Dispute;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface DisputeRepository extends JpaRepository<Dispute, Long> {
+    List<Dispute> findByGroupId(Long groupId);
+    List<Dispute> findByStatus(String status);
+}
@@ -1,8 +1,15 @@
 package com.evcoownership.coowner.repository;
 
+import com.evcoownership.coowner.dto.AdminExpenseRow;
+import com.evcoownership.coowner.dto.DashboardExpenseRow;
+import com.evcoownership.coowner.dto.ExpenseTotalsRow;
+import com.evcoownership.coowner.dto.FinancialExportExpenseRow;
 import com.evcoownership.coowner.model.Expense;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -28,5 +35,46 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
     @EntityGraph(attributePaths = {"group", "vehicle", "createdBy"})
     @Override
     java.util.Optional<Expense> findById(Long id);
-}
 
+    // Danh sách admin; khoảng id (afterId, beforeId) do AdminListingService tính từ cursor, chiều sắp xếp do Pageable
+    @Query("SELECT new com.evcoownership.coowner.dto.AdminExpenseRow(e.id, g.id, g.name, v.id, v.plate, " +
+           "u.id, u.email, e.type, e.amount, e.date, e.splitMethod, e.status) " +
+           "FROM Expense e JOIN e.group g LEFT JOIN e.vehicle v LEFT JOIN e.createdBy u " +
+           "WHERE (:groupId IS NULL OR g.id = :groupId) " +
+           "AND (:status IS NULL OR e.status = :status) " +
+           "AND (:type IS NULL OR e.type = :type) " +
+           "AND (:fromDate IS NULL OR e.date >= :fromDate) " +
+           "AND (:toDate IS NULL OR e.date <= :toDate) " +
+           "AND e.id > :afterId AND e.id < :beforeId")
+    List<AdminExpenseRow> findAdminPage(@Param("groupId") Long groupId,
+                                        @Param("status") String status,
+                                        @Param("type") String type,
+                                        @Param("fromDate") LocalDate fromDate,
+                                        @Param("toDate") LocalDate toDate,
+                                        @Param("afterId") Long afterId,
+                                        @Param("beforeId") Long beforeId,
+                                        Pageable pageable);
+
+    @Query("SELECT new com.evcoownership.coowner.dto.DashboardExpenseRow(e.id, e.type, e.amount, e.date, e.splitMethod) " +
+           "FROM Expense e WHERE e.group.id = :groupId AND e.status = 'PENDING' ORDER BY e.date DESC, e.id DESC")
+    List<DashboardExpenseRow> findPendingDashboardRowsByGroupId(@Param("groupId") Long groupId, Pageable pageable);
+
+    // Đọc chi phí của group theo chunk (keyset theo id) cho export báo cáo
+    @Query("SELECT new com.evcoownership.coowner.dto.FinancialExportExpenseRow(e.id, g.id, g.name, e.date, e.type, " +
+           "e.description, e.amount, e.splitMethod, e.status, v.plate, c.email) " +
+           "FROM Expense e JOIN e.group g LEFT JOIN e.vehicle v LEFT JOIN e.createdBy c " +
+           "WHERE g.id = :groupId AND e.date BETWEEN :startDate AND :endDate AND e.id > :afterId " +
+           "ORDER BY e.id")
+    List<FinancialExportExpenseRow> findExportRowsAfter(@Param("groupId") Long groupId,
+                                                        @Param("startDate") LocalDate startDate,
+                                                        @Param("endDate") LocalDate endDate,
+                                                        @Param("afterId") Long afterId,
+                                                        Pageable pageable);
+
+    @Query("SELECT new com.evcoownership.coowner.dto.ExpenseTotalsRow(e.type, e.status, COUNT(e), SUM(e.amount)) " +
+           "FROM Expense e WHERE e.group.id = :groupId AND e.date BETWEEN :startDate AND :endDate " +
+           "GROUP BY e.type, e.status")
+    List<ExpenseTotalsRow> sumByTypeAndStatus(@Param("groupId") Long groupId,
+                                              @Param("startDate") LocalDate startDate,
+                                              @Param("endDate") LocalDate endDate);
+}
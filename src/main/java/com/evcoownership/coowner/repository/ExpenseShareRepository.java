@@ -1,9 +1,15 @@
 package com.evcoownership.coowner.repository;
 
+import com.evcoownership.coowner.dto.ExpenseShareTotalsRow;
+import com.evcoownership.coowner.dto.FinancialExportShareRow;
 import com.evcoownership.coowner.model.ExpenseShare;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,5 +34,21 @@ public interface ExpenseShareRepository extends JpaRepository<ExpenseShare, Long
     @EntityGraph(attributePaths = {"expense", "user"})
     @Override
     Optional<ExpenseShare> findById(Long id);
-}
 
+    @Query("SELECT new com.evcoownership.coowner.dto.FinancialExportShareRow(s.expense.id, s.id, u.id, u.email, " +
+           "s.amount, s.paidAmount, s.status, SUM(CASE WHEN p.status = 'COMPLETED' THEN p.amount END), COUNT(p)) " +
+           "FROM ExpenseShare s JOIN s.user u LEFT JOIN Payment p ON p.expenseShare = s " +
+           "WHERE s.expense.id IN :expenseIds " +
+           "GROUP BY s.expense.id, s.id, u.id, u.email, s.amount, s.paidAmount, s.status " +
+           "ORDER BY s.expense.id, s.id")
+    List<FinancialExportShareRow> findExportRowsByExpenseIds(@Param("expenseIds") Collection<Long> expenseIds);
+
+    // Tổng các share của user trong khoảng ngày phát sinh chi phí, theo status
+    @Query("SELECT new com.evcoownership.coowner.dto.ExpenseShareTotalsRow(s.status, COUNT(s), SUM(s.amount), " +
+           "SUM(s.paidAmount)) " +
+           "FROM ExpenseShare s WHERE s.user.id = :userId AND s.expense.date BETWEEN :startDate AND :endDate " +
+           "GROUP BY s.status")
+    List<ExpenseShareTotalsRow> sumByStatusForUser(@Param("userId") Long userId,
+                                                   @Param("startDate") LocalDate startDate,
+                                                   @Param("endDate") LocalDate endDate);
+}
@@ -0,0 +1,14 @@
+package com.evcoownership.coowner.repository;
+
+import com.evcoownership.coowner.model.FundBalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface FundBalanceSnapshotRepository extends JpaRepository<FundBalanceSnapshot, Long> {
+    // Snapshot gần nhất kết thúc trước ngày date (tức là trước 0h của date)
+    Optional<FundBalanceSnapshot> findFirstByFundIdAndSnapshotDateLessThanOrderBySnapshotDateDesc(Long fundId, LocalDate date);
+
+    Optional<FundBalanceSnapshot> findByFundIdAndSnapshotDate(Long fundId, LocalDate snapshotDate);
+}
@@ -1,9 +1,13 @@
 package com.evcoownership.coowner.repository;
 
 import com.evcoownership.coowner.model.FundTransaction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -15,6 +19,33 @@ public interface FundTransactionRepository extends JpaRepository<FundTransaction
     @EntityGraph(attributePaths = {"fund", "createdBy"})
     List<FundTransaction> findByFundIdOrderByTransactionDateDesc(Long fundId);
     
+    // Trang đầu của danh sách giao dịch (keyset theo transactionDate, id)
+    @EntityGraph(attributePaths = {"fund", "createdBy"})
+    List<FundTransaction> findByFundIdOrderByTransactionDateDescIdDesc(Long fundId, Pageable pageable);
+
+    // Các trang sau: chỉ đọc những dòng đứng sau con trỏ (beforeDate, beforeId), không dùng OFFSET
+    @EntityGraph(attributePaths = {"fund", "createdBy"})
+    @Query("SELECT t FROM FundTransaction t WHERE t.fund.id = :fundId " +
+           "AND (t.transactionDate < :beforeDate OR (t.transactionDate = :beforeDate AND t.id < :beforeId)) " +
+           "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<FundTransaction> findPageBefore(@Param("fundId") Long fundId,
+                                         @Param("beforeDate") LocalDateTime beforeDate,
+                                         @Param("beforeId") Long beforeId,
+                                         Pageable pageable);
+
+    // Biến động ròng (nộp - rút) trong [from, to)
+    @Query("SELECT COALESCE(SUM(CASE WHEN t.type = 'DEPOSIT' THEN t.amount ELSE -t.amount END), 0) " +
+           "FROM FundTransaction t WHERE t.fund.id = :fundId " +
+           "AND t.transactionDate >= :from AND t.transactionDate < :to")
+    BigDecimal sumNetAmountBetween(@Param("fundId") Long fundId,
+                                   @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to);
+
+    // Biến động ròng từ khi lập quỹ tới trước thời điểm to
+    @Query("SELECT COALESCE(SUM(CASE WHEN t.type = 'DEPOSIT' THEN t.amount ELSE -t.amount END), 0) " +
+           "FROM FundTransaction t WHERE t.fund.id = :fundId AND t.transactionDate < :to")
+    BigDecimal sumNetAmountBefore(@Param("fundId") Long fundId, @Param("to") LocalDateTime to);
+
     @EntityGraph(attributePaths = {"fund", "createdBy"})
     List<FundTransaction> findByTransactionDateBetween(LocalDateTime start, LocalDateTime end);
     
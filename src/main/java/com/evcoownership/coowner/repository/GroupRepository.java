@@ -1,9 +1,15 @@
 package com.evcoownership.coowner.repository;
 
+import com.evcoownership.coowner.dto.AdminGroupRow;
+import com.evcoownership.coowner.dto.GroupAccessRow;
+import com.evcoownership.coowner.dto.GroupDependencyCounts;
+import com.evcoownership.coowner.dto.GroupSummaryRow;
 import com.evcoownership.coowner.model.Group;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -34,6 +40,46 @@ public interface GroupRepository extends JpaRepository<Group, Long> {
     @EntityGraph(attributePaths = {"ownershipShares.user", "createdBy"})
     @Query("SELECT g FROM Group g WHERE g.id = :id")
     Optional<Group> findByIdWithCreatedBy(Long id);
-}
 
+    // Chỉ id group và id người tạo, dùng cho kiểm tra quyền (không load members)
+    @Query("SELECT new com.evcoownership.coowner.dto.GroupAccessRow(g.id, c.id) " +
+           "FROM Group g LEFT JOIN g.createdBy c WHERE g.id = :groupId")
+    Optional<GroupAccessRow> findAccessRow(@Param("groupId") Long groupId);
+
+    // Danh sách admin; khoảng id (afterId, beforeId) do AdminListingService tính từ cursor, chiều sắp xếp do Pageable
+    @Query("SELECT new com.evcoownership.coowner.dto.AdminGroupRow(g.id, g.name, c.id, c.email, COUNT(os)) " +
+           "FROM Group g LEFT JOIN g.createdBy c LEFT JOIN g.ownershipShares os " +
+           "WHERE (:name IS NULL OR LOWER(g.name) LIKE LOWER(CONCAT('%', :name, '%'))) " +
+           "AND g.id > :afterId AND g.id < :beforeId " +
+           "GROUP BY g.id, g.name, c.id, c.email")
+    List<AdminGroupRow> findAdminPage(@Param("name") String name,
+                                      @Param("afterId") Long afterId,
+                                      @Param("beforeId") Long beforeId,
+                                      Pageable pageable);
+
+    // Group mà user là member hoặc người tạo, kèm người tạo, trong một query
+    @Query("SELECT new com.evcoownership.coowner.dto.GroupSummaryRow(g.id, g.name, c.id, c.email, c.fullName) " +
+           "FROM Group g LEFT JOIN g.createdBy c " +
+           "WHERE c.id = :userId " +
+           "OR EXISTS (SELECT 1 FROM OwnershipShare os WHERE os.group = g AND os.user.id = :userId) " +
+           "ORDER BY g.id")
+    List<GroupSummaryRow> findSummariesForUser(@Param("userId") Long userId);
 
+    @Query("SELECT new com.evcoownership.coowner.dto.GroupSummaryRow(g.id, g.name, c.id, c.email, c.fullName) " +
+           "FROM Group g LEFT JOIN g.createdBy c WHERE g.id = :groupId")
+    Optional<GroupSummaryRow> findSummaryById(@Param("groupId") Long groupId);
+
+    // Đếm mọi phụ thuộc của group trong một câu lệnh; rỗng nếu group không tồn tại.
+    // Xe và booking gắn với group qua hợp đồng (EContract)
+    @Query("SELECT new com.evcoownership.coowner.dto.GroupDependencyCounts(" +
+           "(SELECT COUNT(v) FROM Vehicle v WHERE v.group.group.id = g.id), " +
+           "(SELECT COUNT(e) FROM Expense e WHERE e.group.id = g.id), " +
+           "(SELECT COUNT(b) FROM Booking b WHERE b.group.group.id = g.id), " +
+           "(SELECT COUNT(vo) FROM Vote vo WHERE vo.group.id = g.id), " +
+           "(SELECT COUNT(f) FROM CommonFund f WHERE f.group.id = g.id)) " +
+           "FROM Group g WHERE g.id = :groupId")
+    Optional<GroupDependencyCounts> countDependencies(@Param("groupId") Long groupId);
+
+    @Query("SELECT g.id FROM Group g ORDER BY g.id")
+    List<Long> findAllIds();
+}
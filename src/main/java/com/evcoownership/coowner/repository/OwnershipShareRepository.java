@@ -1,9 +1,15 @@
 package com.evcoownership.coowner.repository;
 
+import com.evcoownership.coowner.dto.GroupMemberRow;
+import com.evcoownership.coowner.dto.GroupOwnershipTotals;
+import com.evcoownership.coowner.dto.MemberOwnershipRow;
 import com.evcoownership.coowner.model.OwnershipShare;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface OwnershipShareRepository extends JpaRepository<OwnershipShare, Long> {
@@ -14,6 +20,20 @@ public interface OwnershipShareRepository extends JpaRepository<OwnershipShare,
     boolean existsByGroupIdAndUserId(Long groupId, Long userId);
     @EntityGraph(attributePaths = {"user", "group.createdBy"})
     java.util.Optional<OwnershipShare> findByGroupIdAndUserId(Long groupId, Long userId);
-}
 
+    @Query("SELECT new com.evcoownership.coowner.dto.GroupOwnershipTotals(COUNT(os), COALESCE(SUM(os.percentage), 0.0)) " +
+           "FROM OwnershipShare os WHERE os.group.id = :groupId")
+    GroupOwnershipTotals summarizeGroup(@Param("groupId") Long groupId);
+
+    @Query("SELECT os.user.id FROM OwnershipShare os WHERE os.group.id = :groupId")
+    List<Long> findUserIdsByGroupId(@Param("groupId") Long groupId);
 
+    // Thành viên của nhiều group trong một query IN
+    @Query("SELECT new com.evcoownership.coowner.dto.GroupMemberRow(os.group.id, os.id, u.id, u.email, u.fullName, os.percentage) " +
+           "FROM OwnershipShare os JOIN os.user u WHERE os.group.id IN :groupIds ORDER BY os.group.id, os.id")
+    List<GroupMemberRow> findMemberRowsByGroupIds(@Param("groupIds") Collection<Long> groupIds);
+
+    @Query("SELECT new com.evcoownership.coowner.dto.MemberOwnershipRow(u.id, u.fullName, os.percentage) " +
+           "FROM OwnershipShare os JOIN os.user u WHERE os.group.id = :groupId ORDER BY os.id")
+    List<MemberOwnershipRow> findOwnershipRowsByGroupId(@Param("groupId") Long groupId);
+}
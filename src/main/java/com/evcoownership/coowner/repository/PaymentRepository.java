@@ -1,7 +1,11 @@
 package com.evcoownership.coowner.repository;
 
+import com.evcoownership.coowner.dto.AdminPaymentRow;
 import com.evcoownership.coowner.model.Payment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -12,5 +16,19 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     List<Payment> findByUserIdAndStatus(Long userId, String status);
     List<Payment> findByStatus(String status);
     List<Payment> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
-}
 
+    // Danh sách admin; khoảng id (afterId, beforeId) do AdminListingService tính từ cursor, chiều sắp xếp do Pageable
+    @Query("SELECT new com.evcoownership.coowner.dto.AdminPaymentRow(p.id, s.id, u.id, u.email, p.amount, " +
+           "p.method, p.status, p.createdAt, p.completedAt) " +
+           "FROM Payment p JOIN p.expenseShare s JOIN p.user u " +
+           "WHERE (:userId IS NULL OR u.id = :userId) " +
+           "AND (:status IS NULL OR p.status = :status) " +
+           "AND (:method IS NULL OR p.method = :method) " +
+           "AND p.id > :afterId AND p.id < :beforeId")
+    List<AdminPaymentRow> findAdminPage(@Param("userId") Long userId,
+                                        @Param("status") String status,
+                                        @Param("method") String method,
+                                        @Param("afterId") Long afterId,
+                                        @Param("beforeId") Long beforeId,
+                                        Pageable pageable);
+}
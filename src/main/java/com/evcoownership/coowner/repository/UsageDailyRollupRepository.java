@@ -0,0 +1,72 @@
+package com.evcoownership.coowner.repository;
+
+import com.evcoownership.coowner.dto.UserUsageTotals;
+import com.evcoownership.coowner.model.UsageDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface UsageDailyRollupRepository extends JpaRepository<UsageDailyRollup, Long> {
+
+    // Upsert nguyên tử (SQL Server MERGE với HOLDLOCK) để hai lần check-out cùng ngày không tạo trùng dòng
+    @Modifying
+    @Query(value = "MERGE usage_daily_rollups WITH (HOLDLOCK) AS t " +
+                   "USING (SELECT :userId AS user_id, :vehicleId AS vehicle_id, :usageDate AS usage_date) AS s " +
+                   "ON t.user_id = s.user_id AND t.vehicle_id = s.vehicle_id AND t.usage_date = s.usage_date " +
+                   "WHEN MATCHED THEN UPDATE SET t.usage_minutes = t.usage_minutes + :minutes, " +
+                   "t.distance_km = t.distance_km + :distanceKm, t.trip_count = t.trip_count + :trips " +
+                   "WHEN NOT MATCHED THEN INSERT (user_id, vehicle_id, usage_date, usage_minutes, distance_km, trip_count) " +
+                   "VALUES (:userId, :vehicleId, :usageDate, :minutes, :distanceKm, :trips);",
+           nativeQuery = true)
+    int addUsage(@Param("userId") Long userId,
+                 @Param("vehicleId") Long vehicleId,
+                 @Param("usageDate") LocalDate usageDate,
+                 @Param("minutes") long minutes,
+                 @Param("distanceKm") long distanceKm,
+                 @Param("trips") int trips);
+
+    // Tổng phút và km theo từng member của group trong khoảng ngày: O(số ngày) dòng thay vì O(số chuyến)
+    @Query("SELECT new com.evcoownership.coowner.dto.UserUsageTotals(r.userId, SUM(r.usageMinutes), SUM(r.distanceKm)) " +
+           "FROM UsageDailyRollup r " +
+           "WHERE r.userId IN (SELECT os.user.id FROM OwnershipShare os WHERE os.group.id = :groupId) " +
+           "AND r.usageDate BETWEEN :fromDate AND :toDate " +
+           "GROUP BY r.userId")
+    List<UserUsageTotals> sumUsageByGroupMembers(@Param("groupId") Long groupId,
+                                                 @Param("fromDate") LocalDate fromDate,
+                                                 @Param("toDate") LocalDate toDate);
+
+    // Mức sử dụng dùng để chia chi phí BY_USAGE của một xe
+    @Query("SELECT new com.evcoownership.coowner.dto.UserUsageTotals(r.userId, SUM(r.usageMinutes), SUM(r.distanceKm)) " +
+           "FROM UsageDailyRollup r " +
+           "WHERE r.userId IN (SELECT os.user.id FROM OwnershipShare os WHERE os.group.id = :groupId) " +
+           "AND r.vehicleId = :vehicleId " +
+           "AND r.usageDate BETWEEN :fromDate AND :toDate " +
+           "GROUP BY r.userId")
+    List<UserUsageTotals> sumUsageForSplitByVehicle(@Param("groupId") Long groupId,
+                                                    @Param("vehicleId") Long vehicleId,
+                                                    @Param("fromDate") LocalDate fromDate,
+                                                    @Param("toDate") LocalDate toDate);
+
+    // Chi phí không gắn xe: chỉ tính mức sử dụng trên các xe của group (xe -> hợp đồng -> group),
+    // không tính xe của group khác mà member cũng đồng sở hữu
+    @Query("SELECT new com.evcoownership.coowner.dto.UserUsageTotals(r.userId, SUM(r.usageMinutes), SUM(r.distanceKm)) " +
+           "FROM UsageDailyRollup r " +
+           "WHERE r.userId IN (SELECT os.user.id FROM OwnershipShare os WHERE os.group.id = :groupId) " +
+           "AND r.vehicleId IN (SELECT v.id FROM Vehicle v WHERE v.group.group.id = :groupId) " +
+           "AND r.usageDate BETWEEN :fromDate AND :toDate " +
+           "GROUP BY r.userId")
+    List<UserUsageTotals> sumUsageForSplitByGroupVehicles(@Param("groupId") Long groupId,
+                                                          @Param("fromDate") LocalDate fromDate,
+                                                          @Param("toDate") LocalDate toDate);
+
+    @Query("SELECT DISTINCT r.vehicleId FROM UsageDailyRollup r")
+    List<Long> findDistinctVehicleIds();
+
+    @Modifying
+    @Query("DELETE FROM UsageDailyRollup r WHERE r.vehicleId = :vehicleId")
+    int deleteByVehicleId(@Param("vehicleId") Long vehicleId);
+}
@@ -1,16 +1,43 @@
 package com.evcoownership.coowner.repository;
 
+import com.evcoownership.coowner.dto.UsageTripRow;
 import com.evcoownership.coowner.model.UsageHistory;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface UsageHistoryRepository extends JpaRepository<UsageHistory, Long> {
     List<UsageHistory> findByUserId(Long userId);
     List<UsageHistory> findByVehicleId(Long vehicleId);
-    List<UsageHistory> findByBookingId(Long bookingId);
+    List<UsageHistory> findByBooking_BookingId(Long bookingId);
     List<UsageHistory> findByUserIdAndStartTimeBetween(Long userId, LocalDateTime start, LocalDateTime end);
     List<UsageHistory> findByVehicleIdAndStartTimeBetween(Long vehicleId, LocalDateTime start, LocalDateTime end);
-}
 
+    // Đọc các chuyến đã check-out của một xe theo từng chunk (keyset theo id) để rebuild rollup
+    @Query("SELECT new com.evcoownership.coowner.dto.UsageTripRow(u.id, u.user.id, u.vehicle.id, u.startTime, u.endTime, u.distance) " +
+           "FROM UsageHistory u " +
+           "WHERE u.vehicle.id = :vehicleId AND u.id > :afterId " +
+           "AND u.checkedOutAt IS NOT NULL AND u.distance IS NOT NULL " +
+           "ORDER BY u.id")
+    List<UsageTripRow> findCompletedTripsForVehicleAfter(@Param("vehicleId") Long vehicleId,
+                                                         @Param("afterId") Long afterId,
+                                                         Pageable pageable);
+
+    @Query("SELECT DISTINCT u.vehicle.id FROM UsageHistory u")
+    List<Long> findDistinctVehicleIds();
+
+    @Query("SELECT u.vehicle.id FROM UsageHistory u WHERE u.id = :id")
+    Optional<Long> findVehicleIdById(@Param("id") Long id);
+
+    // Khóa dòng usage history khi check-out để hai lần check-out cùng chuyến không cùng qua kiểm tra
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM UsageHistory u WHERE u.id = :id")
+    Optional<UsageHistory> findByIdForUpdate(@Param("id") Long id);
+}
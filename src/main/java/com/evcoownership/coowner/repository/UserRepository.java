@@ -1,10 +1,15 @@
 package com.evcoownership.coowner.repository;
 
+import com.evcoownership.coowner.dto.AdminUserRow;
+import com.evcoownership.coowner.dto.UserRoleRow;
 import com.evcoownership.coowner.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,4 +28,20 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.roles")
     List<User> findAllWithRoles();
+
+    // Danh sách admin; khoảng id (afterId, beforeId) do AdminListingService tính từ cursor, chiều sắp xếp do Pageable
+    @Query("SELECT new com.evcoownership.coowner.dto.AdminUserRow(u.id, u.email, u.fullName) FROM User u " +
+           "WHERE (:email IS NULL OR LOWER(u.email) LIKE LOWER(CONCAT('%', :email, '%'))) " +
+           "AND (:role IS NULL OR EXISTS (SELECT 1 FROM User ur JOIN ur.roles r WHERE ur = u AND r.name = :role)) " +
+           "AND u.id > :afterId AND u.id < :beforeId")
+    List<AdminUserRow> findAdminPage(@Param("email") String email,
+                                     @Param("role") String role,
+                                     @Param("afterId") Long afterId,
+                                     @Param("beforeId") Long beforeId,
+                                     Pageable pageable);
+
+    // Roles của cả trang user trong một query
+    @Query("SELECT new com.evcoownership.coowner.dto.UserRoleRow(u.id, r.name) FROM User u JOIN u.roles r " +
+           "WHERE u.id IN :userIds")
+    List<UserRoleRow> findRoleNamesByUserIds(@Param("userIds") Collection<Long> userIds);
 }
@@ -1,8 +1,11 @@
 package com.evcoownership.coowner.repository;
 
+import com.evcoownership.coowner.dto.VoteBallotRow;
 import com.evcoownership.coowner.model.UserVote;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -19,6 +22,13 @@ public interface UserVoteRepository extends JpaRepository<UserVote, Long> {
     Optional<UserVote> findByVoteIdAndUserId(Long voteId, Long userId);
     
     boolean existsByVoteIdAndUserId(Long voteId, Long userId);
+
+    // Các lá phiếu của vote kèm tỉ lệ sở hữu của người bầu, dùng để dựng lại tally
+    @Query("SELECT new com.evcoownership.coowner.dto.VoteBallotRow(uv.user.id, uv.choice, os.percentage) " +
+           "FROM UserVote uv LEFT JOIN OwnershipShare os " +
+           "ON os.group.id = uv.vote.group.id AND os.user.id = uv.user.id " +
+           "WHERE uv.vote.id = :voteId")
+    List<VoteBallotRow> findBallotRows(@Param("voteId") Long voteId);
     
     @EntityGraph(attributePaths = {"vote", "user"})
     @Override
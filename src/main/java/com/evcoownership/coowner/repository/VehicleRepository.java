@@ -1,7 +1,17 @@
 package com.evcoownership.coowner.repository;
 
+import com.evcoownership.coowner.dto.AdminVehicleRow;
+import com.evcoownership.coowner.dto.DashboardVehicleRow;
+import com.evcoownership.coowner.dto.VehicleGroupRef;
 import com.evcoownership.coowner.model.Vehicle;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -9,4 +19,34 @@ public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
     Optional<Vehicle> findByVin(String vin);
     Optional<Vehicle> findByPlate(String plate);
     List<Vehicle> findByGroup_Id(Long groupId);
+    // Vehicle.group là hợp đồng (EContract) của group
+    List<Vehicle> findByGroup_Group_Id(Long groupId);
+
+    @Query("SELECT v.id FROM Vehicle v WHERE v.group.group.id = :groupId")
+    List<Long> findIdsByGroupId(@Param("groupId") Long groupId);
+
+    @Query("SELECT new com.evcoownership.coowner.dto.VehicleGroupRef(v.id, g.id) " +
+           "FROM Vehicle v LEFT JOIN v.group c LEFT JOIN c.group g WHERE v.id IN :ids")
+    List<VehicleGroupRef> findGroupRefsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Khóa dòng vehicle (SELECT ... WITH UPDLOCK) để tuần tự hóa việc đặt xe giữa nhiều instance
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM Vehicle v WHERE v.id = :id")
+    Optional<Vehicle> findByIdForUpdate(@Param("id") Long id);
+
+    // Danh sách admin; khoảng id (afterId, beforeId) do AdminListingService tính từ cursor, chiều sắp xếp do Pageable
+    @Query("SELECT new com.evcoownership.coowner.dto.AdminVehicleRow(v.id, v.vin, v.plate, v.model, c.id) " +
+           "FROM Vehicle v LEFT JOIN v.group c " +
+           "WHERE (:plate IS NULL OR LOWER(v.plate) LIKE LOWER(CONCAT('%', :plate, '%'))) " +
+           "AND (:model IS NULL OR v.model = :model) " +
+           "AND v.id > :afterId AND v.id < :beforeId")
+    List<AdminVehicleRow> findAdminPage(@Param("plate") String plate,
+                                        @Param("model") String model,
+                                        @Param("afterId") Long afterId,
+                                        @Param("beforeId") Long beforeId,
+                                        Pageable pageable);
+
+    @Query("SELECT new com.evcoownership.coowner.dto.DashboardVehicleRow(v.id, v.plate, v.model) " +
+           "FROM Vehicle v WHERE v.group.group.id = :groupId ORDER BY v.id")
+    List<DashboardVehicleRow> findDashboardRowsByGroupId(@Param("groupId") Long groupId);
 }
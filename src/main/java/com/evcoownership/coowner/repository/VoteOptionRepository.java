@@ -2,6 +2,9 @@ package com.evcoownership.coowner.repository;
 
 import com.evcoownership.coowner.model.VoteOption;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -9,5 +12,10 @@ import java.util.Optional;
 public interface VoteOptionRepository extends JpaRepository<VoteOption, Long> {
     List<VoteOption> findByVoteId(Long voteId);
     Optional<VoteOption> findByVoteIdAndOption(Long voteId, String option);
+
+    // Tăng count nguyên tử trong DB; trả về 0 nếu option không thuộc vote
+    @Modifying
+    @Query("UPDATE VoteOption o SET o.count = o.count + 1 WHERE o.vote.id = :voteId AND o.option = :option")
+    int incrementCount(@Param("voteId") Long voteId, @Param("option") String option);
 }
 
@@ -1,8 +1,14 @@
 package com.evcoownership.coowner.repository;
 
+import com.evcoownership.coowner.dto.BallotEligibility;
+import com.evcoownership.coowner.dto.DashboardVoteRow;
+import com.evcoownership.coowner.dto.VoteDeadlineRow;
 import com.evcoownership.coowner.model.Vote;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -18,6 +24,26 @@ public interface VoteRepository extends JpaRepository<Vote, Long> {
     @EntityGraph(attributePaths = {"group", "createdBy"})
     List<Vote> findByDeadlineBeforeAndStatus(LocalDateTime deadline, String status);
     
+    @Query("SELECT v.id FROM Vote v WHERE v.status = 'OPEN'")
+    List<Long> findOpenVoteIds();
+
+    // Hạn chót của các vote đang mở, dùng index (status, deadline)
+    @Query("SELECT new com.evcoownership.coowner.dto.VoteDeadlineRow(v.id, v.deadline) " +
+           "FROM Vote v WHERE v.status = 'OPEN' ORDER BY v.deadline")
+    List<VoteDeadlineRow> findOpenDeadlines();
+
+    // Chỉ đổi status khi vote còn OPEN, để đóng vote nhiều lần (hoặc từ nhiều instance) là vô hại
+    @Modifying
+    @Query("UPDATE Vote v SET v.status = :status WHERE v.id = :voteId AND v.status = 'OPEN'")
+    int closeIfOpen(@Param("voteId") Long voteId, @Param("status") String status);
+
+    // Trạng thái vote, tỉ lệ sở hữu của user trong group và quyền admin của user trong một query
+    @Query("SELECT new com.evcoownership.coowner.dto.BallotEligibility(v.id, v.group.id, v.status, v.deadline, v.votingMethod, " +
+           "(SELECT os.percentage FROM OwnershipShare os WHERE os.group.id = v.group.id AND os.user.id = :userId), " +
+           "(SELECT COUNT(r) FROM User u JOIN u.roles r WHERE u.id = :userId AND r.name = 'ADMIN')) " +
+           "FROM Vote v WHERE v.id = :voteId")
+    java.util.Optional<BallotEligibility> findBallotEligibility(@Param("voteId") Long voteId, @Param("userId") Long userId);
+
     @EntityGraph(attributePaths = {"group", "createdBy"})
     @Override
     List<Vote> findAll();
@@ -25,5 +51,8 @@ public interface VoteRepository extends JpaRepository<Vote, Long> {
     @EntityGraph(attributePaths = {"group", "createdBy"})
     @Override
     java.util.Optional<Vote> findById(Long id);
-}
 
+    @Query("SELECT new com.evcoownership.coowner.dto.DashboardVoteRow(v.id, v.topic, v.votingMethod, v.deadline) " +
+           "FROM Vote v WHERE v.group.id = :groupId AND v.status = 'OPEN' ORDER BY v.deadline")
+    List<DashboardVoteRow> findOpenDashboardRowsByGroupId(@Param("groupId") Long groupId);
+}
@@ -0,0 +1,21 @@
+package com.evcoownership.coowner.security;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Principal gắn vào SecurityContext, dựng từ claim của JWT (hoặc PrincipalCache với token cũ),
+ * để xác thực request không cần đọc bảng users.
+ * getName() trả về email nên Authentication.getName() vẫn như trước.
+ */
+public record AuthenticatedUser(Long id, String email, List<String> roles) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    public boolean hasRole(String role) {
+        return roles.contains(role);
+    }
+}
@@ -1,8 +1,5 @@
 package com.evcoownership.coowner.security;
 
-import com.evcoownership.coowner.repository.UserRepository;
-import com.evcoownership.coowner.model.User;
-import com.evcoownership.coowner.model.Role;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,11 +19,14 @@ import java.util.Collection;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtService jwtService;
-    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationService revocationService;
     
-    public JwtAuthenticationFilter(JwtService jwtService, UserRepository userRepository) {
+    public JwtAuthenticationFilter(JwtService jwtService, PrincipalCache principalCache,
+                                   TokenRevocationService revocationService) {
         this.jwtService = jwtService;
-        this.userRepository = userRepository;
+        this.principalCache = principalCache;
+        this.revocationService = revocationService;
     }
     
     @Override
@@ -44,48 +44,55 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String token = authHeader.substring(7);
         
         try {
-            // Validate token (throws exception if invalid)
-            jwtService.validateToken(token);
-            
-            // Extract email from token (throws exception if invalid)
-            String email = jwtService.extractEmail(token);
-            if (email == null || email.isEmpty()) {
-                logger.warn("JWT token does not contain email");
+            // Parse và kiểm chữ ký một lần (throws exception if invalid)
+            TokenClaims claims = jwtService.verify(token);
+            if (revocationService.isRevoked(claims)) {
+                logger.debug("Rejected revoked token for user: " + claims.email());
+                SecurityContextHolder.clearContext();
                 filterChain.doFilter(request, response);
                 return;
             }
             
-            // Find user by email
-            User user = userRepository.findByEmail(email).orElse(null);
-            if (user == null) {
-                logger.warn("User not found for email: " + email);
-                filterChain.doFilter(request, response);
-                return;
+            // uid/roles lấy từ claim; token cũ không có claim thì qua PrincipalCache (có TTL)
+            AuthenticatedUser principal = claims.principal();
+            if (principal == null) {
+                String email = claims.email();
+                if (email == null || email.isEmpty()) {
+                    logger.warn("JWT token does not contain email");
+                    filterChain.doFilter(request, response);
+                    return;
+                }
+                principal = principalCache.get(email);
+                if (principal == null) {
+                    logger.warn("User not found for email: " + email);
+                    filterChain.doFilter(request, response);
+                    return;
+                }
             }
             
             // Set authentication if not already set
             if (SecurityContextHolder.getContext().getAuthentication() == null) {
-                // Load user roles and convert to authorities
-                Collection<SimpleGrantedAuthority> authorities = user.getRoles().stream()
-                    .map(role -> new SimpleGrantedAuthority("ROLE_" + role.getName()))
+                Collection<SimpleGrantedAuthority> authorities = principal.roles().stream()
+                    .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
                     .collect(Collectors.toList());
                 
                 // Nếu user không có roles, thêm role mặc định để đảm bảo authentication hoạt động
                 if (authorities.isEmpty()) {
-                    logger.warn("User " + email + " has no roles, adding default CO_OWNER role");
+                    logger.warn("User " + principal.email() + " has no roles, adding default CO_OWNER role");
                     authorities.add(new SimpleGrantedAuthority("ROLE_CO_OWNER"));
                 }
                 
+                // Principal là AuthenticatedUser; getName() vẫn trả về email
                 UsernamePasswordAuthenticationToken authToken = 
                     new UsernamePasswordAuthenticationToken(
-                        user.getEmail(), 
+                        principal, 
                         null, 
                         authorities
                     );
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
-                logger.debug("Authentication set for user: " + email + " with roles: " + 
-                    user.getRoles().stream().map(Role::getName).collect(Collectors.joining(", ")));
+                logger.debug("Authentication set for user: " + principal.email() + " with roles: " + 
+                    String.join(", ", principal.roles()));
             }
         } catch (Exception e) {
             // Log the exception for debugging
@@ -2,6 +2,7 @@ package com.evcoownership.coowner.security;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.MalformedJwtException;
@@ -12,24 +13,50 @@ import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @Service
 public class JwtService {
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLES = "roles";
 
     private final Key signingKey;
     private final long expirationMs;
+    private final JwtParser parser;
+    private final int verifiedCacheSize;
+
+    // LRU: digest SHA-256 của token -> claims đã xác thực, tránh parse và kiểm chữ ký lại cho token quen
+    private final Map<String, TokenClaims> verifiedCache;
 
     public JwtService(@Value("${jwt.secret}") String secret,
-                      @Value("${jwt.expiration}") long expirationMs) {
+                      @Value("${jwt.expiration}") long expirationMs,
+                      @Value("${jwt.verified-cache.max-entries:10000}") int verifiedCacheSize) {
         this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.expirationMs = expirationMs;
+        this.parser = Jwts.parser().setSigningKey(signingKey).build();
+        this.verifiedCacheSize = verifiedCacheSize;
+        this.verifiedCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TokenClaims> eldest) {
+                return size() > JwtService.this.verifiedCacheSize;
+            }
+        };
     }
 
     public String generateToken(String subject) {
         Date now = new Date();
         Date exp = new Date(now.getTime() + expirationMs);
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(subject)
                 .issuedAt(now)
                 .expiration(exp)
@@ -37,26 +64,60 @@ public class JwtService {
                 .compact();
     }
 
-    public String extractEmail(String token) {
-        try {
-            Claims claims = Jwts.parser()
-                    .setSigningKey(signingKey)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            return claims.getSubject();
-        } catch (Exception e) {
-            throw new JwtException("Invalid token: " + e.getMessage());
+    // Token mang sẵn user id và roles để filter không phải đọc DB mỗi request
+    public String generateToken(AuthenticatedUser user) {
+        Date now = new Date();
+        Date exp = new Date(now.getTime() + expirationMs);
+        return Jwts.builder()
+                .id(UUID.randomUUID().toString())
+                .subject(user.email())
+                .claim(CLAIM_USER_ID, user.id())
+                .claim(CLAIM_ROLES, user.roles())
+                .issuedAt(now)
+                .expiration(exp)
+                .signWith(signingKey)
+                .compact();
+    }
+
+    /**
+     * Parse và kiểm chữ ký một lần, trả về claims; token đã xác thực gần đây lấy từ cache
+     * (vẫn kiểm tra hết hạn). Ném JwtException nếu token không hợp lệ.
+     */
+    public TokenClaims verify(String token) {
+        String digest = digest(token);
+        TokenClaims cached;
+        synchronized (verifiedCache) {
+            cached = verifiedCache.get(digest);
+        }
+        if (cached != null) {
+            if (cached.isExpired(Instant.now())) {
+                synchronized (verifiedCache) {
+                    verifiedCache.remove(digest);
+                }
+                throw new JwtException("Token has expired");
+            }
+            return cached;
         }
+
+        TokenClaims verified = toTokenClaims(parse(token));
+        synchronized (verifiedCache) {
+            verifiedCache.put(digest, verified);
+        }
+        return verified;
+    }
+
+    public String extractEmail(String token) {
+        return verify(token).email();
     }
 
     public boolean validateToken(String token) {
+        verify(token);
+        return true;
+    }
+
+    private Claims parse(String token) {
         try {
-            Jwts.parser()
-                    .setSigningKey(signingKey)
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
+            return parser.parseClaimsJws(token).getBody();
         } catch (ExpiredJwtException e) {
             throw new JwtException("Token has expired");
         } catch (MalformedJwtException e) {
@@ -67,6 +128,34 @@ public class JwtService {
             throw new JwtException("Token validation failed: " + e.getMessage());
         }
     }
-}
 
+    private static TokenClaims toTokenClaims(Claims claims) {
+        String email = claims.getSubject();
+        Instant issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null;
+        Instant expiresAt = claims.getExpiration() != null ? claims.getExpiration().toInstant() : null;
 
+        // Token phát hành trước khi có claim uid/roles: principal lấy qua PrincipalCache
+        AuthenticatedUser principal = null;
+        Object userId = claims.get(CLAIM_USER_ID);
+        if (userId instanceof Number) {
+            List<String> roles = new ArrayList<>();
+            Object rawRoles = claims.get(CLAIM_ROLES);
+            if (rawRoles instanceof List<?> list) {
+                for (Object role : list) {
+                    roles.add(String.valueOf(role));
+                }
+            }
+            principal = new AuthenticatedUser(((Number) userId).longValue(), email, List.copyOf(roles));
+        }
+        return new TokenClaims(claims.getId(), email, principal, issuedAt, expiresAt);
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.evcoownership.coowner.security;
+
+import com.evcoownership.coowner.model.Role;
+import com.evcoownership.coowner.model.User;
+import com.evcoownership.coowner.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache principal theo email cho token không mang claim uid/roles (token phát hành trước khi có claim).
+ * Entry hết hạn sau TTL; khi đổi role của user phải gọi invalidate(email).
+ */
+@Component
+public class PrincipalCache {
+    private final UserRepository userRepository;
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
+
+    public PrincipalCache(UserRepository userRepository,
+                          @Value("${security.principal-cache.ttl-seconds:300}") long ttlSeconds,
+                          @Value("${security.principal-cache.max-entries:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.maxEntries = maxEntries;
+    }
+
+    // null nếu user không tồn tại
+    public AuthenticatedUser get(String email) {
+        long now = System.nanoTime();
+        CacheEntry entry = cache.get(email);
+        if (entry != null && entry.expiresAtNanos() - now > 0) {
+            return entry.principal();
+        }
+        User user = userRepository.findByEmail(email).orElse(null);
+        if (user == null) {
+            cache.remove(email);
+            return null;
+        }
+        AuthenticatedUser principal = toPrincipal(user);
+        if (cache.size() >= maxEntries) {
+            cache.clear();
+        }
+        cache.put(email, new CacheEntry(principal, now + ttl.toNanos()));
+        return principal;
+    }
+
+    public void invalidate(String email) {
+        cache.remove(email);
+    }
+
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    public static AuthenticatedUser toPrincipal(User user) {
+        List<String> roles = user.getRoles().stream().map(Role::getName).toList();
+        return new AuthenticatedUser(user.getId(), user.getEmail(), roles);
+    }
+
+    private record CacheEntry(AuthenticatedUser principal, long expiresAtNanos) {
+    }
+}
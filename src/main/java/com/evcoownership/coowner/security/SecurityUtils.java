@@ -1,7 +1,5 @@
 package com.evcoownership.coowner.security;
 
-import com.evcoownership.coowner.model.User;
-import com.evcoownership.coowner.repository.UserRepository;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
@@ -9,20 +7,14 @@ import org.springframework.stereotype.Component;
 @Component
 public class SecurityUtils {
     
-    private final UserRepository userRepository;
-    
-    public SecurityUtils(UserRepository userRepository) {
-        this.userRepository = userRepository;
-    }
-    
-    public User getCurrentUser() {
+    // Principal do JwtAuthenticationFilter dựng một lần cho mỗi request từ token, không query DB.
+    // Service nhận id của principal; entity trả về response thì service tự nạp user bằng findById
+    public AuthenticatedUser getCurrentUser() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || auth.getName() == null) {
+        if (auth == null || !(auth.getPrincipal() instanceof AuthenticatedUser principal)) {
             throw new IllegalArgumentException("User chưa đăng nhập");
         }
-        String email = auth.getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalArgumentException("User không tồn tại"));
+        return principal;
     }
     
     public String getCurrentUserEmail() {
@@ -32,5 +24,12 @@ public class SecurityUtils {
         }
         return auth.getName();
     }
+    
+    public boolean isAdmin(AuthenticatedUser user) {
+        return user.hasRole("ADMIN");
+    }
+    
+    public boolean isAdminOrStaff(AuthenticatedUser user) {
+        return user.hasRole("ADMIN") || user.hasRole("STAFF");
+    }
 }
-
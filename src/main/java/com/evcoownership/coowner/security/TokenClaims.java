@@ -0,0 +1,15 @@
+package com.evcoownership.coowner.security;
+
+import java.time.Instant;
+
+/**
+ * Kết quả xác thực một JWT (parse và kiểm chữ ký một lần).
+ * principal là null với token cũ không có claim uid/roles.
+ */
+public record TokenClaims(String tokenId, String email, AuthenticatedUser principal,
+                          Instant issuedAt, Instant expiresAt) {
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,70 @@
+package com.evcoownership.coowner.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Danh sách thu hồi token trong bộ nhớ: theo id token (jti) và mốc "not before" theo user.
+ * Kiểm tra O(1) mỗi request; cập nhật lúc chạy qua logout / API admin, không cần restart.
+ * Không lưu DB nên mất khi restart; token bị thu hồi vẫn hết hạn theo jwt.expiration.
+ */
+@Service
+public class TokenRevocationService {
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    // jti -> thời điểm token hết hạn, để dọn entry không còn cần thiết
+    private final Map<String, Instant> revokedTokenIds = new ConcurrentHashMap<>();
+    // email -> token phát hành trước mốc này bị từ chối
+    private final Map<String, Instant> notBefore = new ConcurrentHashMap<>();
+    private final Duration tokenLifetime;
+
+    public TokenRevocationService(@Value("${jwt.expiration}") long expirationMs) {
+        this.tokenLifetime = Duration.ofMillis(expirationMs);
+    }
+
+    public boolean isRevoked(TokenClaims claims) {
+        if (claims.tokenId() != null && revokedTokenIds.containsKey(claims.tokenId())) {
+            return true;
+        }
+        Instant cutoff = notBefore.get(claims.email());
+        // Token phát hành cùng giây với mốc cũng bị từ chối: iat bị cắt xuống giây nên không biết nó trước hay sau mốc
+        return cutoff != null && (claims.issuedAt() == null || !claims.issuedAt().isAfter(cutoff));
+    }
+
+    public void revoke(TokenClaims claims) {
+        if (claims.tokenId() != null) {
+            revokedTokenIds.put(claims.tokenId(), claims.expiresAt() != null ? claims.expiresAt() : Instant.MAX);
+        } else {
+            // Token cũ không có jti: chỉ thu hồi được theo user
+            revokeAllForUser(claims.email());
+        }
+    }
+
+    // iat của JWT tính theo giây nên mốc cũng làm tròn xuống giây
+    public void revokeAllForUser(String email) {
+        notBefore.put(email, Instant.now().truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        int before = revokedTokenIds.size();
+        revokedTokenIds.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        // Sau một vòng đời token, mọi token phát hành trước mốc đều đã hết hạn
+        Instant oldestLiveIssue = now.minus(tokenLifetime);
+        notBefore.values().removeIf(cutoff -> cutoff.isBefore(oldestLiveIssue));
+        int purged = before - revokedTokenIds.size();
+        if (purged > 0) {
+            log.debug("Purged {} expired revoked token ids", purged);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.dto.AdminBookingRow;
+import com.evcoownership.coowner.dto.AdminExpenseRow;
+import com.evcoownership.coowner.dto.AdminGroupRow;
+import com.evcoownership.coowner.dto.AdminPaymentRow;
+import com.evcoownership.coowner.dto.AdminUserRow;
+import com.evcoownership.coowner.dto.AdminVehicleRow;
+import com.evcoownership.coowner.dto.KeysetPage;
+import com.evcoownership.coowner.dto.UserRoleRow;
+import com.evcoownership.coowner.repository.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Danh sách cho trang admin: projection chỉ gồm cột hiển thị, phân trang keyset theo id
+ * (cursor = id dòng cuối trang trước), nên bộ nhớ và thời gian mỗi trang không phụ thuộc kích thước bảng.
+ * Mỗi entity chỉ có một query: cursor và chiều sort được đổi thành khoảng mở (afterId, beforeId), trang đầu là
+ * cả dải id. Điều kiện cursor là so sánh id thuần (không OR theo tham số) nên vẫn seek được trên khóa chính.
+ * sort = "desc" (mới nhất trước, mặc định) hoặc "asc".
+ */
+@Service
+@Transactional(readOnly = true)
+public class AdminListingService {
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final GroupRepository groupRepository;
+    private final UserRepository userRepository;
+    private final VehicleRepository vehicleRepository;
+    private final BookingRepository bookingRepository;
+    private final ExpenseRepository expenseRepository;
+    private final PaymentRepository paymentRepository;
+
+    public AdminListingService(GroupRepository groupRepository,
+                               UserRepository userRepository,
+                               VehicleRepository vehicleRepository,
+                               BookingRepository bookingRepository,
+                               ExpenseRepository expenseRepository,
+                               PaymentRepository paymentRepository) {
+        this.groupRepository = groupRepository;
+        this.userRepository = userRepository;
+        this.vehicleRepository = vehicleRepository;
+        this.bookingRepository = bookingRepository;
+        this.expenseRepository = expenseRepository;
+        this.paymentRepository = paymentRepository;
+    }
+
+    public KeysetPage<AdminGroupRow> listGroups(String name, Long cursor, String sort, int limit) {
+        boolean ascending = isAscending(sort);
+        int size = pageSize(limit);
+        String nameFilter = blankToNull(name);
+        PageRequest page = pageRequest(size, ascending, "id");
+        IdRange bounds = idRange(cursor, ascending);
+        List<AdminGroupRow> rows = groupRepository.findAdminPage(nameFilter,
+                bounds.afterId(), bounds.beforeId(), page);
+        return toPage(rows, size, AdminGroupRow::id);
+    }
+
+    public KeysetPage<AdminUserRow> listUsers(String email, String role, Long cursor, String sort, int limit) {
+        boolean ascending = isAscending(sort);
+        int size = pageSize(limit);
+        String emailFilter = blankToNull(email);
+        String roleFilter = blankToNull(role);
+        PageRequest request = pageRequest(size, ascending, "id");
+        IdRange bounds = idRange(cursor, ascending);
+        List<AdminUserRow> rows = userRepository.findAdminPage(emailFilter, roleFilter,
+                bounds.afterId(), bounds.beforeId(), request);
+        KeysetPage<AdminUserRow> page = toPage(rows, size, AdminUserRow::id);
+        if (page.getItems().isEmpty()) {
+            return page;
+        }
+
+        // Roles của cả trang trong một query thay vì load collection cho từng user
+        Map<Long, List<String>> rolesByUser = new HashMap<>();
+        List<Long> userIds = page.getItems().stream().map(AdminUserRow::id).toList();
+        for (UserRoleRow row : userRepository.findRoleNamesByUserIds(userIds)) {
+            rolesByUser.computeIfAbsent(row.userId(), id -> new ArrayList<>()).add(row.roleName());
+        }
+        page.setItems(page.getItems().stream()
+                .map(user -> user.withRoles(rolesByUser.getOrDefault(user.id(), List.of())))
+                .toList());
+        return page;
+    }
+
+    public KeysetPage<AdminVehicleRow> listVehicles(String plate, String model, Long cursor, String sort, int limit) {
+        boolean ascending = isAscending(sort);
+        int size = pageSize(limit);
+        String plateFilter = blankToNull(plate);
+        String modelFilter = blankToNull(model);
+        PageRequest page = pageRequest(size, ascending, "id");
+        IdRange bounds = idRange(cursor, ascending);
+        List<AdminVehicleRow> rows = vehicleRepository.findAdminPage(plateFilter, modelFilter,
+                bounds.afterId(), bounds.beforeId(), page);
+        return toPage(rows, size, AdminVehicleRow::id);
+    }
+
+    public KeysetPage<AdminBookingRow> listBookings(Long vehicleId, Long userId, String status,
+                                                    LocalDateTime from, LocalDateTime to,
+                                                    Long cursor, String sort, int limit) {
+        boolean ascending = isAscending(sort);
+        int size = pageSize(limit);
+        String statusFilter = blankToNull(status);
+        PageRequest page = pageRequest(size, ascending, "bookingId");
+        IdRange bounds = idRange(cursor, ascending);
+        List<AdminBookingRow> rows = bookingRepository.findAdminPage(vehicleId, userId, statusFilter, from, to,
+                bounds.afterId(), bounds.beforeId(), page);
+        return toPage(rows, size, AdminBookingRow::bookingId);
+    }
+
+    public KeysetPage<AdminExpenseRow> listExpenses(Long groupId, String status, String type,
+                                                    LocalDate fromDate, LocalDate toDate,
+                                                    Long cursor, String sort, int limit) {
+        boolean ascending = isAscending(sort);
+        int size = pageSize(limit);
+        String statusFilter = blankToNull(status);
+        String typeFilter = blankToNull(type);
+        PageRequest page = pageRequest(size, ascending, "id");
+        IdRange bounds = idRange(cursor, ascending);
+        List<AdminExpenseRow> rows = expenseRepository.findAdminPage(groupId, statusFilter, typeFilter, fromDate, toDate,
+                bounds.afterId(), bounds.beforeId(), page);
+        return toPage(rows, size, AdminExpenseRow::id);
+    }
+
+    public KeysetPage<AdminPaymentRow> listPayments(Long userId, String status, String method,
+                                                    Long cursor, String sort, int limit) {
+        boolean ascending = isAscending(sort);
+        int size = pageSize(limit);
+        String statusFilter = blankToNull(status);
+        String methodFilter = blankToNull(method);
+        PageRequest page = pageRequest(size, ascending, "id");
+        IdRange bounds = idRange(cursor, ascending);
+        List<AdminPaymentRow> rows = paymentRepository.findAdminPage(userId, statusFilter, methodFilter,
+                bounds.afterId(), bounds.beforeId(), page);
+        return toPage(rows, size, AdminPaymentRow::id);
+    }
+
+    private static boolean isAscending(String sort) {
+        if (sort == null || sort.isBlank() || "desc".equalsIgnoreCase(sort)) {
+            return false;
+        }
+        if ("asc".equalsIgnoreCase(sort)) {
+            return true;
+        }
+        throw new IllegalArgumentException("sort chỉ nhận asc hoặc desc");
+    }
+
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    // Sort tăng: lấy id > cursor; sort giảm: id < cursor; chưa có cursor thì không giới hạn
+    private static IdRange idRange(Long cursor, boolean ascending) {
+        if (cursor == null) {
+            return new IdRange(Long.MIN_VALUE, Long.MAX_VALUE);
+        }
+        return ascending ? new IdRange(cursor, Long.MAX_VALUE) : new IdRange(Long.MIN_VALUE, cursor);
+    }
+
+    // Lấy dư một dòng để biết còn trang sau hay không
+    private static PageRequest pageRequest(int size, boolean ascending, String idProperty) {
+        return PageRequest.of(0, size + 1, Sort.by(ascending ? Sort.Direction.ASC : Sort.Direction.DESC, idProperty));
+    }
+
+    private static <T> KeysetPage<T> toPage(List<T> rows, int size, Function<T, Long> idOf) {
+        if (rows.size() > size) {
+            List<T> items = rows.subList(0, size);
+            return new KeysetPage<>(new ArrayList<>(items), idOf.apply(items.get(size - 1)));
+        }
+        return new KeysetPage<>(rows, null);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private record IdRange(long afterId, long beforeId) {
+    }
+}
@@ -0,0 +1,283 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.dto.BookingIntervalRow;
+import com.evcoownership.coowner.dto.VehicleBookingSummary;
+import com.evcoownership.coowner.model.Booking;
+import com.evcoownership.coowner.repository.BookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Index trong bộ nhớ các khoảng thời gian đã đặt của từng xe, dùng để kiểm tra trùng lịch
+ * mà không cần query xuống DB cho mỗi lần đặt.
+ * Booking đã hủy (CANCELLED) không được đưa vào index; booking đã kết thúc bị bỏ khi đối soát định kỳ.
+ * Mỗi xe nhớ {@code Vehicle.bookingVersion} mà index đang khớp: khi đặt xe (đang giữ lock) nếu giá trị
+ * trong DB khác (instance khác vừa ghi) thì nạp lại xe đó trước khi kiểm tra.
+ */
+@Component
+public class BookingIntervalIndex {
+    private static final Logger log = LoggerFactory.getLogger(BookingIntervalIndex.class);
+    // Chưa biết index khớp với bookingVersion nào (nạp ngoài lock); lần đặt kế tiếp sẽ nạp lại
+    private static final long UNKNOWN_STAMP = -1L;
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, VehicleIntervals> vehicles = new ConcurrentHashMap<>();
+    // Tăng mỗi khi booking của xe thay đổi; dùng để invalidate cache availability
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+    // Booking kết thúc trước mốc này không còn nằm trong index
+    private volatile LocalDateTime horizon = LocalDateTime.now();
+
+    public BookingIntervalIndex(BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        LocalDateTime since = horizon;
+        Map<Long, VehicleIntervals> loaded = new HashMap<>();
+        for (BookingIntervalRow row : bookingRepository.findActiveIntervalsEndingAfter(since)) {
+            loaded.computeIfAbsent(row.vehicleId(), id -> new VehicleIntervals(since, UNKNOWN_STAMP)).add(toInterval(row));
+        }
+        loaded.forEach(vehicles::putIfAbsent);
+        log.info("Booking interval index warmed up for {} vehicles", loaded.size());
+    }
+
+    // Kiểm tra nhanh không cần lock; có thể thiếu booking của instance khác nên chỉ dùng để từ chối sớm
+    public boolean overlaps(Long vehicleId, LocalDateTime startTime, LocalDateTime endTime) {
+        return intervalsOf(vehicleId).overlaps(startTime, endTime);
+    }
+
+    /**
+     * Kiểm tra trùng lịch có thẩm quyền. Chỉ gọi khi đang giữ lock của xe trong JVM và row lock
+     * của vehicle trong DB, với {@code bookingVersion} vừa đọc dưới row lock đó.
+     */
+    public boolean overlapsWhileLocked(Long vehicleId, long bookingVersion, LocalDateTime startTime, LocalDateTime endTime) {
+        VehicleIntervals intervals = vehicles.get(vehicleId);
+        if (intervals == null || intervals.stamp() != bookingVersion) {
+            intervals = load(vehicleId, bookingVersion);
+            vehicles.put(vehicleId, intervals);
+            bumpVersion(vehicleId);
+        }
+        if (startTime.isBefore(intervals.horizon())) {
+            // Đoạn đã bị bỏ khỏi index: hỏi DB
+            return bookingRepository.existsOverlappingBooking(vehicleId, startTime, endTime);
+        }
+        return intervals.overlaps(startTime, endTime);
+    }
+
+    public long versionOf(Long vehicleId) {
+        AtomicLong version = versions.get(vehicleId);
+        return version == null ? 0L : version.get();
+    }
+
+    // Gọi sau khi save booking và tăng bookingVersion của xe lên newStamp; chỉ áp dụng khi commit thành công
+    public void onSaved(Booking booking, long newStamp) {
+        Long vehicleId = booking.getVehicle().getId();
+        Long bookingId = booking.getBookingId();
+        LocalDateTime startTime = booking.getStartTime();
+        LocalDateTime endTime = booking.getEndTime();
+        boolean active = isActive(booking.getStatus());
+        AfterCommit.run(() -> {
+            bumpVersion(vehicleId);
+            VehicleIntervals intervals = vehicles.get(vehicleId);
+            if (intervals == null) {
+                // Chưa load xe này thì lần truy cập sau sẽ load từ DB
+                return;
+            }
+            intervals.apply(bookingId, active ? new Interval(bookingId, startTime, endTime) : null, newStamp);
+        });
+    }
+
+    // Insert theo lô bằng JDBC không trả về id, nên load lại cả xe sau khi commit
+    public void onBatchInserted(Long vehicleId) {
+        AfterCommit.run(() -> reload(vehicleId));
+    }
+
+    public void reload(Long vehicleId) {
+        vehicles.put(vehicleId, load(vehicleId, UNKNOWN_STAMP));
+        bumpVersion(vehicleId);
+    }
+
+    // Đối soát định kỳ với bảng bookings: bỏ các khoảng đã kết thúc, rebuild những xe bị lệch
+    // (ví dụ dữ liệu sửa trực tiếp trong DB không qua bookingVersion)
+    @Scheduled(fixedDelayString = "${booking.index.reconcile-interval-ms:300000}",
+               initialDelayString = "${booking.index.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        LocalDateTime since = LocalDateTime.now();
+        horizon = since;
+        int pruned = 0;
+        for (VehicleIntervals intervals : vehicles.values()) {
+            pruned += intervals.pruneEndedBefore(since);
+        }
+
+        Set<Long> seen = new HashSet<>();
+        int rebuilt = 0;
+        for (VehicleBookingSummary summary : bookingRepository.summarizeActiveBookingsByVehicle(since)) {
+            seen.add(summary.vehicleId());
+            VehicleIntervals intervals = vehicles.get(summary.vehicleId());
+            if (intervals != null && !intervals.matches(summary.bookingCount(), summary.maxBookingId())) {
+                reload(summary.vehicleId());
+                rebuilt++;
+            }
+        }
+        // Xe không còn booking nào chưa kết thúc trong DB
+        for (Map.Entry<Long, VehicleIntervals> entry : vehicles.entrySet()) {
+            if (!seen.contains(entry.getKey()) && !entry.getValue().isEmpty()) {
+                vehicles.put(entry.getKey(), new VehicleIntervals(since, UNKNOWN_STAMP));
+                bumpVersion(entry.getKey());
+                rebuilt++;
+            }
+        }
+        log.debug("Booking interval index pruned {} ended bookings", pruned);
+        if (rebuilt > 0) {
+            log.warn("Booking interval index drifted from bookings table, rebuilt {} vehicles", rebuilt);
+        }
+    }
+
+    // Query DB nằm ngoài computeIfAbsent để không giữ lock của ConcurrentHashMap trong lúc chờ DB
+    private VehicleIntervals intervalsOf(Long vehicleId) {
+        VehicleIntervals intervals = vehicles.get(vehicleId);
+        if (intervals != null) {
+            return intervals;
+        }
+        VehicleIntervals loaded = load(vehicleId, UNKNOWN_STAMP);
+        VehicleIntervals raced = vehicles.putIfAbsent(vehicleId, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    private VehicleIntervals load(Long vehicleId, long stamp) {
+        LocalDateTime since = horizon;
+        VehicleIntervals intervals = new VehicleIntervals(since, stamp);
+        for (BookingIntervalRow row : bookingRepository.findActiveIntervalsByVehicle(vehicleId, since)) {
+            intervals.add(toInterval(row));
+        }
+        return intervals;
+    }
+
+    private static Interval toInterval(BookingIntervalRow row) {
+        return new Interval(row.bookingId(), row.startTime(), row.endTime());
+    }
+
+    private void bumpVersion(Long vehicleId) {
+        versions.computeIfAbsent(vehicleId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static boolean isActive(String status) {
+        return !"CANCELLED".equalsIgnoreCase(status);
+    }
+
+    private record Interval(Long bookingId, LocalDateTime start, LocalDateTime end) {
+    }
+
+    /**
+     * Các khoảng của một xe, sắp theo thời gian bắt đầu.
+     * Khoảng có thể giao với {@code [start, end)} chỉ nằm trong đoạn có start thuộc
+     * {@code (start - maxDuration, end)}, nên phép kiểm tra là O(log n) cộng số khoảng trong đoạn đó.
+     */
+    private static final class VehicleIntervals {
+        private final NavigableSet<Interval> byStart = new TreeSet<>(
+                Comparator.comparing(Interval::start).thenComparing(Interval::bookingId));
+        private final Map<Long, Interval> byId = new HashMap<>();
+        private Duration maxDuration = Duration.ZERO;
+        private LocalDateTime horizon;
+        private long stamp;
+
+        VehicleIntervals(LocalDateTime horizon, long stamp) {
+            this.horizon = horizon;
+            this.stamp = stamp;
+        }
+
+        synchronized LocalDateTime horizon() {
+            return horizon;
+        }
+
+        synchronized long stamp() {
+            return stamp;
+        }
+
+        synchronized boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            LocalDateTime earliestStart = start.minus(maxDuration);
+            Interval upper = new Interval(Long.MIN_VALUE, end, null);
+            for (Interval interval : byStart.headSet(upper, false).descendingSet()) {
+                if (interval.start().isBefore(earliestStart)) {
+                    break;
+                }
+                if (interval.end().isAfter(start)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized void add(Interval interval) {
+            byId.put(interval.bookingId(), interval);
+            byStart.add(interval);
+            Duration duration = Duration.between(interval.start(), interval.end());
+            if (duration.compareTo(maxDuration) > 0) {
+                maxDuration = duration;
+            }
+        }
+
+        synchronized void remove(Long bookingId) {
+            Interval existing = byId.remove(bookingId);
+            if (existing != null) {
+                byStart.remove(existing);
+            }
+        }
+
+        // Ghi nhận một booking vừa commit; chỉ còn khớp DB nếu index đang ở đúng phiên bản liền trước
+        synchronized void apply(Long bookingId, Interval interval, long newStamp) {
+            remove(bookingId);
+            if (interval != null) {
+                add(interval);
+            }
+            stamp = stamp == newStamp - 1 ? newStamp : UNKNOWN_STAMP;
+        }
+
+        synchronized int pruneEndedBefore(LocalDateTime cutoff) {
+            int pruned = 0;
+            Iterator<Interval> iterator = byStart.iterator();
+            while (iterator.hasNext()) {
+                Interval interval = iterator.next();
+                if (!interval.end().isAfter(cutoff)) {
+                    iterator.remove();
+                    byId.remove(interval.bookingId());
+                    pruned++;
+                }
+            }
+            if (cutoff.isAfter(horizon)) {
+                horizon = cutoff;
+            }
+            return pruned;
+        }
+
+        synchronized boolean matches(long bookingCount, Long maxBookingId) {
+            if (byId.size() != bookingCount) {
+                return false;
+            }
+            long maxId = byId.keySet().stream().mapToLong(Long::longValue).max().orElse(0L);
+            return maxBookingId == null || maxId == maxBookingId;
+        }
+
+        synchronized boolean isEmpty() {
+            return byId.isEmpty();
+        }
+    }
+}
@@ -1,18 +1,34 @@
 package com.evcoownership.coowner.service;
 
+import com.evcoownership.coowner.dto.BatchBookingResult;
+import com.evcoownership.coowner.dto.BookingRecurrenceRule;
+import com.evcoownership.coowner.dto.BookingSlotRequest;
+import com.evcoownership.coowner.dto.BookingSlotResult;
+import com.evcoownership.coowner.dto.BookingTimeSlot;
+import com.evcoownership.coowner.dto.CreateBatchBookingRequest;
 import com.evcoownership.coowner.dto.CreateBookingRequest;
+import com.evcoownership.coowner.dto.GroupEvent;
 import com.evcoownership.coowner.model.Booking;
-import com.evcoownership.coowner.model.EContract;
-import com.evcoownership.coowner.model.User;
 import com.evcoownership.coowner.model.Vehicle;
 import com.evcoownership.coowner.repository.BookingRepository;
+import com.evcoownership.coowner.repository.OwnershipShareRepository;
+import com.evcoownership.coowner.repository.UserRepository;
 import com.evcoownership.coowner.repository.VehicleRepository;
-import com.evcoownership.coowner.repository.UserRepository; // (Giả sử bạn có)
+import com.evcoownership.coowner.security.AuthenticatedUser;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
 @Service
@@ -21,46 +37,229 @@ public class BookingService {
     @Autowired
     private BookingRepository bookingRepository;
     @Autowired
-    private VehicleRepository vehicleRepository; 
+    private VehicleRepository vehicleRepository;
     @Autowired
-    private UserRepository userRepository; 
+    private OwnershipShareRepository ownershipShareRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Autowired
+    private VehicleBookingLocks vehicleBookingLocks;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
-    public Booking createNewBooking(CreateBookingRequest request) {
+    @Value("${booking.batch.max-slots:500}")
+    private int maxBatchSlots;
 
-        Vehicle vehicle = vehicleRepository.findById(request.getVehicleId())
-            .orElseThrow(() -> new RuntimeException("Vehicle not found"));
+    private static final String INSERT_BOOKING_SQL =
+        "INSERT INTO bookings (vehicle_id, user_id, group_id, start_time, end_time, status) VALUES (?, ?, ?, ?, ?, ?)";
 
-        User currentUser = userRepository.findById(1L).get(); 
-        
-        EContract group = currentUser.getGroup();
+    public Booking createNewBooking(CreateBookingRequest request, AuthenticatedUser currentUser) {
 
-        if (!vehicle.getGroup().getId().equals(group.getId())) {
-            throw new RuntimeException("User does not belong to this vehicle's group");
+        if (!request.getStartTime().isBefore(request.getEndTime())) {
+            throw new IllegalArgumentException("Start time must be before end time");
+        }
+        // Cùng quy tắc với đặt theo lô
+        if (!request.getStartTime().isAfter(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Start time must be in the future");
         }
 
-        if (request.getStartTime().isAfter(request.getEndTime())) {
-            throw new RuntimeException("Start time must be before end time");
+        // Kiểm tra nhanh bằng index trong bộ nhớ, từ chối slot đã biết là trùng mà không cần vào DB
+        if (bookingIntervalIndex.overlaps(request.getVehicleId(), request.getStartTime(), request.getEndTime())) {
+            throw new IllegalArgumentException("This time slot is already booked for this vehicle");
         }
 
-        boolean isOverlapping = bookingRepository.existsOverlappingBooking(
-            vehicle.getId(),
-            request.getStartTime(),
-            request.getEndTime()
-        );
+        // Tuần tự hóa theo xe: lock trong JVM bao ngoài transaction để lock chỉ được nhả sau khi commit
+        return vehicleBookingLocks.withVehicleLock(request.getVehicleId(),
+            () -> transactionTemplate.execute(status -> admitBooking(request, currentUser)));
+    }
 
-        if (isOverlapping) {
-            throw new RuntimeException("This time slot is already booked for this vehicle");
+    private Booking admitBooking(CreateBookingRequest request, AuthenticatedUser currentUser) {
+        // Khóa dòng vehicle trong DB để chặn các instance khác đặt cùng xe cho tới khi commit
+        Vehicle vehicle = vehicleRepository.findByIdForUpdate(request.getVehicleId())
+            .orElseThrow(() -> new IllegalArgumentException("Vehicle not found"));
+
+        Long groupId = vehicle.getGroup().getGroup().getId();
+        if (!ownershipShareRepository.existsByGroupIdAndUserId(groupId, currentUser.id())) {
+            throw new IllegalArgumentException("User does not belong to this vehicle's group");
+        }
+
+        // Đang giữ lock của xe: index là nguồn kiểm tra duy nhất, tự nạp lại nếu bookingVersion
+        // trong DB cho thấy instance khác vừa đặt xe này
+        long bookingVersion = vehicle.getBookingVersion();
+        if (bookingIntervalIndex.overlapsWhileLocked(vehicle.getId(), bookingVersion,
+                request.getStartTime(), request.getEndTime())) {
+            throw new IllegalArgumentException("This time slot is already booked for this vehicle");
         }
 
         Booking newBooking = new Booking();
         newBooking.setVehicle(vehicle);
-        newBooking.setUser(currentUser);
-        newBooking.setGroup(group);
+        newBooking.setUser(userRepository.findById(currentUser.id())
+            .orElseThrow(() -> new IllegalArgumentException("User not found")));
+        newBooking.setGroup(vehicle.getGroup());
         newBooking.setStartTime(request.getStartTime());
         newBooking.setEndTime(request.getEndTime());
-        newBooking.setStatus("pending");
+        newBooking.setStatus("PENDING");
+
+        vehicle.setBookingVersion(bookingVersion + 1);
+        Booking savedBooking = bookingRepository.save(newBooking);
+        bookingIntervalIndex.onSaved(savedBooking, bookingVersion + 1);
+        eventPublisher.publishEvent(GroupEvent.of(GroupEvent.BOOKING_CREATED, groupId, savedBooking.getBookingId()));
+        return savedBooking;
+    }
+
+    public BatchBookingResult createBatchBookings(CreateBatchBookingRequest request, AuthenticatedUser currentUser) {
+        List<BookingSlotRequest> slots = expandSlots(request);
+        if (slots.isEmpty()) {
+            throw new IllegalArgumentException("Cần ít nhất một slot hoặc một quy tắc lặp");
+        }
+        if (slots.size() > maxBatchSlots) {
+            throw new IllegalArgumentException("Tối đa " + maxBatchSlots + " slot cho mỗi lần đặt");
+        }
+
+        return vehicleBookingLocks.withVehicleLock(request.getVehicleId(),
+            () -> transactionTemplate.execute(status -> admitBatch(request.getVehicleId(), slots, currentUser)));
+    }
+
+    private BatchBookingResult admitBatch(Long vehicleId, List<BookingSlotRequest> slots, AuthenticatedUser currentUser) {
+        Vehicle vehicle = vehicleRepository.findByIdForUpdate(vehicleId)
+            .orElseThrow(() -> new IllegalArgumentException("Vehicle not found"));
 
-        return bookingRepository.save(newBooking);
+        Long groupId = vehicle.getGroup().getGroup().getId();
+        if (!ownershipShareRepository.existsByGroupIdAndUserId(groupId, currentUser.id())) {
+            throw new IllegalArgumentException("User does not belong to this vehicle's group");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        BookingSlotResult[] results = new BookingSlotResult[slots.size()];
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < slots.size(); i++) {
+            BookingSlotRequest slot = slots.get(i);
+            if (!slot.getStartTime().isBefore(slot.getEndTime())) {
+                results[i] = rejected(slot, "Start time must be before end time");
+            } else if (!slot.getStartTime().isAfter(now)) {
+                results[i] = rejected(slot, "Start time must be in the future");
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        List<Integer> accepted = new ArrayList<>();
+        if (!candidates.isEmpty()) {
+            candidates.sort(Comparator.comparing((Integer i) -> slots.get(i).getStartTime()));
+            LocalDateTime from = slots.get(candidates.get(0)).getStartTime();
+            LocalDateTime to = candidates.stream().map(i -> slots.get(i).getEndTime())
+                .max(Comparator.naturalOrder()).get();
+
+            // Một range query duy nhất cho cả lô
+            List<BookingTimeSlot> existing = bookingRepository.findActiveSlotsInRange(vehicleId, from, to);
+            LocalDateTime[] starts = new LocalDateTime[existing.size()];
+            LocalDateTime[] maxEndSoFar = new LocalDateTime[existing.size()];
+            for (int j = 0; j < existing.size(); j++) {
+                starts[j] = existing.get(j).startTime();
+                LocalDateTime end = existing.get(j).endTime();
+                maxEndSoFar[j] = (j == 0 || end.isAfter(maxEndSoFar[j - 1])) ? end : maxEndSoFar[j - 1];
+            }
+
+            LocalDateTime lastAcceptedEnd = null;
+            for (Integer i : candidates) {
+                BookingSlotRequest slot = slots.get(i);
+                if (lastAcceptedEnd != null && lastAcceptedEnd.isAfter(slot.getStartTime())) {
+                    results[i] = rejected(slot, "Overlaps another slot in this request");
+                } else if (overlapsExisting(starts, maxEndSoFar, slot)) {
+                    results[i] = rejected(slot, "This time slot is already booked for this vehicle");
+                } else {
+                    results[i] = new BookingSlotResult(slot.getStartTime(), slot.getEndTime(), true, null);
+                    accepted.add(i);
+                    lastAcceptedEnd = slot.getEndTime();
+                }
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            Long userId = currentUser.id();
+            Long contractId = vehicle.getGroup().getId();
+            jdbcTemplate.batchUpdate(INSERT_BOOKING_SQL, accepted, accepted.size(), (ps, i) -> {
+                BookingSlotRequest slot = slots.get(i);
+                ps.setLong(1, vehicleId);
+                ps.setLong(2, userId);
+                ps.setLong(3, contractId);
+                ps.setTimestamp(4, Timestamp.valueOf(slot.getStartTime()));
+                ps.setTimestamp(5, Timestamp.valueOf(slot.getEndTime()));
+                ps.setString(6, "PENDING");
+            });
+            vehicle.setBookingVersion(vehicle.getBookingVersion() + 1);
+            bookingIntervalIndex.onBatchInserted(vehicleId);
+            // Insert theo lô không trả về id; đọc lại bằng một query (vẫn đang giữ lock của xe),
+            // mỗi booking một sự kiện như khi đặt lẻ
+            List<LocalDateTime> startTimes = accepted.stream().map(i -> slots.get(i).getStartTime()).toList();
+            for (Long bookingId : bookingRepository.findActiveIdsByVehicleAndStartTimes(vehicleId, startTimes)) {
+                eventPublisher.publishEvent(GroupEvent.of(GroupEvent.BOOKING_CREATED, groupId, bookingId));
+            }
+        }
+
+        BatchBookingResult result = new BatchBookingResult();
+        result.setVehicleId(vehicleId);
+        result.setAcceptedCount(accepted.size());
+        result.setRejectedCount(slots.size() - accepted.size());
+        result.setResults(Arrays.asList(results));
+        return result;
+    }
+
+    // starts sắp tăng dần; maxEndSoFar[j] = max(end[0..j]). Có booking giao với slot khi
+    // trong các booking bắt đầu trước slot.end có booking kết thúc sau slot.start.
+    private static boolean overlapsExisting(LocalDateTime[] starts, LocalDateTime[] maxEndSoFar, BookingSlotRequest slot) {
+        int lo = 0;
+        int hi = starts.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid].isBefore(slot.getEndTime())) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo > 0 && maxEndSoFar[lo - 1].isAfter(slot.getStartTime());
+    }
+
+    private static BookingSlotResult rejected(BookingSlotRequest slot, String reason) {
+        return new BookingSlotResult(slot.getStartTime(), slot.getEndTime(), false, reason);
+    }
+
+    private List<BookingSlotRequest> expandSlots(CreateBatchBookingRequest request) {
+        List<BookingSlotRequest> slots = new ArrayList<>();
+        if (request.getSlots() != null) {
+            slots.addAll(request.getSlots());
+        }
+        BookingRecurrenceRule rule = request.getRecurrence();
+        if (rule != null) {
+            if (rule.getUntilDate().isBefore(rule.getFromDate())) {
+                throw new IllegalArgumentException("untilDate phải sau fromDate");
+            }
+            for (LocalDate day = rule.getFromDate(); !day.isAfter(rule.getUntilDate()); day = day.plusDays(1)) {
+                if (!rule.getDaysOfWeek().contains(day.getDayOfWeek())) {
+                    continue;
+                }
+                if (slots.size() > maxBatchSlots) {
+                    break;
+                }
+                LocalDateTime start = day.atTime(rule.getStartTime());
+                LocalDateTime end = day.atTime(rule.getEndTime());
+                if (!end.isAfter(start)) {
+                    end = end.plusDays(1);
+                }
+                BookingSlotRequest slot = new BookingSlotRequest();
+                slot.setStartTime(start);
+                slot.setEndTime(end);
+                slots.add(slot);
+            }
+        }
+        return slots;
     }
 
     public List<Booking> findBookings(Long vehicleId, LocalDateTime startTime, LocalDateTime endTime) {
@@ -72,4 +271,4 @@ public class BookingService {
             return bookingRepository.findByVehicle_Id(vehicleId);
         }
     }
-}
\ No newline at end of file
+}
@@ -1,55 +1,59 @@
 package com.evcoownership.coowner.service;
 
+import com.evcoownership.coowner.dto.FundTransactionPage;
 import com.evcoownership.coowner.model.CommonFund;
+import com.evcoownership.coowner.model.FundBalanceSnapshot;
 import com.evcoownership.coowner.model.FundTransaction;
 import com.evcoownership.coowner.model.Group;
 import com.evcoownership.coowner.model.User;
 import com.evcoownership.coowner.repository.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public class CommonFundService {
+    private static final Logger log = LoggerFactory.getLogger(CommonFundService.class);
+    private static final int MAX_TRANSACTION_PAGE_SIZE = 200;
+
     private final CommonFundRepository fundRepository;
     private final FundTransactionRepository transactionRepository;
     private final GroupRepository groupRepository;
     private final UserRepository userRepository;
-    private final OwnershipShareRepository ownershipShareRepository;
+    private final FundBalanceSnapshotRepository snapshotRepository;
+    private final GroupAccessService groupAccessService;
 
     public CommonFundService(CommonFundRepository fundRepository,
                              FundTransactionRepository transactionRepository,
                              GroupRepository groupRepository,
                              UserRepository userRepository,
-                             OwnershipShareRepository ownershipShareRepository) {
+                             FundBalanceSnapshotRepository snapshotRepository,
+                             GroupAccessService groupAccessService) {
         this.fundRepository = fundRepository;
         this.transactionRepository = transactionRepository;
         this.groupRepository = groupRepository;
         this.userRepository = userRepository;
-        this.ownershipShareRepository = ownershipShareRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.groupAccessService = groupAccessService;
     }
 
     public void verifyUserCanAccessGroupFunds(Long groupId, Long userId) {
-        Group group = groupRepository.findById(groupId)
-                .orElseThrow(() -> new IllegalArgumentException("Group không tồn tại"));
-        
-        boolean isMember = ownershipShareRepository.existsByGroupIdAndUserId(groupId, userId);
-        boolean isCreator = group.getCreatedBy() != null && group.getCreatedBy().getId().equals(userId);
-        
-        if (!isMember && !isCreator) {
-            throw new IllegalArgumentException("Bạn không phải là member của nhóm này");
-        }
+        groupAccessService.verifyMemberOrCreator(groupId, userId);
     }
 
     public void verifyUserCanAccessFund(Long fundId, Long userId) {
-        CommonFund fund = fundRepository.findById(fundId)
+        Long groupId = fundRepository.findGroupIdByFundId(fundId)
                 .orElseThrow(() -> new IllegalArgumentException("Fund không tồn tại"));
-        
-        Long groupId = fund.getGroup().getId();
-        verifyUserCanAccessGroupFunds(groupId, userId);
+        groupAccessService.verifyMemberOrCreator(groupId, userId);
     }
 
     @Transactional
@@ -69,12 +73,17 @@ public class CommonFundService {
 
     @Transactional
     public FundTransaction deposit(Long fundId, BigDecimal amount, Long userId, String description) {
-        CommonFund fund = fundRepository.findById(fundId)
-                .orElseThrow(() -> new IllegalArgumentException("Fund không tồn tại"));
+        requirePositive(amount);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User không tồn tại"));
 
-        fund.setBalance(fund.getBalance().add(amount));
+        if (fundRepository.addToBalance(fundId, amount) == 0) {
+            throw new IllegalArgumentException("Fund không tồn tại");
+        }
+
+        // Nạp fund sau UPDATE để transaction trả về có số dư mới (không giữ proxy chưa khởi tạo)
+        CommonFund fund = fundRepository.findById(fundId)
+                .orElseThrow(() -> new IllegalArgumentException("Fund không tồn tại"));
 
         FundTransaction transaction = new FundTransaction();
         transaction.setFund(fund);
@@ -84,22 +93,25 @@ public class CommonFundService {
         transaction.setTransactionDate(LocalDateTime.now());
         transaction.setDescription(description);
 
-        fundRepository.save(fund);
         return transactionRepository.save(transaction);
     }
 
     @Transactional
     public FundTransaction withdraw(Long fundId, BigDecimal amount, Long userId, String description, String reference) {
-        CommonFund fund = fundRepository.findById(fundId)
-                .orElseThrow(() -> new IllegalArgumentException("Fund không tồn tại"));
+        requirePositive(amount);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User không tồn tại"));
 
-        if (fund.getBalance().compareTo(amount) < 0) {
+        // Kiểm tra số dư và trừ trong cùng một câu UPDATE nên hai lần rút đồng thời không thể làm âm quỹ
+        if (fundRepository.subtractFromBalance(fundId, amount) == 0) {
+            if (!fundRepository.existsById(fundId)) {
+                throw new IllegalArgumentException("Fund không tồn tại");
+            }
             throw new IllegalArgumentException("Số dư không đủ");
         }
 
-        fund.setBalance(fund.getBalance().subtract(amount));
+        CommonFund fund = fundRepository.findById(fundId)
+                .orElseThrow(() -> new IllegalArgumentException("Fund không tồn tại"));
 
         FundTransaction transaction = new FundTransaction();
         transaction.setFund(fund);
@@ -110,10 +122,15 @@ public class CommonFundService {
         transaction.setDescription(description);
         transaction.setReference(reference);
 
-        fundRepository.save(fund);
         return transactionRepository.save(transaction);
     }
 
+    private static void requirePositive(BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new IllegalArgumentException("Số tiền phải lớn hơn 0");
+        }
+    }
+
     public List<CommonFund> getGroupFunds(Long groupId) {
         return fundRepository.findByGroupId(groupId);
     }
@@ -121,5 +138,67 @@ public class CommonFundService {
     public List<FundTransaction> getFundTransactions(Long fundId) {
         return transactionRepository.findByFundIdOrderByTransactionDateDesc(fundId);
     }
+
+    // Phân trang keyset, mới nhất trước; truyền beforeDate/beforeId của trang trước để lấy trang kế tiếp
+    @Transactional(readOnly = true)
+    public FundTransactionPage getFundTransactionPage(Long fundId, LocalDateTime beforeDate, Long beforeId, int limit) {
+        if ((beforeDate == null) != (beforeId == null)) {
+            throw new IllegalArgumentException("beforeDate và beforeId phải đi cùng nhau");
+        }
+        int size = Math.max(1, Math.min(limit, MAX_TRANSACTION_PAGE_SIZE));
+        // Lấy dư một dòng để biết còn trang sau hay không
+        PageRequest page = PageRequest.of(0, size + 1);
+        List<FundTransaction> rows = beforeDate == null
+                ? transactionRepository.findByFundIdOrderByTransactionDateDescIdDesc(fundId, page)
+                : transactionRepository.findPageBefore(fundId, beforeDate, beforeId, page);
+
+        FundTransactionPage result = new FundTransactionPage();
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            FundTransaction last = rows.get(size - 1);
+            result.setNextBeforeDate(last.getTransactionDate());
+            result.setNextBeforeId(last.getId());
+        }
+        result.setItems(rows);
+        return result;
+    }
+
+    /**
+     * Số dư tại thời điểm asOf (gồm các giao dịch có transactionDate trước asOf):
+     * snapshot cuối ngày gần nhất trước asOf cộng biến động từ sau snapshot, không phải cộng lại toàn bộ lịch sử.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getBalanceAsOf(Long fundId, LocalDateTime asOf) {
+        if (!fundRepository.existsById(fundId)) {
+            throw new IllegalArgumentException("Fund không tồn tại");
+        }
+        Optional<FundBalanceSnapshot> snapshot = snapshotRepository
+                .findFirstByFundIdAndSnapshotDateLessThanOrderBySnapshotDateDesc(fundId, asOf.toLocalDate());
+        if (snapshot.isEmpty()) {
+            return transactionRepository.sumNetAmountBefore(fundId, asOf);
+        }
+        LocalDateTime snapshotEnd = snapshot.get().getSnapshotDate().plusDays(1).atStartOfDay();
+        return snapshot.get().getBalance()
+                .add(transactionRepository.sumNetAmountBetween(fundId, snapshotEnd, asOf));
+    }
+
+    // Chốt số dư cuối ngày hôm qua cho mọi quỹ; mỗi snapshot chỉ cần snapshot trước đó cộng biến động một ngày
+    @Scheduled(cron = "${funds.snapshot.cron:0 5 0 * * *}")
+    public void takeDailySnapshots() {
+        LocalDate day = LocalDate.now().minusDays(1);
+        int created = 0;
+        for (Long fundId : fundRepository.findAllIds()) {
+            if (snapshotRepository.findByFundIdAndSnapshotDate(fundId, day).isPresent()) {
+                continue;
+            }
+            FundBalanceSnapshot snapshot = new FundBalanceSnapshot();
+            snapshot.setFundId(fundId);
+            snapshot.setSnapshotDate(day);
+            snapshot.setBalance(getBalanceAsOf(fundId, day.plusDays(1).atStartOfDay()));
+            snapshotRepository.save(snapshot);
+            created++;
+        }
+        log.info("Created {} fund balance snapshots for {}", created, day);
+    }
 }
 
@@ -0,0 +1,46 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.model.OwnershipShare;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+// Chia theo trọng số tùy chỉnh theo userId (tối đa 4 chữ số thập phân); member không có trong allocations được 0
+@Component
+public class CustomWeightSplitStrategy implements SplitStrategy {
+    private static final int WEIGHT_SCALE = 4;
+
+    @Override
+    public String method() {
+        return "CUSTOM_WEIGHTS";
+    }
+
+    @Override
+    public long[] split(long totalMinor, SplitContext context) {
+        Map<Long, BigDecimal> allocations = context.allocations();
+        if (allocations == null || allocations.isEmpty()) {
+            throw new IllegalArgumentException("CUSTOM_WEIGHTS cần allocations (trọng số theo userId)");
+        }
+        List<OwnershipShare> members = context.members();
+        SplitAllocations.requireMembers(allocations, members);
+
+        long[] weights = new long[members.size()];
+        for (int i = 0; i < weights.length; i++) {
+            BigDecimal weight = allocations.get(members.get(i).getUser().getId());
+            if (weight == null) {
+                continue;
+            }
+            if (weight.signum() < 0) {
+                throw new IllegalArgumentException("Trọng số không được âm");
+            }
+            try {
+                weights[i] = weight.movePointRight(WEIGHT_SCALE).longValueExact();
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Trọng số chỉ được có tối đa " + WEIGHT_SCALE + " chữ số thập phân: " + weight);
+            }
+        }
+        return SplitEngine.allocate(totalMinor, weights);
+    }
+}
@@ -0,0 +1,25 @@
+package com.evcoownership.coowner.service;
+
+import org.springframework.stereotype.Component;
+
+// Chia đều; các xu lẻ cấp cho những member đầu danh sách
+@Component
+public class EqualSplitStrategy implements SplitStrategy {
+
+    @Override
+    public String method() {
+        return "EQUAL";
+    }
+
+    @Override
+    public long[] split(long totalMinor, SplitContext context) {
+        int count = context.members().size();
+        long[] amounts = new long[count];
+        long base = totalMinor / count;
+        long leftover = totalMinor % count;
+        for (int i = 0; i < count; i++) {
+            amounts[i] = base + (i < leftover ? 1 : 0);
+        }
+        return amounts;
+    }
+}
@@ -0,0 +1,366 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.dto.CreateExpenseRequest;
+import com.evcoownership.coowner.dto.ExpenseImportError;
+import com.evcoownership.coowner.dto.ExpenseImportResult;
+import com.evcoownership.coowner.model.*;
+import com.evcoownership.coowner.repository.GroupRepository;
+import com.evcoownership.coowner.repository.OwnershipShareRepository;
+import com.evcoownership.coowner.repository.VehicleRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.exc.StreamReadException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Import hàng loạt chi phí từ CSV hoặc JSON.
+ * File được đọc tuần tự, mỗi chunk ghi trong một transaction riêng bằng JDBC batch
+ * (id expense/expense_share lấy từ sequence nên Hibernate gom được insert).
+ * Group, xe và danh sách thành viên chỉ load một lần cho mỗi group trong file.
+ * Dòng lỗi được ghi lại và bỏ qua, không làm hỏng cả file.
+ */
+@Service
+public class ExpenseImportService {
+    private static final List<String> REQUIRED_CSV_COLUMNS = List.of("groupId", "type", "amount", "date", "splitMethod");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final GroupRepository groupRepository;
+    private final VehicleRepository vehicleRepository;
+    private final OwnershipShareRepository ownershipShareRepository;
+    private final ExpenseService expenseService;
+    private final SplitEngine splitEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public ExpenseImportService(GroupRepository groupRepository,
+                                VehicleRepository vehicleRepository,
+                                OwnershipShareRepository ownershipShareRepository,
+                                ExpenseService expenseService,
+                                SplitEngine splitEngine,
+                                TransactionTemplate transactionTemplate,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                @Value("${expenses.import.chunk-size:50}") int chunkSize) {
+        this.groupRepository = groupRepository;
+        this.vehicleRepository = vehicleRepository;
+        this.ownershipShareRepository = ownershipShareRepository;
+        this.expenseService = expenseService;
+        this.splitEngine = splitEngine;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    // CSV có dòng header; các cột: groupId,vehicleId,type,amount,date,description,splitMethod (thứ tự tùy ý)
+    public ExpenseImportResult importCsv(InputStream in, Long userId) throws IOException {
+        ImportSession session = new ImportSession(userId);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            throw new IllegalArgumentException("File CSV rỗng");
+        }
+        List<String> header = parseCsvLine(stripBom(headerLine)).stream().map(String::trim).toList();
+        for (String column : REQUIRED_CSV_COLUMNS) {
+            if (!header.contains(column)) {
+                throw new IllegalArgumentException("Thiếu cột " + column + " trong header CSV");
+            }
+        }
+
+        String line;
+        int rowNumber = 1;
+        while ((line = reader.readLine()) != null) {
+            rowNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                session.accept(rowNumber, toRequest(header, parseCsvLine(line)));
+            } catch (IllegalArgumentException | DateTimeException e) {
+                session.reject(rowNumber, e.getMessage());
+            }
+        }
+        return session.finish();
+    }
+
+    // JSON là một mảng các object cùng dạng CreateExpenseRequest; đọc từng phần tử bằng streaming parser
+    // Phần tử không phải object là lỗi của dòng đó; JSON sai cú pháp, mảng chưa đóng hoặc dữ liệu thừa sau mảng
+    // làm hỏng cả file. Các chunk trước đó đã commit nên thông báo lỗi nêu số dòng đã nhập.
+    public ExpenseImportResult importJson(InputStream in, Long userId) throws IOException {
+        ImportSession session = new ImportSession(userId);
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("JSON import phải là một mảng");
+            }
+            int rowNumber = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw invalidJson(session, "mảng chưa được đóng");
+                }
+                rowNumber++;
+                if (token != JsonToken.START_OBJECT) {
+                    String value = token.isScalarValue() ? parser.getText() : "[...]";
+                    parser.skipChildren();
+                    session.reject(rowNumber, "Phần tử phải là object, nhận được: " + value);
+                    continue;
+                }
+                JsonNode node = objectMapper.readTree(parser);
+                try {
+                    session.accept(rowNumber, objectMapper.treeToValue(node, CreateExpenseRequest.class));
+                } catch (JsonProcessingException e) {
+                    session.reject(rowNumber, "Dữ liệu không hợp lệ: " + e.getOriginalMessage());
+                }
+            }
+            if (parser.nextToken() != null) {
+                throw invalidJson(session, "có dữ liệu thừa sau mảng");
+            }
+        } catch (StreamReadException e) {
+            throw invalidJson(session, e.getOriginalMessage());
+        }
+        return session.finish();
+    }
+
+    private static IllegalArgumentException invalidJson(ImportSession session, String detail) {
+        return new IllegalArgumentException("JSON import không hợp lệ (" + detail + "); đã nhập "
+                + session.importedCount + " dòng ở các chunk trước đó");
+    }
+
+    private static CreateExpenseRequest toRequest(List<String> header, List<String> values) {
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < header.size() && i < values.size(); i++) {
+            String value = values.get(i).trim();
+            row.put(header.get(i), value.isEmpty() ? null : value);
+        }
+
+        CreateExpenseRequest req = new CreateExpenseRequest();
+        req.setGroupId(parseLong(row.get("groupId"), "groupId"));
+        req.setVehicleId(parseLong(row.get("vehicleId"), "vehicleId"));
+        req.setType(row.get("type"));
+        if (row.get("amount") != null) {
+            try {
+                req.setAmount(new BigDecimal(row.get("amount")));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("amount không hợp lệ: " + row.get("amount"));
+            }
+        }
+        if (row.get("date") != null) {
+            req.setDate(LocalDate.parse(row.get("date")));
+        }
+        req.setDescription(row.get("description"));
+        req.setSplitMethod(row.get("splitMethod"));
+        return req;
+    }
+
+    private static Long parseLong(String value, String column) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " không hợp lệ: " + value);
+        }
+    }
+
+    // Tách một dòng CSV, hỗ trợ giá trị trong dấu nháy kép và "" để escape (không hỗ trợ xuống dòng trong giá trị)
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private static String stripBom(String line) {
+        return line.startsWith("\uFEFF") ? line.substring(1) : line;
+    }
+
+    private record PendingRow(int rowNumber, CreateExpenseRequest request) {
+    }
+
+    // Dữ liệu group dùng chung cho mọi dòng cùng group; error != null nếu group không dùng được
+    private record GroupContext(List<OwnershipShare> shares, Set<Long> vehicleIds, String error) {
+    }
+
+    private final class ImportSession {
+        private final Long userId;
+        private final Map<Long, GroupContext> groups = new HashMap<>();
+        private final List<PendingRow> pending = new ArrayList<>();
+        private final List<ExpenseImportError> errors = new ArrayList<>();
+        private int totalRows;
+        private int importedCount;
+
+        ImportSession(Long userId) {
+            this.userId = userId;
+        }
+
+        void accept(int rowNumber, CreateExpenseRequest request) {
+            totalRows++;
+            String violation = validate(request);
+            if (violation != null) {
+                errors.add(new ExpenseImportError(rowNumber, violation));
+                return;
+            }
+            pending.add(new PendingRow(rowNumber, request));
+            if (pending.size() >= chunkSize) {
+                writeChunk();
+            }
+        }
+
+        void reject(int rowNumber, String message) {
+            totalRows++;
+            errors.add(new ExpenseImportError(rowNumber, message));
+        }
+
+        ExpenseImportResult finish() {
+            if (!pending.isEmpty()) {
+                writeChunk();
+            }
+            errors.sort(Comparator.comparingInt(ExpenseImportError::getRowNumber));
+            ExpenseImportResult result = new ExpenseImportResult();
+            result.setTotalRows(totalRows);
+            result.setImportedCount(importedCount);
+            result.setFailedCount(errors.size());
+            result.setErrors(errors);
+            return result;
+        }
+
+        private String validate(CreateExpenseRequest request) {
+            Set<ConstraintViolation<CreateExpenseRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                return violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+            }
+            if (!splitEngine.supports(request.getSplitMethod())) {
+                return "Split method không hợp lệ: " + request.getSplitMethod();
+            }
+            return null;
+        }
+
+        private void writeChunk() {
+            List<PendingRow> chunk = new ArrayList<>(pending);
+            pending.clear();
+            List<ExpenseImportError> chunkErrors = new ArrayList<>();
+            try {
+                Integer written = transactionTemplate.execute(status -> persistChunk(chunk, chunkErrors));
+                importedCount += written != null ? written : 0;
+                errors.addAll(chunkErrors);
+            } catch (RuntimeException e) {
+                // Lỗi ở tầng DB khi flush: cả chunk bị rollback, đánh dấu lỗi cho mọi dòng trong chunk
+                Set<Integer> alreadyFailed = chunkErrors.stream()
+                        .map(ExpenseImportError::getRowNumber)
+                        .collect(Collectors.toSet());
+                errors.addAll(chunkErrors);
+                for (PendingRow row : chunk) {
+                    if (!alreadyFailed.contains(row.rowNumber())) {
+                        errors.add(new ExpenseImportError(row.rowNumber(), "Không lưu được chunk: " + e.getMessage()));
+                    }
+                }
+            }
+        }
+
+        private int persistChunk(List<PendingRow> chunk, List<ExpenseImportError> chunkErrors) {
+            User creator = entityManager.getReference(User.class, userId);
+            int written = 0;
+            for (PendingRow row : chunk) {
+                CreateExpenseRequest req = row.request();
+                GroupContext group = groups.computeIfAbsent(req.getGroupId(), this::loadGroup);
+                if (group.error() != null) {
+                    chunkErrors.add(new ExpenseImportError(row.rowNumber(), group.error()));
+                    continue;
+                }
+                if (req.getVehicleId() != null && !group.vehicleIds().contains(req.getVehicleId())) {
+                    chunkErrors.add(new ExpenseImportError(row.rowNumber(), "Vehicle không thuộc group"));
+                    continue;
+                }
+
+                Expense expense = new Expense();
+                expense.setGroup(entityManager.getReference(Group.class, req.getGroupId()));
+                expense.setCreatedBy(creator);
+                if (req.getVehicleId() != null) {
+                    expense.setVehicle(entityManager.getReference(Vehicle.class, req.getVehicleId()));
+                }
+                expense.setType(req.getType());
+                expense.setAmount(req.getAmount());
+                expense.setDate(req.getDate());
+                expense.setDescription(req.getDescription());
+                expense.setSplitMethod(req.getSplitMethod());
+                expense.setStatus("PENDING");
+
+                List<ExpenseShare> shares;
+                try {
+                    shares = expenseService.buildExpenseShares(expense, group.shares(), req.getAllocations());
+                } catch (IllegalArgumentException e) {
+                    chunkErrors.add(new ExpenseImportError(row.rowNumber(), e.getMessage()));
+                    continue;
+                }
+                entityManager.persist(expense);
+                shares.forEach(entityManager::persist);
+                written++;
+            }
+            entityManager.flush();
+            entityManager.clear();
+            return written;
+        }
+
+        private GroupContext loadGroup(Long groupId) {
+            if (!groupRepository.existsById(groupId)) {
+                return new GroupContext(null, null, "Group không tồn tại");
+            }
+            List<OwnershipShare> shares = ownershipShareRepository.findByGroupId(groupId);
+            boolean isMember = shares.stream().anyMatch(s -> s.getUser().getId().equals(userId));
+            if (!isMember) {
+                return new GroupContext(null, null, "Bạn không phải là member của nhóm này");
+            }
+            return new GroupContext(shares, new HashSet<>(vehicleRepository.findIdsByGroupId(groupId)), null);
+        }
+    }
+}
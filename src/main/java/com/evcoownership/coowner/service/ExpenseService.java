@@ -1,15 +1,16 @@
 package com.evcoownership.coowner.service;
 
 import com.evcoownership.coowner.dto.CreateExpenseRequest;
+import com.evcoownership.coowner.dto.GroupEvent;
 import com.evcoownership.coowner.model.*;
 import com.evcoownership.coowner.repository.*;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class ExpenseService {
@@ -19,19 +20,28 @@ public class ExpenseService {
     private final VehicleRepository vehicleRepository;
     private final OwnershipShareRepository ownershipShareRepository;
     private final UserRepository userRepository;
+    private final SplitEngine splitEngine;
+    private final GroupAccessService groupAccessService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ExpenseService(ExpenseRepository expenseRepository,
                          ExpenseShareRepository expenseShareRepository,
                          GroupRepository groupRepository,
                          VehicleRepository vehicleRepository,
                          OwnershipShareRepository ownershipShareRepository,
-                         UserRepository userRepository) {
+                         UserRepository userRepository,
+                         SplitEngine splitEngine,
+                         GroupAccessService groupAccessService,
+                         ApplicationEventPublisher eventPublisher) {
         this.expenseRepository = expenseRepository;
         this.expenseShareRepository = expenseShareRepository;
         this.groupRepository = groupRepository;
         this.vehicleRepository = vehicleRepository;
         this.ownershipShareRepository = ownershipShareRepository;
         this.userRepository = userRepository;
+        this.splitEngine = splitEngine;
+        this.groupAccessService = groupAccessService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -60,62 +70,21 @@ public class ExpenseService {
         Expense savedExpense = expenseRepository.save(expense);
 
         // Tự động chia chi phí
-        splitExpense(savedExpense);
+        splitExpense(savedExpense, req.getAllocations());
+        eventPublisher.publishEvent(GroupEvent.of(GroupEvent.EXPENSE_CREATED, group.getId(), savedExpense.getId()));
 
         return savedExpense;
     }
 
-    private void splitExpense(Expense expense) {
+    private void splitExpense(Expense expense, Map<Long, BigDecimal> allocations) {
         List<OwnershipShare> shares = ownershipShareRepository.findByGroupId(expense.getGroup().getId());
-        
-        if (shares.isEmpty()) {
-            throw new IllegalArgumentException("Group không có thành viên");
-        }
-
-        List<ExpenseShare> expenseShares = new ArrayList<>();
-        BigDecimal totalAmount = expense.getAmount();
-
-        if ("BY_OWNERSHIP".equals(expense.getSplitMethod())) {
-            // Chia theo tỉ lệ sở hữu
-            for (OwnershipShare share : shares) {
-                ExpenseShare expenseShare = new ExpenseShare();
-                expenseShare.setExpense(expense);
-                expenseShare.setUser(share.getUser());
-                BigDecimal userAmount = totalAmount.multiply(BigDecimal.valueOf(share.getPercentage()))
-                        .setScale(2, RoundingMode.HALF_UP);
-                expenseShare.setAmount(userAmount);
-                expenseShare.setStatus("PENDING");
-                expenseShare.setPaidAmount(BigDecimal.ZERO);
-                expenseShares.add(expenseShare);
-            }
-        } else if ("EQUAL".equals(expense.getSplitMethod())) {
-            // Chia đều
-            BigDecimal perPerson = totalAmount.divide(BigDecimal.valueOf(shares.size()), 2, RoundingMode.HALF_UP);
-            for (OwnershipShare share : shares) {
-                ExpenseShare expenseShare = new ExpenseShare();
-                expenseShare.setExpense(expense);
-                expenseShare.setUser(share.getUser());
-                expenseShare.setAmount(perPerson);
-                expenseShare.setStatus("PENDING");
-                expenseShare.setPaidAmount(BigDecimal.ZERO);
-                expenseShares.add(expenseShare);
-            }
-        } else {
-            // BY_USAGE - cần implement logic tính theo mức sử dụng (có thể dùng UsageHistory)
-            // Tạm thời chia đều
-            BigDecimal perPerson = totalAmount.divide(BigDecimal.valueOf(shares.size()), 2, RoundingMode.HALF_UP);
-            for (OwnershipShare share : shares) {
-                ExpenseShare expenseShare = new ExpenseShare();
-                expenseShare.setExpense(expense);
-                expenseShare.setUser(share.getUser());
-                expenseShare.setAmount(perPerson);
-                expenseShare.setStatus("PENDING");
-                expenseShare.setPaidAmount(BigDecimal.ZERO);
-                expenseShares.add(expenseShare);
-            }
-        }
+        expenseShareRepository.saveAll(buildExpenseShares(expense, shares, allocations));
+    }
 
-        expenseShareRepository.saveAll(expenseShares);
+    // Tạo các ExpenseShare (chưa lưu) từ danh sách thành viên đã load; dùng chung cho tạo đơn lẻ và import
+    List<ExpenseShare> buildExpenseShares(Expense expense, List<OwnershipShare> shares,
+                                          Map<Long, BigDecimal> allocations) {
+        return splitEngine.buildShares(expense, shares, allocations);
     }
 
     public List<Expense> getGroupExpenses(Long groupId) {
@@ -132,13 +101,12 @@ public class ExpenseService {
                 .orElseThrow(() -> new IllegalArgumentException("Expense không tồn tại"));
         
         // Validate user is member of group
-        boolean isMember = ownershipShareRepository.existsByGroupIdAndUserId(
-                expense.getGroup().getId(), userId);
-        if (!isMember) {
+        if (!groupAccessService.isMember(expense.getGroup().getId(), userId)) {
             throw new IllegalArgumentException("User không thuộc group");
         }
         
         expense.setStatus("APPROVED");
+        eventPublisher.publishEvent(GroupEvent.of(GroupEvent.EXPENSE_APPROVED, expense.getGroup().getId(), expenseId));
         return expenseRepository.save(expense);
     }
 
@@ -148,9 +116,7 @@ public class ExpenseService {
                 .orElseThrow(() -> new IllegalArgumentException("Expense không tồn tại"));
         
         // Validate user is member of group
-        boolean isMember = ownershipShareRepository.existsByGroupIdAndUserId(
-                expense.getGroup().getId(), userId);
-        if (!isMember) {
+        if (!groupAccessService.isMember(expense.getGroup().getId(), userId)) {
             throw new IllegalArgumentException("User không thuộc group");
         }
         
@@ -196,9 +162,7 @@ public class ExpenseService {
 
     @Transactional(readOnly = true)
     public void verifyUserIsGroupMember(Long groupId, Long userId) {
-        if (!ownershipShareRepository.existsByGroupIdAndUserId(groupId, userId)) {
-            throw new IllegalArgumentException("Bạn không phải là member của nhóm này");
-        }
+        groupAccessService.verifyMember(groupId, userId);
     }
 }
 
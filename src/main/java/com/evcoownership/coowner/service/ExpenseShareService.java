@@ -9,88 +9,33 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class ExpenseShareService {
     private final ExpenseShareRepository expenseShareRepository;
     private final OwnershipShareRepository ownershipShareRepository;
+    private final SplitEngine splitEngine;
 
     public ExpenseShareService(ExpenseShareRepository expenseShareRepository,
-                               OwnershipShareRepository ownershipShareRepository) {
+                               OwnershipShareRepository ownershipShareRepository,
+                               SplitEngine splitEngine) {
         this.expenseShareRepository = expenseShareRepository;
         this.ownershipShareRepository = ownershipShareRepository;
+        this.splitEngine = splitEngine;
     }
 
     @Transactional
     public List<ExpenseShare> createExpenseShares(Expense expense) {
-        List<OwnershipShare> shares = ownershipShareRepository.findByGroupId(expense.getGroup().getId());
-
-        if (shares.isEmpty()) {
-            throw new IllegalArgumentException("Group không có thành viên");
-        }
-
-        List<ExpenseShare> expenseShares = new ArrayList<>();
-        BigDecimal totalAmount = expense.getAmount();
-
-        if ("BY_OWNERSHIP".equals(expense.getSplitMethod())) {
-            // Chia theo tỉ lệ sở hữu
-            // Validate tổng percentage = 1.0
-            double totalPercentage = shares.stream()
-                    .mapToDouble(OwnershipShare::getPercentage)
-                    .sum();
-
-            if (Math.abs(totalPercentage - 1.0) > 0.01) {
-                throw new IllegalArgumentException("Tổng tỉ lệ sở hữu phải bằng 1.0, hiện tại: " + totalPercentage);
-            }
-
-            for (OwnershipShare share : shares) {
-                ExpenseShare expenseShare = new ExpenseShare();
-                expenseShare.setExpense(expense);
-                expenseShare.setUser(share.getUser());
-                BigDecimal userAmount = totalAmount.multiply(BigDecimal.valueOf(share.getPercentage()))
-                        .setScale(2, RoundingMode.HALF_UP);
-                expenseShare.setAmount(userAmount);
-                expenseShare.setStatus("PENDING");
-                expenseShare.setPaidAmount(BigDecimal.ZERO);
-                expenseShares.add(expenseShare);
-            }
-        } else if ("EQUAL".equals(expense.getSplitMethod())) {
-            // Chia đều
-            if (shares.size() == 0) {
-                throw new IllegalArgumentException("Group phải có ít nhất 1 thành viên");
-            }
-
-            BigDecimal perPerson = totalAmount.divide(BigDecimal.valueOf(shares.size()), 2, RoundingMode.HALF_UP);
-            for (OwnershipShare share : shares) {
-                ExpenseShare expenseShare = new ExpenseShare();
-                expenseShare.setExpense(expense);
-                expenseShare.setUser(share.getUser());
-                expenseShare.setAmount(perPerson);
-                expenseShare.setStatus("PENDING");
-                expenseShare.setPaidAmount(BigDecimal.ZERO);
-                expenseShares.add(expenseShare);
-            }
-        } else if ("BY_USAGE".equals(expense.getSplitMethod())) {
-            // BY_USAGE - sẽ implement logic tính theo mức sử dụng (Day 5 với UsageHistory)
-            // Tạm thời chia đều
-            BigDecimal perPerson = totalAmount.divide(BigDecimal.valueOf(shares.size()), 2, RoundingMode.HALF_UP);
-            for (OwnershipShare share : shares) {
-                ExpenseShare expenseShare = new ExpenseShare();
-                expenseShare.setExpense(expense);
-                expenseShare.setUser(share.getUser());
-                expenseShare.setAmount(perPerson);
-                expenseShare.setStatus("PENDING");
-                expenseShare.setPaidAmount(BigDecimal.ZERO);
-                expenseShares.add(expenseShare);
-            }
-        } else {
-            throw new IllegalArgumentException("Split method không hợp lệ: " + expense.getSplitMethod());
-        }
+        return createExpenseShares(expense, null);
+    }
 
-        return expenseShareRepository.saveAll(expenseShares);
+    // allocations dùng cho CUSTOM_WEIGHTS / FIXED_AMOUNTS
+    @Transactional
+    public List<ExpenseShare> createExpenseShares(Expense expense, Map<Long, BigDecimal> allocations) {
+        List<OwnershipShare> shares = ownershipShareRepository.findByGroupId(expense.getGroup().getId());
+        return expenseShareRepository.saveAll(splitEngine.buildShares(expense, shares, allocations));
     }
 
     public List<ExpenseShare> getUserExpenseShares(Long userId) {
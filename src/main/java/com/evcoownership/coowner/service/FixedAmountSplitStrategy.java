@@ -0,0 +1,47 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.model.OwnershipShare;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+// Số tiền cố định theo userId; tổng phải đúng bằng số tiền chi phí, member không có trong allocations được 0
+@Component
+public class FixedAmountSplitStrategy implements SplitStrategy {
+
+    @Override
+    public String method() {
+        return "FIXED_AMOUNTS";
+    }
+
+    @Override
+    public long[] split(long totalMinor, SplitContext context) {
+        Map<Long, BigDecimal> allocations = context.allocations();
+        if (allocations == null || allocations.isEmpty()) {
+            throw new IllegalArgumentException("FIXED_AMOUNTS cần allocations (số tiền theo userId)");
+        }
+        List<OwnershipShare> members = context.members();
+        SplitAllocations.requireMembers(allocations, members);
+
+        long[] amounts = new long[members.size()];
+        long sum = 0;
+        for (int i = 0; i < amounts.length; i++) {
+            BigDecimal amount = allocations.get(members.get(i).getUser().getId());
+            if (amount == null) {
+                continue;
+            }
+            if (amount.signum() < 0) {
+                throw new IllegalArgumentException("Số tiền không được âm");
+            }
+            amounts[i] = SplitEngine.toMinor(amount);
+            sum += amounts[i];
+        }
+        if (sum != totalMinor) {
+            throw new IllegalArgumentException("Tổng số tiền cố định (" + SplitEngine.fromMinor(sum)
+                    + ") phải bằng số tiền chi phí (" + SplitEngine.fromMinor(totalMinor) + ")");
+        }
+        return amounts;
+    }
+}
@@ -0,0 +1,101 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.dto.GroupAccessRow;
+import com.evcoownership.coowner.repository.GroupRepository;
+import com.evcoownership.coowner.repository.OwnershipShareRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Kiểm tra quyền truy cập group dùng chung cho các service, từ cache (groupId -> member ids, người tạo).
+ * Cache bị xóa sau khi commit addMember / removeMember / transferOwnership / deleteGroup;
+ * TTL chỉ là lưới an toàn cho dữ liệu sửa trực tiếp trong DB.
+ */
+@Service
+public class GroupAccessService {
+    private final GroupRepository groupRepository;
+    private final OwnershipShareRepository ownershipShareRepository;
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Map<Long, GroupAccess> cache = new ConcurrentHashMap<>();
+    // Tăng mỗi lần evict; lần load bắt đầu trước evict không được ghi đè dữ liệu cũ vào cache
+    private final AtomicLong generation = new AtomicLong();
+
+    public GroupAccessService(GroupRepository groupRepository,
+                              OwnershipShareRepository ownershipShareRepository,
+                              @Value("${groups.access-cache.ttl-seconds:300}") long ttlSeconds,
+                              @Value("${groups.access-cache.max-entries:10000}") int maxEntries) {
+        this.groupRepository = groupRepository;
+        this.ownershipShareRepository = ownershipShareRepository;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.maxEntries = maxEntries;
+    }
+
+    // Có ownership share trong group
+    public boolean isMember(Long groupId, Long userId) {
+        return accessOf(groupId).memberIds().contains(userId);
+    }
+
+    public boolean isCreator(Long groupId, Long userId) {
+        return userId != null && userId.equals(accessOf(groupId).creatorId());
+    }
+
+    // Member hoặc người tạo group
+    public void verifyMemberOrCreator(Long groupId, Long userId) {
+        GroupAccess access = accessOf(groupId);
+        if (!access.memberIds().contains(userId) && !userId.equals(access.creatorId())) {
+            throw new IllegalArgumentException("Bạn không phải là member của nhóm này");
+        }
+    }
+
+    public void verifyMember(Long groupId, Long userId) {
+        if (!isMember(groupId, userId)) {
+            throw new IllegalArgumentException("Bạn không phải là member của nhóm này");
+        }
+    }
+
+    public void verifyCreator(Long groupId, Long userId) {
+        if (!isCreator(groupId, userId)) {
+            throw new IllegalArgumentException("Chỉ người tạo nhóm mới có quyền thực hiện thao tác này");
+        }
+    }
+
+    // Gọi trong transaction thay đổi thành viên / người tạo; chỉ xóa cache khi commit thành công
+    public void evictGroup(Long groupId) {
+        AfterCommit.run(() -> cache.compute(groupId, (id, cached) -> {
+            generation.incrementAndGet();
+            return null;
+        }));
+    }
+
+    private GroupAccess accessOf(Long groupId) {
+        long now = System.nanoTime();
+        GroupAccess cached = cache.get(groupId);
+        if (cached != null && cached.expiresAtNanos() - now > 0) {
+            return cached;
+        }
+
+        long loadGeneration = generation.get();
+        GroupAccessRow row = groupRepository.findAccessRow(groupId)
+                .orElseThrow(() -> new IllegalArgumentException("Group không tồn tại"));
+        Set<Long> memberIds = Set.copyOf(ownershipShareRepository.findUserIdsByGroupId(groupId));
+        GroupAccess access = new GroupAccess(memberIds, row.creatorId(), now + ttl.toNanos());
+
+        if (cache.size() >= maxEntries) {
+            cache.clear();
+        }
+        // Kiểm tra generation và ghi trong cùng compute: evict của group này (cũng chạy trong compute)
+        // không thể chen vào giữa hai bước
+        cache.compute(groupId, (id, current) -> generation.get() == loadGeneration ? access : current);
+        return access;
+    }
+
+    private record GroupAccess(Set<Long> memberIds, Long creatorId, long expiresAtNanos) {
+    }
+}
@@ -0,0 +1,127 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.dto.GroupSummaryRow;
+import com.evcoownership.coowner.repository.*;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Tổng hợp trang group trong một request: các query đọc độc lập chạy song song trên pool giới hạn,
+ * nên thời gian gần bằng query chậm nhất thay vì tổng các lần gọi riêng lẻ.
+ * Mỗi query là một projection, chạy trong transaction read-only riêng của repository.
+ */
+@Service
+public class GroupDashboardService {
+    private final GroupRepository groupRepository;
+    private final OwnershipShareRepository ownershipShareRepository;
+    private final VehicleRepository vehicleRepository;
+    private final CommonFundRepository commonFundRepository;
+    private final VoteRepository voteRepository;
+    private final ExpenseRepository expenseRepository;
+    private final BookingRepository bookingRepository;
+    private final int listLimit;
+    private final long timeoutMs;
+    private final ThreadPoolExecutor executor;
+
+    public GroupDashboardService(GroupRepository groupRepository,
+                                 OwnershipShareRepository ownershipShareRepository,
+                                 VehicleRepository vehicleRepository,
+                                 CommonFundRepository commonFundRepository,
+                                 VoteRepository voteRepository,
+                                 ExpenseRepository expenseRepository,
+                                 BookingRepository bookingRepository,
+                                 @Value("${dashboard.list-limit:20}") int listLimit,
+                                 @Value("${dashboard.timeout-ms:5000}") long timeoutMs,
+                                 @Value("${dashboard.executor-threads:8}") int threads,
+                                 @Value("${dashboard.executor-queue-size:200}") int queueSize) {
+        this.groupRepository = groupRepository;
+        this.ownershipShareRepository = ownershipShareRepository;
+        this.vehicleRepository = vehicleRepository;
+        this.commonFundRepository = commonFundRepository;
+        this.voteRepository = voteRepository;
+        this.expenseRepository = expenseRepository;
+        this.bookingRepository = bookingRepository;
+        this.listLimit = listLimit;
+        this.timeoutMs = timeoutMs;
+        AtomicInteger counter = new AtomicInteger();
+        // Hàng đợi đầy thì thread của request tự chạy query (không tạo thêm thread, không từ chối)
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "group-dashboard-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public Map<String, Object> getDashboard(Long groupId) {
+        LocalDateTime now = LocalDateTime.now();
+        PageRequest limit = PageRequest.of(0, listLimit);
+
+        CompletableFuture<GroupSummaryRow> group = submit(() -> groupRepository.findSummaryById(groupId)
+                .orElseThrow(() -> new IllegalArgumentException("Group không tồn tại")));
+        CompletableFuture<?> members = submit(() -> ownershipShareRepository.findMemberRowsByGroupIds(List.of(groupId)));
+        CompletableFuture<?> vehicles = submit(() -> vehicleRepository.findDashboardRowsByGroupId(groupId));
+        CompletableFuture<?> funds = submit(() -> commonFundRepository.findDashboardRowsByGroupId(groupId));
+        CompletableFuture<?> openVotes = submit(() -> voteRepository.findOpenDashboardRowsByGroupId(groupId));
+        CompletableFuture<?> pendingExpenses = submit(
+                () -> expenseRepository.findPendingDashboardRowsByGroupId(groupId, limit));
+        CompletableFuture<?> upcomingBookings = submit(
+                () -> bookingRepository.findUpcomingDashboardRowsByGroupId(groupId, now, limit));
+
+        CompletableFuture<Void> all = CompletableFuture.allOf(group, members, vehicles, funds, openVotes,
+                pendingExpenses, upcomingBookings);
+        try {
+            all.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            all.cancel(true);
+            throw new IllegalStateException("Quá thời gian tải dashboard của group");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tải dashboard bị gián đoạn");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                    ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Không tải được dashboard của group", cause);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("group", group.join());
+        result.put("members", members.join());
+        result.put("vehicles", vehicles.join());
+        result.put("funds", funds.join());
+        result.put("openVotes", openVotes.join());
+        result.put("pendingExpenses", pendingExpenses.join());
+        result.put("upcomingBookings", upcomingBookings.join());
+        return result;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(query, executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,171 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.dto.GroupEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Phát GroupEvent tới các client đang nghe SSE của group.
+ * Mỗi subscriber có buffer giới hạn; việc gửi chạy trên một pool nhỏ dùng chung nên subscriber rảnh
+ * không giữ thread nào. Subscriber đọc không kịp (buffer đầy) bị ngắt để client kết nối lại và tải lại dữ liệu.
+ */
+@Service
+public class GroupEventBroadcaster {
+    private static final Logger log = LoggerFactory.getLogger(GroupEventBroadcaster.class);
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService sender;
+    private final long timeoutMs;
+    private final int bufferSize;
+
+    public GroupEventBroadcaster(@Value("${events.sse.timeout-ms:1800000}") long timeoutMs,
+                                 @Value("${events.sse.buffer-size:64}") int bufferSize,
+                                 @Value("${events.sse.sender-threads:4}") int senderThreads) {
+        this.timeoutMs = timeoutMs;
+        this.bufferSize = bufferSize;
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "sse-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // userId để đóng được stream của user khi user rời group (quyền chỉ kiểm tra lúc subscribe)
+    public SseEmitter subscribe(Long groupId, Long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(groupId, userId, emitter);
+        subscribers.computeIfAbsent(groupId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        return emitter;
+    }
+
+    // Đóng mọi stream của user trong group, client kết nối lại sẽ bị kiểm tra quyền lại
+    public void disconnect(Long groupId, Long userId) {
+        Set<Subscriber> groupSubscribers = subscribers.get(groupId);
+        if (groupSubscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : groupSubscribers) {
+            if (subscriber.userId.equals(userId)) {
+                subscriber.close();
+            }
+        }
+    }
+
+    int subscriberCount(Long groupId) {
+        Set<Subscriber> groupSubscribers = subscribers.get(groupId);
+        return groupSubscribers == null ? 0 : groupSubscribers.size();
+    }
+
+    // Chỉ nhận sự kiện của transaction đã commit, không phát thay đổi bị rollback
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onGroupEvent(GroupEvent event) {
+        Set<Subscriber> groupSubscribers = subscribers.get(event.groupId());
+        if (groupSubscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : groupSubscribers) {
+            subscriber.enqueue(SseEmitter.event().name(event.type()).data(event));
+        }
+    }
+
+    // Giữ kết nối qua proxy và phát hiện client đã ngắt
+    @Scheduled(fixedDelayString = "${events.sse.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        for (Set<Subscriber> groupSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : groupSubscribers) {
+                subscriber.enqueue(SseEmitter.event().comment("ping"));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(s -> s.emitter.complete()));
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.groupId, (id, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private final class Subscriber {
+        private final Long groupId;
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> buffer = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger buffered = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(Long groupId, Long userId, SseEmitter emitter) {
+            this.groupId = groupId;
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void enqueue(SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return;
+            }
+            if (buffered.incrementAndGet() > bufferSize) {
+                buffered.decrementAndGet();
+                log.debug("SSE subscriber of group {} is too slow, disconnecting", groupId);
+                close();
+                return;
+            }
+            buffer.add(event);
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                SseEmitter.SseEventBuilder event;
+                while (!closed && (event = buffer.poll()) != null) {
+                    buffered.decrementAndGet();
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        close();
+                    }
+                }
+                draining.set(false);
+                // Sự kiện đến sau lần poll cuối nhưng trước khi nhả cờ: tự lấy lại cờ và gửi tiếp
+            } while (!closed && !buffer.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private synchronized void close() {
+            if (!closed) {
+                closed = true;
+                buffer.clear();
+                remove(this);
+                emitter.complete();
+            }
+        }
+    }
+}
@@ -2,42 +2,48 @@ package com.evcoownership.coowner.service;
 
 import com.evcoownership.coowner.dto.AddMemberRequest;
 import com.evcoownership.coowner.dto.CreateGroupRequest;
+import com.evcoownership.coowner.dto.GroupDependencyCounts;
+import com.evcoownership.coowner.dto.GroupMemberRow;
+import com.evcoownership.coowner.dto.GroupSummaryRow;
+import com.evcoownership.coowner.dto.UserDto;
+import com.evcoownership.coowner.dto.UserGroupDto;
 import com.evcoownership.coowner.model.Group;
 import com.evcoownership.coowner.model.OwnershipShare;
 import com.evcoownership.coowner.model.User;
+import com.evcoownership.coowner.repository.*;
 import org.hibernate.Hibernate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class GroupService {
     private final GroupRepository groupRepository;
     private final OwnershipShareRepository ownershipShareRepository;
     private final UserRepository userRepository;
-    private final VehicleRepository vehicleRepository;
-    private final ExpenseRepository expenseRepository;
     private final BookingRepository bookingRepository;
-    private final VoteRepository voteRepository;
-    private final CommonFundRepository commonFundRepository;
+    private final VoteTallyService voteTallyService;
+    private final GroupAccessService groupAccessService;
+    private final GroupEventBroadcaster groupEventBroadcaster;
 
     public GroupService(GroupRepository groupRepository,
                         OwnershipShareRepository ownershipShareRepository,
                         UserRepository userRepository,
-                        VehicleRepository vehicleRepository,
-                        ExpenseRepository expenseRepository,
                         BookingRepository bookingRepository,
-                        VoteRepository voteRepository,
-                        CommonFundRepository commonFundRepository) {
+                        VoteTallyService voteTallyService,
+                        GroupAccessService groupAccessService,
+                        GroupEventBroadcaster groupEventBroadcaster) {
         this.groupRepository = groupRepository;
         this.ownershipShareRepository = ownershipShareRepository;
         this.userRepository = userRepository;
-        this.vehicleRepository = vehicleRepository;
-        this.expenseRepository = expenseRepository;
         this.bookingRepository = bookingRepository;
-        this.voteRepository = voteRepository;
-        this.commonFundRepository = commonFundRepository;
+        this.voteTallyService = voteTallyService;
+        this.groupAccessService = groupAccessService;
+        this.groupEventBroadcaster = groupEventBroadcaster;
     }
 
     @Transactional
@@ -69,6 +75,8 @@ public class GroupService {
         share.setGroup(g);
         share.setUser(u);
         share.setPercentage(req.getPercentage());
+        voteTallyService.evictGroup(groupId);
+        groupAccessService.evictGroup(groupId);
         return ownershipShareRepository.save(share);
     }
 
@@ -131,68 +139,48 @@ public class GroupService {
         return groups;
     }
 
+    // Groups mà user là member HOẶC là creator, kèm thành viên: đúng hai query bất kể số group
     @Transactional(readOnly = true)
-    public List<Group> getUserGroups(Long userId) {
-        // Trả về các groups mà user là member HOẶC user là creator
-        java.util.Set<Long> groupIds = new java.util.HashSet<>();
-        List<Group> groups = new java.util.ArrayList<>();
-        
-        // Lấy groups mà user là member (có ownership share)
-        List<OwnershipShare> shares = ownershipShareRepository.findByUserId(userId);
-        for (OwnershipShare share : shares) {
-            Long groupId = share.getGroup().getId();
-            if (!groupIds.contains(groupId)) {
-                // Reload group với EntityGraph để đảm bảo ownershipShares được load
-                Group group = groupRepository.findById(groupId)
-                        .orElse(null);
-                if (group != null) {
-                    // Trigger load ownershipShares để tránh LazyInitializationException
-                    group.getOwnershipShares().size();
-                    groups.add(group);
-                    groupIds.add(groupId);
-                }
-            }
+    public List<UserGroupDto> getUserGroups(Long userId) {
+        List<GroupSummaryRow> summaries = groupRepository.findSummariesForUser(userId);
+        if (summaries.isEmpty()) {
+            return List.of();
         }
-        
-        // Lấy groups mà user là creator (người tạo group)
-        List<Group> createdGroups = groupRepository.findByCreatedById(userId);
-        // Thêm các groups mà user tạo nhưng chưa có trong list (tránh duplicate)
-        for (Group createdGroup : createdGroups) {
-            if (!groupIds.contains(createdGroup.getId())) {
-                // Trigger load ownershipShares để tránh LazyInitializationException
-                createdGroup.getOwnershipShares().size();
-                groups.add(createdGroup);
-                groupIds.add(createdGroup.getId());
-            }
+
+        Map<Long, List<UserGroupDto.Member>> membersByGroup = new HashMap<>();
+        List<Long> groupIds = summaries.stream().map(GroupSummaryRow::groupId).toList();
+        for (GroupMemberRow row : ownershipShareRepository.findMemberRowsByGroupIds(groupIds)) {
+            membersByGroup.computeIfAbsent(row.groupId(), id -> new ArrayList<>())
+                    .add(new UserGroupDto.Member(row.shareId(),
+                            toUserDto(row.userId(), row.email(), row.fullName()), row.percentage()));
+        }
+
+        List<UserGroupDto> groups = new ArrayList<>(summaries.size());
+        for (GroupSummaryRow summary : summaries) {
+            UserDto creator = summary.creatorId() != null
+                    ? toUserDto(summary.creatorId(), summary.creatorEmail(), summary.creatorFullName())
+                    : null;
+            groups.add(new UserGroupDto(summary.groupId(), summary.name(), creator,
+                    membersByGroup.getOrDefault(summary.groupId(), List.of())));
         }
-        
         return groups;
     }
 
-    @Transactional(readOnly = true)
+    private static UserDto toUserDto(Long id, String email, String fullName) {
+        UserDto dto = new UserDto();
+        dto.setId(id);
+        dto.setEmail(email);
+        dto.setFullName(fullName);
+        return dto;
+    }
+
+    // Member (có ownership share) hoặc người tạo group; kiểm tra từ cache của GroupAccessService
     public void verifyUserIsMember(Long groupId, Long userId) {
-        // Check nếu user là member (có ownership share)
-        if (ownershipShareRepository.existsByGroupIdAndUserId(groupId, userId)) {
-            return;
-        }
-        
-        // Check nếu user là creator của group
-        Group group = groupRepository.findById(groupId)
-                .orElseThrow(() -> new IllegalArgumentException("Group không tồn tại"));
-        if (group.getCreatedBy() != null && group.getCreatedBy().getId().equals(userId)) {
-            return;
-        }
-        
-        throw new IllegalArgumentException("Bạn không phải là member của nhóm này");
+        groupAccessService.verifyMemberOrCreator(groupId, userId);
     }
 
-    @Transactional(readOnly = true)
     public void verifyUserIsGroupOwner(Long groupId, Long userId) {
-        Group group = groupRepository.findById(groupId)
-                .orElseThrow(() -> new IllegalArgumentException("Group không tồn tại"));
-        if (group.getCreatedBy() == null || !group.getCreatedBy().getId().equals(userId)) {
-            throw new IllegalArgumentException("Chỉ người tạo nhóm mới có quyền thực hiện thao tác này");
-        }
+        groupAccessService.verifyCreator(groupId, userId);
     }
 
     @Transactional
@@ -216,40 +204,31 @@ public class GroupService {
         
         // Transfer ownership
         group.setCreatedBy(newOwner);
+        groupAccessService.evictGroup(groupId);
         return groupRepository.save(group);
     }
 
     @Transactional
     public void deleteGroup(Long id) {
-        Group group = groupRepository.findById(id)
+        // Kiểm tra các entities liên quan bằng một câu COUNT, không load danh sách entity
+        GroupDependencyCounts dependencies = groupRepository.countDependencies(id)
                 .orElseThrow(() -> new IllegalArgumentException("Group không tồn tại"));
-
-        // Kiểm tra các entities liên quan
         List<String> errors = new java.util.ArrayList<>();
 
-        long vehicleCount = vehicleRepository.findByGroupId(id).size();
-        if (vehicleCount > 0) {
-            errors.add("Nhóm có " + vehicleCount + " xe. Vui lòng xóa xe trước.");
+        if (dependencies.vehicles() > 0) {
+            errors.add("Nhóm có " + dependencies.vehicles() + " xe. Vui lòng xóa xe trước.");
         }
-
-        long expenseCount = expenseRepository.findByGroupId(id).size();
-        if (expenseCount > 0) {
-            errors.add("Nhóm có " + expenseCount + " chi phí. Không thể xóa nhóm có chi phí.");
+        if (dependencies.expenses() > 0) {
+            errors.add("Nhóm có " + dependencies.expenses() + " chi phí. Không thể xóa nhóm có chi phí.");
         }
-
-        long bookingCount = bookingRepository.findByGroupId(id).size();
-        if (bookingCount > 0) {
-            errors.add("Nhóm có " + bookingCount + " booking. Không thể xóa nhóm có booking.");
+        if (dependencies.bookings() > 0) {
+            errors.add("Nhóm có " + dependencies.bookings() + " booking. Không thể xóa nhóm có booking.");
         }
-
-        long voteCount = voteRepository.findByGroupId(id).size();
-        if (voteCount > 0) {
-            errors.add("Nhóm có " + voteCount + " cuộc bỏ phiếu. Không thể xóa nhóm có vote.");
+        if (dependencies.votes() > 0) {
+            errors.add("Nhóm có " + dependencies.votes() + " cuộc bỏ phiếu. Không thể xóa nhóm có vote.");
         }
-
-        long fundCount = commonFundRepository.findByGroupId(id).size();
-        if (fundCount > 0) {
-            errors.add("Nhóm có " + fundCount + " quỹ chung. Vui lòng xóa quỹ trước.");
+        if (dependencies.funds() > 0) {
+            errors.add("Nhóm có " + dependencies.funds() + " quỹ chung. Vui lòng xóa quỹ trước.");
         }
 
         if (!errors.isEmpty()) {
@@ -258,23 +237,24 @@ public class GroupService {
 
         // Xóa ownershipShares (cascade delete tự động xóa)
         // Xóa group
-        groupRepository.delete(group);
+        groupRepository.delete(groupRepository.getReferenceById(id));
+        groupAccessService.evictGroup(id);
     }
 
     @Transactional
     public void removeMember(Long groupId, Long userId) {
         // Validate group exists
-        groupRepository.findById(groupId)
-                .orElseThrow(() -> new IllegalArgumentException("Group không tồn tại"));
-        
+        if (!groupRepository.existsById(groupId)) {
+            throw new IllegalArgumentException("Group không tồn tại");
+        }
+
         OwnershipShare share = ownershipShareRepository.findByGroupIdAndUserId(groupId, userId)
                 .orElseThrow(() -> new IllegalArgumentException("User không ở trong nhóm này"));
 
         // Kiểm tra xem user có booking đang active không
         List<String> errors = new java.util.ArrayList<>();
         
-        long activeBookingCount = bookingRepository.findByUserIdAndStatus(userId, "CONFIRMED").size() +
-                                 bookingRepository.findByUserIdAndStatus(userId, "PENDING").size();
+        long activeBookingCount = bookingRepository.countActiveByUserInGroup(userId, groupId);
         if (activeBookingCount > 0) {
             errors.add("User có " + activeBookingCount + " booking đang active. Vui lòng hủy booking trước.");
         }
@@ -292,6 +272,12 @@ public class GroupService {
         }
 
         ownershipShareRepository.delete(share);
+        voteTallyService.evictGroup(groupId);
+        groupAccessService.evictGroup(groupId);
+        // Người tạo group vẫn được xem sự kiện dù không còn ownership share
+        if (!groupAccessService.isCreator(groupId, userId)) {
+            AfterCommit.run(() -> groupEventBroadcaster.disconnect(groupId, userId));
+        }
     }
 
     @Transactional(readOnly = true)
@@ -0,0 +1,32 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.model.OwnershipShare;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Chia theo tỉ lệ sở hữu; tỉ lệ được quy ra phần triệu để tính bằng số nguyên
+@Component
+public class OwnershipSplitStrategy implements SplitStrategy {
+    private static final long PERCENTAGE_SCALE = 1_000_000L;
+
+    @Override
+    public String method() {
+        return "BY_OWNERSHIP";
+    }
+
+    @Override
+    public long[] split(long totalMinor, SplitContext context) {
+        List<OwnershipShare> members = context.members();
+        double totalPercentage = members.stream().mapToDouble(OwnershipShare::getPercentage).sum();
+        if (Math.abs(totalPercentage - 1.0) > 0.01) {
+            throw new IllegalArgumentException("Tổng tỉ lệ sở hữu phải bằng 1.0, hiện tại: " + totalPercentage);
+        }
+
+        long[] weights = new long[members.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = Math.round(members.get(i).getPercentage() * PERCENTAGE_SCALE);
+        }
+        return SplitEngine.allocate(totalMinor, weights);
+    }
+}
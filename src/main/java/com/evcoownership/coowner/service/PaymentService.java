@@ -1,11 +1,13 @@
 package com.evcoownership.coowner.service;
 
+import com.evcoownership.coowner.dto.GroupEvent;
 import com.evcoownership.coowner.model.ExpenseShare;
 import com.evcoownership.coowner.model.Payment;
 import com.evcoownership.coowner.model.User;
 import com.evcoownership.coowner.repository.ExpenseShareRepository;
 import com.evcoownership.coowner.repository.PaymentRepository;
 import com.evcoownership.coowner.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,13 +21,16 @@ public class PaymentService {
     private final PaymentRepository paymentRepository;
     private final ExpenseShareRepository expenseShareRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public PaymentService(PaymentRepository paymentRepository,
                          ExpenseShareRepository expenseShareRepository,
-                         UserRepository userRepository) {
+                         UserRepository userRepository,
+                         ApplicationEventPublisher eventPublisher) {
         this.paymentRepository = paymentRepository;
         this.expenseShareRepository = expenseShareRepository;
         this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -67,6 +72,8 @@ public class PaymentService {
         }
 
         expenseShareRepository.save(expenseShare);
+        eventPublisher.publishEvent(GroupEvent.of(GroupEvent.PAYMENT_PROCESSED,
+                expenseShare.getExpense().getGroup().getId(), savedPayment.getId()));
 
         return savedPayment;
     }
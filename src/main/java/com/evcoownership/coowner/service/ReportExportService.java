@@ -0,0 +1,332 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.dto.FinancialExportExpenseRow;
+import com.evcoownership.coowner.dto.FinancialExportShareRow;
+import com.evcoownership.coowner.repository.ExpenseRepository;
+import com.evcoownership.coowner.repository.ExpenseShareRepository;
+import com.evcoownership.coowner.repository.GroupRepository;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Export chi tiết tài chính (mỗi dòng một expense share, kèm tổng payment) ra CSV hoặc XLSX.
+ * Dữ liệu đọc theo chunk (keyset theo expense id) và ghi thẳng ra output stream,
+ * nên bộ nhớ chỉ phụ thuộc kích thước chunk chứ không phụ thuộc số dòng export.
+ */
+@Service
+public class ReportExportService {
+    // Giới hạn số dòng của một sheet Excel (tính cả dòng tiêu đề)
+    private static final int XLSX_MAX_ROWS_PER_SHEET = 1_048_576;
+
+    private static final List<String> COLUMNS = List.of(
+            "groupId", "groupName", "expenseId", "date", "type", "description", "vehiclePlate", "createdBy",
+            "splitMethod", "expenseStatus", "expenseAmount", "shareId", "userId", "userEmail", "shareAmount",
+            "sharePaidAmount", "shareStatus", "completedPayments", "paymentCount");
+
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseShareRepository expenseShareRepository;
+    private final GroupRepository groupRepository;
+    private final GroupAccessService groupAccessService;
+    private final int chunkSize;
+    private final int xlsxWindowRows;
+    private final long maxRangeDays;
+
+    public ReportExportService(ExpenseRepository expenseRepository,
+                               ExpenseShareRepository expenseShareRepository,
+                               GroupRepository groupRepository,
+                               GroupAccessService groupAccessService,
+                               @Value("${reports.export.chunk-size:500}") int chunkSize,
+                               @Value("${reports.export.xlsx-window-rows:100}") int xlsxWindowRows,
+                               @Value("${reports.export.max-range-days:366}") long maxRangeDays) {
+        this.expenseRepository = expenseRepository;
+        this.expenseShareRepository = expenseShareRepository;
+        this.groupRepository = groupRepository;
+        this.groupAccessService = groupAccessService;
+        this.chunkSize = chunkSize;
+        this.xlsxWindowRows = xlsxWindowRows;
+        this.maxRangeDays = maxRangeDays;
+    }
+
+    // Kiểm tra tham số trước khi bắt đầu ghi response: sau khi đã stream thì không trả lỗi 400 được nữa
+    public List<Long> resolveGroupIds(List<Long> groupIds, LocalDate startDate, LocalDate endDate, String format,
+                                      boolean admin, Long userId) {
+        if (!"csv".equals(format) && !"xlsx".equals(format)) {
+            throw new IllegalArgumentException("Định dạng export phải là csv hoặc xlsx");
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("startDate phải trước hoặc bằng endDate");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) + 1 > maxRangeDays) {
+            throw new IllegalArgumentException("Khoảng thời gian export tối đa là " + maxRangeDays + " ngày");
+        }
+        if (groupIds == null || groupIds.isEmpty()) {
+            if (!admin) {
+                throw new IllegalArgumentException("Cần chọn ít nhất một group");
+            }
+            return groupRepository.findAllIds();
+        }
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(groupIds));
+        if (!admin) {
+            for (Long groupId : ids) {
+                groupAccessService.verifyMemberOrCreator(groupId, userId);
+            }
+        }
+        return ids;
+    }
+
+    public void export(List<Long> groupIds, LocalDate startDate, LocalDate endDate, String format,
+                       OutputStream out) throws IOException {
+        if ("xlsx".equals(format)) {
+            try (XlsxExportWriter writer = new XlsxExportWriter(out, xlsxWindowRows)) {
+                writeRows(groupIds, startDate, endDate, writer);
+                writer.finish();
+            }
+        } else {
+            try (CsvExportWriter writer = new CsvExportWriter(out)) {
+                writeRows(groupIds, startDate, endDate, writer);
+                writer.finish();
+            }
+        }
+    }
+
+    private void writeRows(List<Long> groupIds, LocalDate startDate, LocalDate endDate,
+                           ExportWriter writer) throws IOException {
+        writer.writeHeader();
+        for (Long groupId : groupIds) {
+            long afterId = 0L;
+            while (true) {
+                List<FinancialExportExpenseRow> expenses = expenseRepository.findExportRowsAfter(
+                        groupId, startDate, endDate, afterId, PageRequest.of(0, chunkSize));
+                if (expenses.isEmpty()) {
+                    break;
+                }
+                List<Long> expenseIds = new ArrayList<>(expenses.size());
+                for (FinancialExportExpenseRow expense : expenses) {
+                    expenseIds.add(expense.id());
+                }
+                // Share trả về theo thứ tự (expenseId, shareId) nên ghép với danh sách expense bằng một lượt duyệt
+                List<FinancialExportShareRow> shares = expenseShareRepository.findExportRowsByExpenseIds(expenseIds);
+                int next = 0;
+                for (FinancialExportExpenseRow expense : expenses) {
+                    boolean hasShare = false;
+                    while (next < shares.size() && shares.get(next).expenseId().equals(expense.id())) {
+                        writer.writeRow(expense, shares.get(next++));
+                        hasShare = true;
+                    }
+                    if (!hasShare) {
+                        writer.writeRow(expense, null);
+                    }
+                }
+                afterId = expenses.get(expenses.size() - 1).id();
+            }
+        }
+    }
+
+    private static List<Object> values(FinancialExportExpenseRow expense, FinancialExportShareRow share) {
+        List<Object> values = new ArrayList<>(COLUMNS.size());
+        values.add(expense.groupId());
+        values.add(expense.groupName());
+        values.add(expense.id());
+        values.add(expense.date());
+        values.add(expense.type());
+        values.add(expense.description());
+        values.add(expense.vehiclePlate());
+        values.add(expense.createdByEmail());
+        values.add(expense.splitMethod());
+        values.add(expense.status());
+        values.add(expense.amount());
+        values.add(share != null ? share.shareId() : null);
+        values.add(share != null ? share.userId() : null);
+        values.add(share != null ? share.userEmail() : null);
+        values.add(share != null ? share.amount() : null);
+        values.add(share != null ? share.paidAmount() : null);
+        values.add(share != null ? share.status() : null);
+        values.add(share != null ? orZero(share.completedPayments()) : null);
+        values.add(share != null ? share.paymentCount() : null);
+        return values;
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    // Chống formula injection trong CSV: chuỗi do người dùng nhập bắt đầu bằng = + - @ tab hoặc CR sẽ bị Excel
+    // coi là công thức khi mở file, nên thêm dấu ' phía trước để ô luôn là text
+    static String neutralizeFormula(String value) {
+        return looksLikeFormula(value) ? "'" + value : value;
+    }
+
+    static boolean looksLikeFormula(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        char first = value.charAt(0);
+        return first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+    }
+
+    private interface ExportWriter extends AutoCloseable {
+        void writeHeader() throws IOException;
+
+        void writeRow(FinancialExportExpenseRow expense, FinancialExportShareRow share) throws IOException;
+
+        // Gọi khi đã ghi xong mọi dòng; export lỗi giữa chừng thì chỉ close() được gọi
+        void finish() throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private static final class CsvExportWriter implements ExportWriter {
+        private final Writer writer;
+
+        CsvExportWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            // BOM để Excel nhận đúng UTF-8 (tên tiếng Việt)
+            writer.write('\uFEFF');
+        }
+
+        @Override
+        public void writeHeader() throws IOException {
+            writeLine(new ArrayList<>(COLUMNS));
+        }
+
+        @Override
+        public void writeRow(FinancialExportExpenseRow expense, FinancialExportShareRow share) throws IOException {
+            writeLine(values(expense, share));
+        }
+
+        private void writeLine(List<Object> values) throws IOException {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = values.get(i);
+                if (value instanceof String text) {
+                    writer.write(escape(neutralizeFormula(text)));
+                } else if (value != null) {
+                    writer.write(escape(value instanceof BigDecimal d ? d.toPlainString() : value.toString()));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() {
+            // Không đóng output stream của response; export lỗi thì bỏ phần còn trong buffer
+        }
+    }
+
+    /**
+     * SXSSF chỉ giữ {@code windowRows} dòng gần nhất trong bộ nhớ, các dòng cũ được ghi ra file tạm (nén).
+     * Sheet đầy thì sang sheet mới.
+     */
+    private static final class XlsxExportWriter implements ExportWriter {
+        private final OutputStream out;
+        private final SXSSFWorkbook workbook;
+        private final CellStyle dateStyle;
+        private final CellStyle amountStyle;
+        private final CellStyle textStyle;
+        private Sheet sheet;
+        private int rowIndex;
+
+        XlsxExportWriter(OutputStream out, int windowRows) {
+            this.out = out;
+            this.workbook = new SXSSFWorkbook(windowRows);
+            workbook.setCompressTempFiles(true);
+            this.dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+            this.amountStyle = workbook.createCellStyle();
+            amountStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("#,##0.00"));
+            // Ô chuỗi trong XLSX không bao giờ là công thức; quote prefix chỉ để Excel không hiểu lại
+            // thành công thức khi người dùng sửa ô, giá trị giữ nguyên không thêm dấu '
+            this.textStyle = workbook.createCellStyle();
+            textStyle.setQuotePrefixed(true);
+        }
+
+        @Override
+        public void writeHeader() {
+            sheet = workbook.createSheet("expenses-" + (workbook.getNumberOfSheets() + 1));
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < COLUMNS.size(); i++) {
+                header.createCell(i).setCellValue(COLUMNS.get(i));
+            }
+            rowIndex = 1;
+        }
+
+        @Override
+        public void writeRow(FinancialExportExpenseRow expense, FinancialExportShareRow share) {
+            if (rowIndex >= XLSX_MAX_ROWS_PER_SHEET) {
+                writeHeader();
+            }
+            Row row = sheet.createRow(rowIndex++);
+            List<Object> values = values(expense, share);
+            for (int i = 0; i < values.size(); i++) {
+                Object value = values.get(i);
+                if (value == null) {
+                    continue;
+                }
+                Cell cell = row.createCell(i);
+                if (value instanceof BigDecimal amount) {
+                    cell.setCellValue(amount.doubleValue());
+                    cell.setCellStyle(amountStyle);
+                } else if (value instanceof Long number) {
+                    cell.setCellValue(number.doubleValue());
+                } else if (value instanceof LocalDate date) {
+                    cell.setCellValue(date);
+                    cell.setCellStyle(dateStyle);
+                } else {
+                    String text = value.toString();
+                    cell.setCellValue(text);
+                    if (looksLikeFormula(text)) {
+                        cell.setCellStyle(textStyle);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            workbook.write(out);
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Không ghi workbook ở đây: export lỗi thì exception làm hỏng response thay vì trả về file thiếu dòng.
+            // Xóa các file tạm của SXSSF
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+}
@@ -1,98 +1,105 @@
 package com.evcoownership.coowner.service;
 
-import com.evcoownership.coowner.model.*;
+import com.evcoownership.coowner.dto.ExpenseShareTotalsRow;
+import com.evcoownership.coowner.dto.ExpenseTotalsRow;
+import com.evcoownership.coowner.dto.GroupSummaryRow;
+import com.evcoownership.coowner.dto.MemberOwnershipRow;
+import com.evcoownership.coowner.dto.UserUsageTotals;
 import com.evcoownership.coowner.repository.*;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
 public class ReportService {
     private final ExpenseRepository expenseRepository;
     private final ExpenseShareRepository expenseShareRepository;
-    private final UsageHistoryRepository usageHistoryRepository;
+    private final UsageDailyRollupRepository usageDailyRollupRepository;
     private final OwnershipShareRepository ownershipShareRepository;
     private final GroupRepository groupRepository;
+    private final GroupAccessService groupAccessService;
+    private final int usageWindowDays;
 
     public ReportService(ExpenseRepository expenseRepository,
                         ExpenseShareRepository expenseShareRepository,
-                        UsageHistoryRepository usageHistoryRepository,
+                        UsageDailyRollupRepository usageDailyRollupRepository,
                         OwnershipShareRepository ownershipShareRepository,
-                        GroupRepository groupRepository) {
+                        GroupRepository groupRepository,
+                        GroupAccessService groupAccessService,
+                        @Value("${reports.usage-window-days:30}") int usageWindowDays) {
         this.expenseRepository = expenseRepository;
         this.expenseShareRepository = expenseShareRepository;
-        this.usageHistoryRepository = usageHistoryRepository;
+        this.usageDailyRollupRepository = usageDailyRollupRepository;
         this.ownershipShareRepository = ownershipShareRepository;
         this.groupRepository = groupRepository;
+        this.groupAccessService = groupAccessService;
+        this.usageWindowDays = usageWindowDays;
     }
 
     public void verifyUserCanAccessGroupReport(Long groupId, Long userId) {
-        // Check if user is member of the group (has ownership share) or is creator
-        Group group = groupRepository.findById(groupId)
-                .orElseThrow(() -> new IllegalArgumentException("Group không tồn tại"));
-        
-        // Check if user is admin - admin can access all groups
-        // We need to get user from UserRepository to check roles
-        // For now, we'll check membership first, then check if user is creator
-        boolean isMember = ownershipShareRepository.existsByGroupIdAndUserId(groupId, userId);
-        boolean isCreator = group.getCreatedBy() != null && group.getCreatedBy().getId().equals(userId);
-        
-        if (!isMember && !isCreator) {
-            throw new IllegalArgumentException("Bạn không phải là member của nhóm này");
-        }
+        // Member (có ownership share) hoặc người tạo group; admin đã được bỏ qua ở controller
+        groupAccessService.verifyMemberOrCreator(groupId, userId);
     }
 
+    // Hai query cố định: tóm tắt group và một GROUP BY (type, status) trên expenses;
+    // chi phí theo số nhóm kết quả, không theo số chi phí
     public Map<String, Object> getGroupFinancialReport(Long groupId, LocalDate startDate, LocalDate endDate) {
-        Group group = groupRepository.findById(groupId)
+        GroupSummaryRow group = groupRepository.findSummaryById(groupId)
                 .orElseThrow(() -> new IllegalArgumentException("Group không tồn tại"));
 
-        List<Expense> expenses = expenseRepository.findByGroupIdAndDateBetween(groupId, startDate, endDate);
-        BigDecimal totalExpenses = expenses.stream()
-                .map(Expense::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        Map<String, BigDecimal> expensesByType = expenses.stream()
-                .collect(Collectors.groupingBy(
-                    Expense::getType,
-                    Collectors.reducing(BigDecimal.ZERO, Expense::getAmount, BigDecimal::add)
-                ));
+        BigDecimal totalExpenses = BigDecimal.ZERO;
+        Map<String, BigDecimal> expensesByType = new HashMap<>();
+        long expenseCount = 0;
+        long paidExpenses = 0;
+        long pendingExpenses = 0;
+        for (ExpenseTotalsRow row : expenseRepository.sumByTypeAndStatus(groupId, startDate, endDate)) {
+            BigDecimal amount = orZero(row.amount());
+            totalExpenses = totalExpenses.add(amount);
+            expensesByType.merge(row.type(), amount, BigDecimal::add);
+            expenseCount += row.count();
+            if ("PAID".equals(row.status())) {
+                paidExpenses += row.count();
+            } else if ("PENDING".equals(row.status())) {
+                pendingExpenses += row.count();
+            }
+        }
 
         Map<String, Object> report = new HashMap<>();
         report.put("groupId", groupId);
-        report.put("groupName", group.getName());
+        report.put("groupName", group.name());
         report.put("startDate", startDate);
         report.put("endDate", endDate);
         report.put("totalExpenses", totalExpenses);
         report.put("expensesByType", expensesByType);
-        report.put("expenseCount", expenses.size());
-        report.put("paidExpenses", expenses.stream().filter(e -> "PAID".equals(e.getStatus())).count());
-        report.put("pendingExpenses", expenses.stream().filter(e -> "PENDING".equals(e.getStatus())).count());
+        report.put("expenseCount", expenseCount);
+        report.put("paidExpenses", paidExpenses);
+        report.put("pendingExpenses", pendingExpenses);
 
         return report;
     }
 
+    // Lọc theo ngày và tổng hợp theo status ngay trong DB thay vì load mọi share của user
     public Map<String, Object> getUserExpenseReport(Long userId, LocalDate startDate, LocalDate endDate) {
-        List<ExpenseShare> shares = expenseShareRepository.findByUserId(userId)
-                .stream()
-                .filter(share -> {
-                    LocalDate expenseDate = share.getExpense().getDate();
-                    return !expenseDate.isBefore(startDate) && !expenseDate.isAfter(endDate);
-                })
-                .toList();
-
-        BigDecimal totalOwed = shares.stream()
-                .map(ExpenseShare::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalPaid = shares.stream()
-                .map(share -> share.getPaidAmount() != null ? share.getPaidAmount() : BigDecimal.ZERO)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalOwed = BigDecimal.ZERO;
+        BigDecimal totalPaid = BigDecimal.ZERO;
+        long shareCount = 0;
+        long paidCount = 0;
+        long pendingCount = 0;
+        for (ExpenseShareTotalsRow row : expenseShareRepository.sumByStatusForUser(userId, startDate, endDate)) {
+            totalOwed = totalOwed.add(orZero(row.amount()));
+            totalPaid = totalPaid.add(orZero(row.paidAmount()));
+            shareCount += row.count();
+            if ("PAID".equals(row.status())) {
+                paidCount += row.count();
+            } else if ("PENDING".equals(row.status())) {
+                pendingCount += row.count();
+            }
+        }
 
         Map<String, Object> report = new HashMap<>();
         report.put("userId", userId);
@@ -101,57 +108,43 @@ public class ReportService {
         report.put("totalOwed", totalOwed);
         report.put("totalPaid", totalPaid);
         report.put("totalPending", totalOwed.subtract(totalPaid));
-        report.put("expenseShareCount", shares.size());
-        report.put("paidCount", shares.stream().filter(s -> "PAID".equals(s.getStatus())).count());
-        report.put("pendingCount", shares.stream().filter(s -> "PENDING".equals(s.getStatus())).count());
+        report.put("expenseShareCount", shareCount);
+        report.put("paidCount", paidCount);
+        report.put("pendingCount", pendingCount);
 
         return report;
     }
 
-    public Map<String, Object> compareUsageVsOwnership(Long groupId) {
-        Group group = groupRepository.findById(groupId)
+    public Map<String, Object> compareUsageVsOwnership(Long groupId, Integer windowDays) {
+        GroupSummaryRow group = groupRepository.findSummaryById(groupId)
                 .orElseThrow(() -> new IllegalArgumentException("Group không tồn tại"));
 
-        List<OwnershipShare> ownershipShares = ownershipShareRepository.findByGroupId(groupId);
+        // Projection (userId, tên, tỉ lệ): không load OwnershipShare/User cùng roles của từng member
+        List<MemberOwnershipRow> ownershipShares = ownershipShareRepository.findOwnershipRowsByGroupId(groupId);
+
+        int days = windowDays != null ? windowDays : usageWindowDays;
+        if (days <= 0) {
+            throw new IllegalArgumentException("Số ngày phải lớn hơn 0");
+        }
+        LocalDate end = LocalDate.now();
+        LocalDate start = end.minusDays(days - 1L);
+
+        // Đọc từ rollup theo ngày: một query tổng hợp cho cả group, chi phí theo số ngày chứ không theo số chuyến
+        Map<Long, Long> usageMinutesByUser = new HashMap<>();
+        long allGroupUsageMinutes = 0;
+        for (UserUsageTotals totals : usageDailyRollupRepository.sumUsageByGroupMembers(groupId, start, end)) {
+            long minutes = totals.usageMinutes() != null ? totals.usageMinutes() : 0L;
+            usageMinutesByUser.put(totals.userId(), minutes);
+            allGroupUsageMinutes += minutes;
+        }
 
         Map<String, Object> comparison = new HashMap<>();
         List<Map<String, Object>> userComparisons = new java.util.ArrayList<>();
 
-        for (OwnershipShare share : ownershipShares) {
-            Long userId = share.getUser().getId();
-            double ownershipPercentage = share.getPercentage();
-
-            // Tính usage percentage trong 30 ngày
-            LocalDateTime oneMonthAgo = LocalDateTime.now().minusMonths(1);
-            
-            // Tính usage của user này
-            List<UsageHistory> userUsages = usageHistoryRepository
-                    .findByUserIdAndStartTimeBetween(userId, oneMonthAgo, LocalDateTime.now());
-
-            long userUsageMinutes = userUsages.stream()
-                    .mapToLong(u -> {
-                        if (u.getStartTime() != null && u.getEndTime() != null) {
-                            return java.time.Duration.between(u.getStartTime(), u.getEndTime()).toMinutes();
-                        }
-                        return 0;
-                    })
-                    .sum();
-
-            // Tính tổng usage của tất cả users trong group
-            long allGroupUsageMinutes = 0;
-            for (OwnershipShare os : ownershipShares) {
-                List<UsageHistory> usages = usageHistoryRepository
-                        .findByUserIdAndStartTimeBetween(os.getUser().getId(), oneMonthAgo, LocalDateTime.now());
-                long minutes = usages.stream()
-                        .mapToLong(u -> {
-                            if (u.getStartTime() != null && u.getEndTime() != null) {
-                                return java.time.Duration.between(u.getStartTime(), u.getEndTime()).toMinutes();
-                            }
-                            return 0;
-                        })
-                        .sum();
-                allGroupUsageMinutes += minutes;
-            }
+        for (MemberOwnershipRow share : ownershipShares) {
+            Long userId = share.userId();
+            double ownershipPercentage = share.percentage();
+            long userUsageMinutes = usageMinutesByUser.getOrDefault(userId, 0L);
 
             double usagePercentage = allGroupUsageMinutes > 0 
                 ? (double) userUsageMinutes / allGroupUsageMinutes 
@@ -159,7 +152,7 @@ public class ReportService {
 
             Map<String, Object> userComp = new HashMap<>();
             userComp.put("userId", userId);
-            userComp.put("userName", share.getUser().getFullName());
+            userComp.put("userName", share.fullName());
             userComp.put("ownershipPercentage", ownershipPercentage * 100);
             userComp.put("usagePercentage", usagePercentage * 100);
             userComp.put("difference", (ownershipPercentage * 100) - (usagePercentage * 100));
@@ -169,10 +162,14 @@ public class ReportService {
         }
 
         comparison.put("groupId", groupId);
-        comparison.put("groupName", group.getName());
+        comparison.put("groupName", group.name());
+        comparison.put("windowDays", days);
         comparison.put("userComparisons", userComparisons);
 
         return comparison;
     }
-}
 
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,25 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.model.OwnershipShare;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+final class SplitAllocations {
+
+    private SplitAllocations() {
+    }
+
+    // allocations chỉ được chứa userId là member của group
+    static void requireMembers(Map<Long, BigDecimal> allocations, List<OwnershipShare> members) {
+        Set<Long> memberIds = members.stream().map(s -> s.getUser().getId()).collect(Collectors.toSet());
+        for (Long userId : allocations.keySet()) {
+            if (!memberIds.contains(userId)) {
+                throw new IllegalArgumentException("User " + userId + " không thuộc group");
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.model.Expense;
+import com.evcoownership.coowner.model.OwnershipShare;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dữ liệu đầu vào khi chia một expense.
+ * allocations chỉ dùng cho CUSTOM_WEIGHTS (trọng số theo userId) và FIXED_AMOUNTS (số tiền theo userId).
+ */
+public record SplitContext(Expense expense, List<OwnershipShare> members, Map<Long, BigDecimal> allocations) {
+}
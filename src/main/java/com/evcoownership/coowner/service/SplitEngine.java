@@ -0,0 +1,140 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.model.Expense;
+import com.evcoownership.coowner.model.ExpenseShare;
+import com.evcoownership.coowner.model.OwnershipShare;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Điểm chia chi phí duy nhất cho mọi split method. Tính bằng long theo xu và phân phối phần dư chính xác,
+ * nên tổng các ExpenseShare luôn bằng Expense.amount.
+ */
+@Component
+public class SplitEngine {
+    private final Map<String, SplitStrategy> strategies = new HashMap<>();
+
+    public SplitEngine(List<SplitStrategy> strategies) {
+        for (SplitStrategy strategy : strategies) {
+            if (this.strategies.put(strategy.method(), strategy) != null) {
+                throw new IllegalStateException("Trùng split method: " + strategy.method());
+            }
+        }
+    }
+
+    public boolean supports(String splitMethod) {
+        return splitMethod != null && strategies.containsKey(splitMethod);
+    }
+
+    // Tạo các ExpenseShare (chưa lưu) cho expense
+    public List<ExpenseShare> buildShares(Expense expense, List<OwnershipShare> members,
+                                          Map<Long, BigDecimal> allocations) {
+        SplitStrategy strategy = strategies.get(expense.getSplitMethod());
+        if (strategy == null) {
+            throw new IllegalArgumentException("Split method không hợp lệ: " + expense.getSplitMethod());
+        }
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("Group không có thành viên");
+        }
+
+        long totalMinor = toMinor(expense.getAmount());
+        long[] amounts = strategy.split(totalMinor, new SplitContext(expense, members, allocations));
+
+        long sum = 0;
+        for (long amount : amounts) {
+            sum += amount;
+        }
+        if (amounts.length != members.size() || sum != totalMinor) {
+            throw new IllegalStateException("Split " + strategy.method() + " không khớp tổng chi phí");
+        }
+
+        List<ExpenseShare> shares = new ArrayList<>(members.size());
+        for (int i = 0; i < members.size(); i++) {
+            ExpenseShare share = new ExpenseShare();
+            share.setExpense(expense);
+            share.setUser(members.get(i).getUser());
+            share.setAmount(fromMinor(amounts[i]));
+            share.setStatus("PENDING");
+            share.setPaidAmount(BigDecimal.ZERO);
+            shares.add(share);
+        }
+        return shares;
+    }
+
+    /**
+     * Chia total theo trọng số bằng phương pháp phần dư lớn nhất: mỗi phần lấy phần nguyên của
+     * total * w / W, số đơn vị còn lại (luôn nhỏ hơn số phần) cấp cho các phần có phần dư lớn nhất,
+     * bằng nhau thì ưu tiên phần đứng trước. Không tạo object nào trừ hai mảng kết quả.
+     */
+    public static long[] allocate(long total, long[] weights) {
+        long totalWeight = 0;
+        for (long weight : weights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("Trọng số không được âm");
+            }
+            totalWeight = Math.addExact(totalWeight, weight);
+        }
+        if (totalWeight == 0) {
+            throw new IllegalArgumentException("Tổng trọng số phải lớn hơn 0");
+        }
+
+        long[] result = new long[weights.length];
+        long[] remainders = new long[weights.length];
+        long allocated = 0;
+        for (int i = 0; i < weights.length; i++) {
+            long product;
+            try {
+                product = Math.multiplyExact(total, weights[i]);
+            } catch (ArithmeticException overflow) {
+                // Hiếm gặp (số tiền và trọng số đều rất lớn): tính chính xác bằng BigInteger
+                BigInteger[] qr = BigInteger.valueOf(total).multiply(BigInteger.valueOf(weights[i]))
+                        .divideAndRemainder(BigInteger.valueOf(totalWeight));
+                result[i] = qr[0].longValueExact();
+                remainders[i] = qr[1].longValueExact();
+                allocated += result[i];
+                continue;
+            }
+            result[i] = product / totalWeight;
+            remainders[i] = product % totalWeight;
+            allocated += result[i];
+        }
+
+        long leftover = total - allocated;
+        for (long k = 0; k < leftover; k++) {
+            int best = 0;
+            for (int i = 1; i < remainders.length; i++) {
+                if (remainders[i] > remainders[best]) {
+                    best = i;
+                }
+            }
+            result[best]++;
+            remainders[best] = -1;
+        }
+        return result;
+    }
+
+    public static long[] equalWeights(int count) {
+        long[] weights = new long[count];
+        Arrays.fill(weights, 1L);
+        return weights;
+    }
+
+    static long toMinor(BigDecimal amount) {
+        try {
+            return amount.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Số tiền chỉ được có tối đa 2 chữ số thập phân: " + amount);
+        }
+    }
+
+    static BigDecimal fromMinor(long minor) {
+        return BigDecimal.valueOf(minor, 2);
+    }
+}
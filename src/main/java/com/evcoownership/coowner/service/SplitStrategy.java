@@ -0,0 +1,14 @@
+package com.evcoownership.coowner.service;
+
+/**
+ * Một cách chia chi phí cho các thành viên. Mỗi strategy là một bean, SplitEngine chọn theo {@link #method()}.
+ * Số tiền tính bằng đơn vị nhỏ nhất (xu, long) để không có sai số làm tròn.
+ */
+public interface SplitStrategy {
+
+    // Giá trị Expense.splitMethod mà strategy xử lý
+    String method();
+
+    // Số xu của từng member, cùng thứ tự với context.members(); tổng phải đúng bằng totalMinor
+    long[] split(long totalMinor, SplitContext context);
+}
@@ -6,6 +6,7 @@ import com.evcoownership.coowner.model.User;
 import com.evcoownership.coowner.repository.BookingRepository;
 import com.evcoownership.coowner.repository.UsageHistoryRepository;
 import com.evcoownership.coowner.repository.UserRepository;
+import com.evcoownership.coowner.repository.VehicleRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,13 +19,19 @@ public class UsageHistoryService {
     private final UsageHistoryRepository usageHistoryRepository;
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
+    private final VehicleRepository vehicleRepository;
+    private final UsageRollupService usageRollupService;
 
     public UsageHistoryService(UsageHistoryRepository usageHistoryRepository,
                               BookingRepository bookingRepository,
-                              UserRepository userRepository) {
+                              UserRepository userRepository,
+                              VehicleRepository vehicleRepository,
+                              UsageRollupService usageRollupService) {
         this.usageHistoryRepository = usageHistoryRepository;
         this.bookingRepository = bookingRepository;
         this.userRepository = userRepository;
+        this.vehicleRepository = vehicleRepository;
+        this.usageRollupService = usageRollupService;
     }
 
     @Transactional
@@ -55,7 +62,12 @@ public class UsageHistoryService {
 
     @Transactional
     public UsageHistory checkOut(Long usageHistoryId, Long staffUserId, Integer odometer, String notes) {
-        UsageHistory history = usageHistoryRepository.findById(usageHistoryId)
+        Long vehicleId = usageHistoryRepository.findVehicleIdById(usageHistoryId)
+                .orElseThrow(() -> new IllegalArgumentException("Usage history không tồn tại"));
+        // Khóa xe trước (cùng thứ tự với rebuild rollup) rồi khóa dòng history: check-out trùng phải chờ
+        // và thấy checkedOutAt đã có, rebuild của xe không chạy xen giữa lúc cộng chuyến vào rollup
+        vehicleRepository.findByIdForUpdate(vehicleId);
+        UsageHistory history = usageHistoryRepository.findByIdForUpdate(usageHistoryId)
                 .orElseThrow(() -> new IllegalArgumentException("Usage history không tồn tại"));
 
         if (history.getCheckedOutAt() != null) {
@@ -74,7 +86,10 @@ public class UsageHistoryService {
         history.setCheckedOutAt(LocalDateTime.now());
         history.setCheckOutQrCode(UUID.randomUUID().toString());
 
-        return usageHistoryRepository.save(history);
+        UsageHistory saved = usageHistoryRepository.save(history);
+        // Cộng dồn vào rollup trong cùng transaction để báo cáo không lệch với lịch sử
+        usageRollupService.recordTrip(saved);
+        return saved;
     }
 
     public List<UsageHistory> getUserHistory(Long userId) {
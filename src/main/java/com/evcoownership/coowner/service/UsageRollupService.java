@@ -0,0 +1,137 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.dto.UsageTripRow;
+import com.evcoownership.coowner.model.UsageHistory;
+import com.evcoownership.coowner.repository.UsageDailyRollupRepository;
+import com.evcoownership.coowner.repository.UsageHistoryRepository;
+import com.evcoownership.coowner.repository.VehicleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Duy trì bảng usage_daily_rollups: mỗi lần check-out cộng dồn vào dòng (user, xe, ngày),
+ * báo cáo đọc từ rollup nên chi phí tỉ lệ với số ngày thay vì số chuyến.
+ */
+@Service
+public class UsageRollupService {
+    private static final Logger log = LoggerFactory.getLogger(UsageRollupService.class);
+
+    private final UsageDailyRollupRepository usageDailyRollupRepository;
+    private final UsageHistoryRepository usageHistoryRepository;
+    private final VehicleRepository vehicleRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int rebuildChunkSize;
+
+    public UsageRollupService(UsageDailyRollupRepository usageDailyRollupRepository,
+                              UsageHistoryRepository usageHistoryRepository,
+                              VehicleRepository vehicleRepository,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${reports.rollup.rebuild-chunk-size:1000}") int rebuildChunkSize) {
+        this.usageDailyRollupRepository = usageDailyRollupRepository;
+        this.usageHistoryRepository = usageHistoryRepository;
+        this.vehicleRepository = vehicleRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.rebuildChunkSize = rebuildChunkSize;
+    }
+
+    // Gọi trong transaction check-out, khi đã giữ lock dòng vehicle; chỉ tính chuyến đã có distance và checkedOutAt
+    @Transactional
+    public void recordTrip(UsageHistory history) {
+        if (history.getCheckedOutAt() == null || history.getDistance() == null) {
+            return;
+        }
+        usageDailyRollupRepository.addUsage(history.getUser().getId(),
+                history.getVehicle().getId(),
+                history.getStartTime().toLocalDate(),
+                minutesOf(history.getStartTime(), history.getEndTime()),
+                history.getDistance(),
+                1);
+    }
+
+    /**
+     * Tính lại toàn bộ rollup từ usage_history, từng xe một trong transaction riêng:
+     * xóa rollup của xe rồi đọc lại chuyến của xe theo chunk (keyset theo id), gộp trong chunk trước khi ghi.
+     * Mỗi xe khóa dòng vehicle như check-out nên không có chuyến nào commit xen giữa lúc xóa và cộng lại
+     * (tránh đếm hai lần); lock chỉ giữ trên xe đang rebuild nên check-out của các xe khác không bị chặn;
+     * lỗi giữa chừng chỉ rollback xe đang làm, chạy lại rebuild là đủ.
+     */
+    public Map<String, Object> rebuild() {
+        Set<Long> vehicleIds = new TreeSet<>(usageHistoryRepository.findDistinctVehicleIds());
+        // Cả các xe chỉ còn rollup (chuyến đã bị xóa) để dọn
+        vehicleIds.addAll(usageDailyRollupRepository.findDistinctVehicleIds());
+
+        long trips = 0;
+        long upserts = 0;
+        for (Long vehicleId : vehicleIds) {
+            long[] counts = transactionTemplate.execute(status -> rebuildVehicle(vehicleId));
+            trips += counts[0];
+            upserts += counts[1];
+        }
+        log.info("Rebuilt usage rollups for {} vehicles from {} trips ({} upserts)", vehicleIds.size(), trips, upserts);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("vehicles", vehicleIds.size());
+        result.put("processedTrips", trips);
+        result.put("rollupRows", usageDailyRollupRepository.count());
+        return result;
+    }
+
+    // Trả về {số chuyến, số lần upsert}
+    private long[] rebuildVehicle(Long vehicleId) {
+        // Xe đã bị xóa (chỉ còn rollup) thì không có gì để khóa
+        vehicleRepository.findByIdForUpdate(vehicleId);
+        usageDailyRollupRepository.deleteByVehicleId(vehicleId);
+
+        long afterId = 0L;
+        long trips = 0;
+        long upserts = 0;
+        while (true) {
+            List<UsageTripRow> chunk = usageHistoryRepository.findCompletedTripsForVehicleAfter(
+                    vehicleId, afterId, PageRequest.of(0, rebuildChunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+
+            Map<RollupKey, long[]> totals = new HashMap<>();
+            for (UsageTripRow trip : chunk) {
+                RollupKey key = new RollupKey(trip.userId(), trip.vehicleId(), trip.startTime().toLocalDate());
+                long[] sums = totals.computeIfAbsent(key, k -> new long[3]);
+                sums[0] += minutesOf(trip.startTime(), trip.endTime());
+                sums[1] += trip.distance();
+                sums[2]++;
+            }
+            for (Map.Entry<RollupKey, long[]> e : totals.entrySet()) {
+                RollupKey key = e.getKey();
+                long[] sums = e.getValue();
+                usageDailyRollupRepository.addUsage(key.userId(), key.vehicleId(), key.usageDate(),
+                        sums[0], sums[1], (int) sums[2]);
+            }
+
+            trips += chunk.size();
+            upserts += totals.size();
+            afterId = chunk.get(chunk.size() - 1).id();
+        }
+        return new long[] {trips, upserts};
+    }
+
+    private static long minutesOf(LocalDateTime start, LocalDateTime end) {
+        return Math.max(0L, Duration.between(start, end).toMinutes());
+    }
+
+    private record RollupKey(Long userId, Long vehicleId, LocalDate usageDate) {
+    }
+}
@@ -0,0 +1,72 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.dto.UserUsageTotals;
+import com.evcoownership.coowner.model.Expense;
+import com.evcoownership.coowner.model.OwnershipShare;
+import com.evcoownership.coowner.repository.UsageDailyRollupRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chia chi phí BY_USAGE theo mức sử dụng (km hoặc thời gian) của từng member trong cửa sổ
+ * {@code [expense.date - windowDays + 1, expense.date]}.
+ * Chỉ một query tổng hợp trên usage rollup cho mỗi expense, không phụ thuộc số chuyến đi.
+ * Nếu không ai có dữ liệu sử dụng trong cửa sổ thì chia đều.
+ */
+@Component
+public class UsageSplitStrategy implements SplitStrategy {
+    private final UsageDailyRollupRepository usageDailyRollupRepository;
+    private final String basis;
+    private final int windowDays;
+
+    public UsageSplitStrategy(UsageDailyRollupRepository usageDailyRollupRepository,
+                              @Value("${expenses.usage-split.basis:DISTANCE}") String basis,
+                              @Value("${expenses.usage-split.window-days:30}") int windowDays) {
+        if (!"DISTANCE".equalsIgnoreCase(basis) && !"DURATION".equalsIgnoreCase(basis)) {
+            throw new IllegalStateException("expenses.usage-split.basis phải là DISTANCE hoặc DURATION: " + basis);
+        }
+        this.usageDailyRollupRepository = usageDailyRollupRepository;
+        this.basis = basis.toUpperCase();
+        this.windowDays = windowDays;
+    }
+
+    @Override
+    public String method() {
+        return "BY_USAGE";
+    }
+
+    @Override
+    public long[] split(long totalMinor, SplitContext context) {
+        Expense expense = context.expense();
+        List<OwnershipShare> members = context.members();
+        LocalDate to = expense.getDate();
+        LocalDate from = to.minusDays(windowDays - 1L);
+        Long vehicleId = expense.getVehicle() != null ? expense.getVehicle().getId() : null;
+
+        Map<Long, Long> usageByUser = new HashMap<>();
+        Long groupId = expense.getGroup().getId();
+        List<UserUsageTotals> usage = vehicleId != null
+                ? usageDailyRollupRepository.sumUsageForSplitByVehicle(groupId, vehicleId, from, to)
+                : usageDailyRollupRepository.sumUsageForSplitByGroupVehicles(groupId, from, to);
+        for (UserUsageTotals totals : usage) {
+            Long value = "DURATION".equals(basis) ? totals.usageMinutes() : totals.distanceKm();
+            usageByUser.put(totals.userId(), value != null ? value : 0L);
+        }
+
+        long[] weights = new long[members.size()];
+        long totalWeight = 0;
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = Math.max(0L, usageByUser.getOrDefault(members.get(i).getUser().getId(), 0L));
+            totalWeight += weights[i];
+        }
+        if (totalWeight == 0) {
+            weights = SplitEngine.equalWeights(members.size());
+        }
+        return SplitEngine.allocate(totalMinor, weights);
+    }
+}
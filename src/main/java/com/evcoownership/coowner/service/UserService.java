@@ -6,6 +6,8 @@ import com.evcoownership.coowner.model.Role;
 import com.evcoownership.coowner.model.User;
 import com.evcoownership.coowner.repository.RoleRepository;
 import com.evcoownership.coowner.repository.UserRepository;
+import com.evcoownership.coowner.security.PrincipalCache;
+import com.evcoownership.coowner.security.TokenRevocationService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -13,16 +15,25 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 @Service
 public class UserService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationService revocationService;
+    private final PrincipalCache principalCache;
 
-    public UserService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder,
+                       TokenRevocationService revocationService, PrincipalCache principalCache) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
+        this.revocationService = revocationService;
+        this.principalCache = principalCache;
     }
 
     @Transactional
@@ -33,7 +44,7 @@ public class UserService {
 
         User user = new User();
         user.setEmail(req.getEmail());
-        user.setFullName(req.getFullName());
+        user.setFullName(req.getUsername());
         user.setPassword(passwordEncoder.encode(req.getPassword()));
 
         Role role = roleRepository.findByName("CO_OWNER").orElseGet(() -> {
@@ -46,6 +57,34 @@ public class UserService {
         return toDto(userRepository.save(user));
     }
 
+    // Token đã phát hành mang claim roles cũ: đổi role thì thu hồi hết token của user và xóa principal
+    // đã cache, sau khi commit để request dùng token mới không đọc phải role cũ
+    @Transactional
+    public UserDto updateRoles(Long userId, Set<String> roleNames) {
+        if (roleNames == null || roleNames.isEmpty()) {
+            throw new IllegalArgumentException("Cần ít nhất một role");
+        }
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User không tồn tại"));
+        Set<Role> roles = new HashSet<>();
+        for (String name : roleNames) {
+            roles.add(roleRepository.findByName(name)
+                    .orElseThrow(() -> new IllegalArgumentException("Role không tồn tại: " + name)));
+        }
+
+        Set<String> current = user.getRoles().stream().map(Role::getName).collect(Collectors.toSet());
+        if (!current.equals(roleNames)) {
+            user.getRoles().clear();
+            user.getRoles().addAll(roles);
+            String email = user.getEmail();
+            AfterCommit.run(() -> {
+                revocationService.revokeAllForUser(email);
+                principalCache.invalidate(email);
+            });
+        }
+        return toDto(user);
+    }
+
     @Transactional(readOnly = true)
     public Page<UserDto> listUsers(Pageable pageable) {
         // Sử dụng findAllWithRoles() nếu cần, nhưng với pagination thì dùng EntityGraph
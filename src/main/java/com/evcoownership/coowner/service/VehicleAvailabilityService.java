@@ -0,0 +1,194 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.dto.BookingTimeSlot;
+import com.evcoownership.coowner.dto.TimeWindow;
+import com.evcoownership.coowner.dto.VehicleAvailability;
+import com.evcoownership.coowner.dto.VehicleGroupRef;
+import com.evcoownership.coowner.repository.BookingRepository;
+import com.evcoownership.coowner.repository.VehicleRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class VehicleAvailabilityService {
+    private final BookingRepository bookingRepository;
+    private final VehicleRepository vehicleRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final GroupAccessService groupAccessService;
+    private final Duration cacheTtl;
+    private final Duration maxRange;
+    private final int maxCacheEntries;
+
+    // Cache theo (xe, khoảng, thời lượng tối thiểu); entry hết hiệu lực khi version booking của xe thay đổi
+    private final Map<CacheKey, CacheEntry> cache = new ConcurrentHashMap<>();
+
+    public VehicleAvailabilityService(BookingRepository bookingRepository,
+                                      VehicleRepository vehicleRepository,
+                                      BookingIntervalIndex bookingIntervalIndex,
+                                      GroupAccessService groupAccessService,
+                                      @Value("${booking.availability.cache-ttl-seconds:60}") long cacheTtlSeconds,
+                                      @Value("${booking.availability.max-range-days:31}") long maxRangeDays,
+                                      @Value("${booking.availability.max-cache-entries:10000}") int maxCacheEntries) {
+        this.bookingRepository = bookingRepository;
+        this.vehicleRepository = vehicleRepository;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+        this.groupAccessService = groupAccessService;
+        this.cacheTtl = Duration.ofSeconds(cacheTtlSeconds);
+        this.maxRange = Duration.ofDays(maxRangeDays);
+        this.maxCacheEntries = maxCacheEntries;
+    }
+
+    // Chỉ member/người tạo của group sở hữu xe mới xem được lịch; id xe không tồn tại hoặc
+    // thuộc group khác bị từ chối thay vì trả về lịch trống
+    @Transactional(readOnly = true)
+    public List<Long> resolveVehicleIds(Long groupId, List<Long> vehicleIds, Long userId) {
+        if (vehicleIds == null || vehicleIds.isEmpty()) {
+            if (groupId == null) {
+                throw new IllegalArgumentException("Cần groupId hoặc vehicleIds hợp lệ");
+            }
+            groupAccessService.verifyMemberOrCreator(groupId, userId);
+            List<Long> groupVehicleIds = vehicleRepository.findIdsByGroupId(groupId);
+            if (groupVehicleIds.isEmpty()) {
+                throw new IllegalArgumentException("Nhóm chưa có xe nào");
+            }
+            return groupVehicleIds;
+        }
+
+        Set<Long> ids = new LinkedHashSet<>(vehicleIds);
+        Map<Long, Long> groupByVehicle = new HashMap<>();
+        for (VehicleGroupRef ref : vehicleRepository.findGroupRefsByIdIn(ids)) {
+            groupByVehicle.put(ref.vehicleId(), ref.groupId());
+        }
+        Set<Long> groupIds = new LinkedHashSet<>();
+        for (Long vehicleId : ids) {
+            if (!groupByVehicle.containsKey(vehicleId)) {
+                throw new IllegalArgumentException("Không tìm thấy xe: " + vehicleId);
+            }
+            Long vehicleGroupId = groupByVehicle.get(vehicleId);
+            if (vehicleGroupId == null || (groupId != null && !groupId.equals(vehicleGroupId))) {
+                throw new IllegalArgumentException("Xe " + vehicleId + " không thuộc nhóm được hỏi");
+            }
+            groupIds.add(vehicleGroupId);
+        }
+        for (Long vehicleGroupId : groupIds) {
+            groupAccessService.verifyMemberOrCreator(vehicleGroupId, userId);
+        }
+        return new ArrayList<>(ids);
+    }
+
+    // ETag thay đổi khi booking của một trong các xe thay đổi hoặc khi hết TTL
+    public String etag(List<Long> vehicleIds, LocalDateTime from, LocalDateTime to, Duration minDuration) {
+        StringBuilder sb = new StringBuilder();
+        for (Long vehicleId : vehicleIds) {
+            sb.append(vehicleId).append(':').append(bookingIntervalIndex.versionOf(vehicleId)).append(',');
+        }
+        sb.append(from).append('|').append(to).append('|').append(minDuration.toMinutes())
+          .append('|').append(System.currentTimeMillis() / Math.max(1, cacheTtl.toMillis()));
+        return "\"" + Integer.toHexString(sb.toString().hashCode()) + "\"";
+    }
+
+    @Transactional(readOnly = true)
+    public List<VehicleAvailability> findFreeWindows(List<Long> vehicleIds, LocalDateTime from, LocalDateTime to,
+                                                     Duration minDuration) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from phải trước to");
+        }
+        if (Duration.between(from, to).compareTo(maxRange) > 0) {
+            throw new IllegalArgumentException("Khoảng thời gian tối đa là " + maxRange.toDays() + " ngày");
+        }
+
+        long now = System.nanoTime();
+        Map<Long, VehicleAvailability> result = new HashMap<>();
+        Map<Long, Long> versions = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long vehicleId : vehicleIds) {
+            long version = bookingIntervalIndex.versionOf(vehicleId);
+            versions.put(vehicleId, version);
+            CacheEntry entry = cache.get(new CacheKey(vehicleId, from, to, minDuration));
+            if (entry != null && entry.version() == version && entry.expiresAtNanos() - now > 0) {
+                result.put(vehicleId, entry.availability());
+            } else {
+                misses.add(vehicleId);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            List<BookingTimeSlot> slots = bookingRepository.findActiveSlotsForVehiclesInRange(misses, from, to);
+            Map<Long, VehicleAvailability> computed = mergeFreeWindows(misses, slots, from, to, minDuration);
+            if (cache.size() > maxCacheEntries) {
+                cache.clear();
+            }
+            long expiresAt = now + cacheTtl.toNanos();
+            for (Map.Entry<Long, VehicleAvailability> e : computed.entrySet()) {
+                cache.put(new CacheKey(e.getKey(), from, to, minDuration),
+                          new CacheEntry(versions.get(e.getKey()), expiresAt, e.getValue()));
+                result.put(e.getKey(), e.getValue());
+            }
+        }
+
+        List<VehicleAvailability> ordered = new ArrayList<>(vehicleIds.size());
+        for (Long vehicleId : vehicleIds) {
+            ordered.add(result.get(vehicleId));
+        }
+        return ordered;
+    }
+
+    // Một lượt duy nhất qua các booking đã sắp theo (xe, start): khoảng trống là phần giữa
+    // con trỏ "đã bận tới" và start của booking kế tiếp
+    private static Map<Long, VehicleAvailability> mergeFreeWindows(List<Long> vehicleIds, List<BookingTimeSlot> slots,
+                                                                   LocalDateTime from, LocalDateTime to,
+                                                                   Duration minDuration) {
+        Map<Long, List<TimeWindow>> windows = new HashMap<>();
+        Map<Long, LocalDateTime> cursors = new HashMap<>();
+        for (Long vehicleId : vehicleIds) {
+            windows.put(vehicleId, new ArrayList<>());
+            cursors.put(vehicleId, from);
+        }
+
+        for (BookingTimeSlot slot : slots) {
+            Long vehicleId = slot.vehicleId();
+            LocalDateTime cursor = cursors.get(vehicleId);
+            if (slot.startTime().isAfter(cursor)) {
+                addWindow(windows.get(vehicleId), cursor, slot.startTime(), minDuration);
+            }
+            if (slot.endTime().isAfter(cursor)) {
+                cursors.put(vehicleId, slot.endTime());
+            }
+        }
+
+        Map<Long, VehicleAvailability> result = new HashMap<>();
+        for (Long vehicleId : vehicleIds) {
+            List<TimeWindow> vehicleWindows = windows.get(vehicleId);
+            LocalDateTime cursor = cursors.get(vehicleId);
+            if (cursor.isBefore(to)) {
+                addWindow(vehicleWindows, cursor, to, minDuration);
+            }
+            result.put(vehicleId, new VehicleAvailability(vehicleId, Collections.unmodifiableList(vehicleWindows)));
+        }
+        return result;
+    }
+
+    private static void addWindow(List<TimeWindow> windows, LocalDateTime start, LocalDateTime end, Duration minDuration) {
+        if (Duration.between(start, end).compareTo(minDuration) >= 0) {
+            windows.add(new TimeWindow(start, end));
+        }
+    }
+
+    private record CacheKey(Long vehicleId, LocalDateTime from, LocalDateTime to, Duration minDuration) {
+    }
+
+    private record CacheEntry(long version, long expiresAtNanos, VehicleAvailability availability) {
+    }
+}
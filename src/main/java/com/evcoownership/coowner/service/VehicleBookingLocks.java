@@ -0,0 +1,57 @@
+package com.evcoownership.coowner.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Lock phân dải (striped) theo vehicleId: các request đặt cùng một xe được xếp hàng,
+ * còn request cho các xe khác nhau (khác dải) vẫn chạy song song.
+ */
+@Component
+public class VehicleBookingLocks {
+
+    private final ReentrantLock[] stripes;
+    private final long timeoutMs;
+
+    public VehicleBookingLocks(@Value("${booking.lock.stripes:64}") int stripeCount,
+                               @Value("${booking.lock.timeout-ms:5000}") long timeoutMs) {
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.timeoutMs = timeoutMs;
+    }
+
+    public <T> T withVehicleLock(Long vehicleId, Supplier<T> action) {
+        Lock lock = stripeFor(vehicleId);
+        boolean acquired;
+        try {
+            acquired = lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalArgumentException("Yêu cầu đặt xe bị gián đoạn, vui lòng thử lại");
+        }
+        if (!acquired) {
+            throw new IllegalArgumentException("Xe đang được nhiều người đặt cùng lúc, vui lòng thử lại");
+        }
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Lock stripeFor(Long vehicleId) {
+        int h = vehicleId.hashCode() * 0x9E3779B9;
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+}
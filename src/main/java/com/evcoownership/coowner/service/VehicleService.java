@@ -1,6 +1,7 @@
 package com.evcoownership.coowner.service;
 
 import com.evcoownership.coowner.dto.CreateVehicleRequest;
+import com.evcoownership.coowner.model.EContract;
 import com.evcoownership.coowner.model.Group;
 import com.evcoownership.coowner.model.Vehicle;
 import com.evcoownership.coowner.repository.*;
@@ -15,15 +16,18 @@ public class VehicleService {
     private final GroupRepository groupRepository;
     private final BookingRepository bookingRepository;
     private final ExpenseRepository expenseRepository;
+    private final EContractRepository eContractRepository;
 
     public VehicleService(VehicleRepository vehicleRepository, 
                          GroupRepository groupRepository,
                          BookingRepository bookingRepository,
-                         ExpenseRepository expenseRepository) {
+                         ExpenseRepository expenseRepository,
+                         EContractRepository eContractRepository) {
         this.vehicleRepository = vehicleRepository;
         this.groupRepository = groupRepository;
         this.bookingRepository = bookingRepository;
         this.expenseRepository = expenseRepository;
+        this.eContractRepository = eContractRepository;
     }
 
     @Transactional
@@ -31,17 +35,20 @@ public class VehicleService {
         vehicleRepository.findByVin(req.getVin()).ifPresent(v -> { throw new IllegalArgumentException("VIN đã tồn tại"); });
         vehicleRepository.findByPlate(req.getPlate()).ifPresent(v -> { throw new IllegalArgumentException("Biển số đã tồn tại"); });
         Group g = groupRepository.findById(req.getGroupId()).orElseThrow(() -> new IllegalArgumentException("Group không tồn tại"));
+        // Xe gắn với group qua hợp đồng của group
+        EContract contract = eContractRepository.findByGroupId(g.getId()).stream().findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Group chưa có hợp đồng"));
         Vehicle v = new Vehicle();
         v.setVin(req.getVin());
         v.setPlate(req.getPlate());
         v.setModel(req.getModel());
-        v.setGroup(g);
+        v.setGroup(contract);
         return vehicleRepository.save(v);
     }
 
     @Transactional(readOnly = true)
     public List<Vehicle> listByGroup(Long groupId) {
-        return vehicleRepository.findByGroupId(groupId);
+        return vehicleRepository.findByGroup_Group_Id(groupId);
     }
 
     @Transactional(readOnly = true)
@@ -63,7 +70,7 @@ public class VehicleService {
         // Kiểm tra các entities liên quan
         List<String> errors = new java.util.ArrayList<>();
 
-        long bookingCount = bookingRepository.findByVehicleId(id).size();
+        long bookingCount = bookingRepository.findByVehicle_Id(id).size();
         if (bookingCount > 0) {
             errors.add("Xe có " + bookingCount + " booking. Vui lòng xóa booking trước.");
         }
@@ -0,0 +1,117 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.dto.VoteDeadlineRow;
+import com.evcoownership.coowner.repository.VoteRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tự đóng vote khi hết hạn. Hạn chót của các vote OPEN nằm trong một DelayQueue (load một lần khi khởi động,
+ * thêm khi tạo vote); một thread chờ đúng tới hạn kế tiếp thay vì quét bảng votes định kỳ.
+ * Khi đóng, status được chốt thành APPROVED/REJECTED theo votingMethod.
+ */
+@Component
+public class VoteDeadlineScheduler {
+    private static final Logger log = LoggerFactory.getLogger(VoteDeadlineScheduler.class);
+    // Chờ thêm một chút sau hạn để các lá phiếu đã qua kiểm tra hạn kịp commit
+    private static final Duration CLOSE_GRACE = Duration.ofSeconds(5);
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+
+    private final VoteRepository voteRepository;
+    private final VoteTallyService voteTallyService;
+    private final TransactionTemplate transactionTemplate;
+    private final DelayQueue<Deadline> queue = new DelayQueue<>();
+    private Thread worker;
+
+    public VoteDeadlineScheduler(VoteRepository voteRepository,
+                                 VoteTallyService voteTallyService,
+                                 TransactionTemplate transactionTemplate) {
+        this.voteRepository = voteRepository;
+        this.voteTallyService = voteTallyService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        List<VoteDeadlineRow> deadlines = voteRepository.findOpenDeadlines();
+        for (VoteDeadlineRow row : deadlines) {
+            queue.add(new Deadline(row.voteId(), row.deadline().plus(CLOSE_GRACE)));
+        }
+        worker = new Thread(this::run, "vote-deadline-scheduler");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("Vote deadline scheduler started with {} open votes", deadlines.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    // Gọi khi tạo vote; chỉ đưa vào hàng đợi sau khi transaction commit
+    public void schedule(Long voteId, LocalDateTime deadline) {
+        AfterCommit.run(() -> queue.add(new Deadline(voteId, deadline.plus(CLOSE_GRACE))));
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Deadline next;
+            try {
+                next = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                close(next.voteId());
+            } catch (RuntimeException e) {
+                log.warn("Could not close expired vote {}, retrying in {}", next.voteId(), RETRY_DELAY, e);
+                queue.add(new Deadline(next.voteId(), LocalDateTime.now().plus(RETRY_DELAY)));
+            }
+        }
+    }
+
+    private void close(Long voteId) {
+        // Đếm phiếu và chốt status trong cùng một transaction
+        String outcome = transactionTemplate.execute(status -> {
+            String result;
+            try {
+                result = voteTallyService.computeFinalOutcome(voteId);
+            } catch (IllegalArgumentException e) {
+                // Vote đã bị xóa trước hạn
+                return null;
+            }
+            return voteRepository.closeIfOpen(voteId, result) > 0 ? result : null;
+        });
+        if (outcome != null) {
+            voteTallyService.onStatusChanged(voteId, outcome);
+            log.info("Vote {} closed at deadline with outcome {}", voteId, outcome);
+        }
+    }
+
+    private record Deadline(Long voteId, LocalDateTime dueAt) implements Delayed {
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.between(LocalDateTime.now(), dueAt));
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
@@ -1,48 +1,64 @@
 package com.evcoownership.coowner.service;
 
+import com.evcoownership.coowner.dto.BallotEligibility;
+import com.evcoownership.coowner.dto.GroupEvent;
+import com.evcoownership.coowner.dto.UserVoteDto;
 import com.evcoownership.coowner.model.*;
 import com.evcoownership.coowner.repository.*;
+import com.evcoownership.coowner.security.AuthenticatedUser;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class VoteService {
+    private static final Set<String> VOTING_METHODS = Set.of("SIMPLE_MAJORITY", "UNANIMOUS", "OWNERSHIP_WEIGHTED");
+
     private final VoteRepository voteRepository;
     private final VoteOptionRepository voteOptionRepository;
     private final UserVoteRepository userVoteRepository;
     private final GroupRepository groupRepository;
     private final UserRepository userRepository;
     private final OwnershipShareRepository ownershipShareRepository;
+    private final VoteTallyService voteTallyService;
+    private final VoteDeadlineScheduler voteDeadlineScheduler;
+    private final ApplicationEventPublisher eventPublisher;
 
     public VoteService(VoteRepository voteRepository,
                       VoteOptionRepository voteOptionRepository,
                       UserVoteRepository userVoteRepository,
                       GroupRepository groupRepository,
                       UserRepository userRepository,
-                      OwnershipShareRepository ownershipShareRepository) {
+                      OwnershipShareRepository ownershipShareRepository,
+                      VoteTallyService voteTallyService,
+                      VoteDeadlineScheduler voteDeadlineScheduler,
+                      ApplicationEventPublisher eventPublisher) {
         this.voteRepository = voteRepository;
         this.voteOptionRepository = voteOptionRepository;
         this.userVoteRepository = userVoteRepository;
         this.groupRepository = groupRepository;
         this.userRepository = userRepository;
         this.ownershipShareRepository = ownershipShareRepository;
+        this.voteTallyService = voteTallyService;
+        this.voteDeadlineScheduler = voteDeadlineScheduler;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
     public Vote createVote(Long groupId, String topic, String description, String votingMethod,
-                           LocalDateTime deadline, Long userId) {
+                           LocalDateTime deadline, AuthenticatedUser creator) {
         Group group = groupRepository.findById(groupId)
                 .orElseThrow(() -> new IllegalArgumentException("Group không tồn tại"));
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User không tồn tại"));
+        Long userId = creator.id();
         
-        // Check user có phải là ADMIN không - Admin không được tạo vote
-        boolean isAdmin = user.getRoles().stream()
-                .anyMatch(role -> "ADMIN".equals(role.getName()));
-        if (isAdmin) {
+        // Check user có phải là ADMIN không - Admin không được tạo vote (roles lấy từ principal, không đọc lại user)
+        if (creator.hasRole("ADMIN")) {
             throw new IllegalArgumentException("Admin không thể tham gia bỏ phiếu trong nhóm");
         }
         
@@ -51,13 +67,18 @@ public class VoteService {
             throw new IllegalArgumentException("Bạn không phải là member của nhóm này");
         }
 
+        if (!VOTING_METHODS.contains(votingMethod)) {
+            throw new IllegalArgumentException("Voting method không hợp lệ: " + votingMethod);
+        }
+
         Vote vote = new Vote();
         vote.setGroup(group);
         vote.setTopic(topic);
         vote.setDescription(description);
         vote.setVotingMethod(votingMethod);
         vote.setDeadline(deadline);
-        vote.setCreatedBy(user);
+        vote.setCreatedBy(userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User không tồn tại")));
         vote.setCreatedAt(LocalDateTime.now());
         vote.setStatus("OPEN");
 
@@ -77,56 +98,58 @@ public class VoteService {
         voteOptionRepository.save(yesOption);
         voteOptionRepository.save(noOption);
 
+        // Tự đóng và chốt kết quả khi tới hạn
+        voteDeadlineScheduler.schedule(savedVote.getId(), deadline);
+
         return savedVote;
     }
 
     @Transactional
-    public UserVote castVote(Long voteId, Long userId, String choice) {
-        Vote vote = voteRepository.findById(voteId)
+    public UserVoteDto castVote(Long voteId, Long userId, String choice) {
+        // Một query cho vote, membership và quyền admin thay vì load vote, user (kèm roles) và membership riêng
+        BallotEligibility ballot = voteRepository.findBallotEligibility(voteId, userId)
                 .orElseThrow(() -> new IllegalArgumentException("Vote không tồn tại"));
 
-        if (!"OPEN".equals(vote.getStatus())) {
+        if (!"OPEN".equals(ballot.status())) {
             throw new IllegalArgumentException("Vote đã đóng");
         }
 
-        if (vote.getDeadline().isBefore(LocalDateTime.now())) {
+        if (ballot.deadline().isBefore(LocalDateTime.now())) {
             throw new IllegalArgumentException("Vote đã hết hạn");
         }
 
-        if (userVoteRepository.existsByVoteIdAndUserId(voteId, userId)) {
-            throw new IllegalArgumentException("Bạn đã bỏ phiếu rồi");
-        }
-
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User không tồn tại"));
-        
         // Check user có phải là ADMIN không - Admin không được vote
-        boolean isAdmin = user.getRoles().stream()
-                .anyMatch(role -> "ADMIN".equals(role.getName()));
-        if (isAdmin) {
+        if (ballot.isAdmin()) {
             throw new IllegalArgumentException("Admin không thể tham gia bỏ phiếu trong nhóm");
         }
-        
+
         // Check membership - chỉ member của group mới được vote
-        Long groupId = vote.getGroup().getId();
-        if (!ownershipShareRepository.existsByGroupIdAndUserId(groupId, userId)) {
+        if (!ballot.isMember()) {
             throw new IllegalArgumentException("Bạn không phải là member của nhóm này");
         }
 
+        // Vote và user chỉ cần làm khóa ngoại (đã kiểm tra tồn tại ở trên): dùng reference, không load entity.
+        // Response là DTO nên proxy không bao giờ ra tới Jackson
         UserVote userVote = new UserVote();
-        userVote.setVote(vote);
-        userVote.setUser(user);
+        userVote.setVote(voteRepository.getReferenceById(voteId));
+        userVote.setUser(userRepository.getReferenceById(userId));
         userVote.setChoice(choice);
         userVote.setVotedAt(LocalDateTime.now());
-        userVoteRepository.save(userVote);
+        try {
+            // Unique (vote_id, user_id) chặn bỏ phiếu hai lần, kể cả khi hai request đến cùng lúc
+            userVoteRepository.saveAndFlush(userVote);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Bạn đã bỏ phiếu rồi");
+        }
 
-        // Cập nhật count cho option
-        VoteOption option = voteOptionRepository.findByVoteIdAndOption(voteId, choice)
-                .orElseThrow(() -> new IllegalArgumentException("Option không hợp lệ"));
-        option.setCount(option.getCount() + 1);
-        voteOptionRepository.save(option);
+        // Cập nhật count cho option bằng UPDATE nguyên tử, không đọc-sửa-ghi
+        if (voteOptionRepository.incrementCount(voteId, choice) == 0) {
+            throw new IllegalArgumentException("Option không hợp lệ");
+        }
+        voteTallyService.onBallotCast(voteId, userId, choice, ballot.ownershipPercentage());
+        eventPublisher.publishEvent(GroupEvent.of(GroupEvent.VOTE_CAST, ballot.groupId(), voteId));
 
-        return userVote;
+        return new UserVoteDto(voteId, userId, choice, userVote.getVotedAt());
     }
 
     public List<Vote> getGroupVotes(Long groupId) {
@@ -138,6 +161,10 @@ public class VoteService {
                 .orElseThrow(() -> new IllegalArgumentException("Vote không tồn tại"));
     }
 
+    public Map<String, Object> getVoteResults(Long voteId) {
+        return voteTallyService.getResults(voteId);
+    }
+
     public List<VoteOption> getVoteOptions(Long voteId) {
         return voteOptionRepository.findByVoteId(voteId);
     }
@@ -161,8 +188,15 @@ public class VoteService {
             throw new IllegalArgumentException("Vote đã được đóng rồi");
         }
 
-        vote.setStatus("CLOSED");
-        return voteRepository.save(vote);
+        // Đóng tay cũng chốt kết quả như khi hết hạn (VoteDeadlineScheduler); closeIfOpen trả về 0
+        // nghĩa là scheduler vừa đóng vote này trước
+        String outcome = voteTallyService.computeFinalOutcome(voteId);
+        if (voteRepository.closeIfOpen(voteId, outcome) == 0) {
+            throw new IllegalArgumentException("Vote đã được đóng rồi");
+        }
+        vote.setStatus(outcome);
+        voteTallyService.onStatusChanged(voteId, outcome);
+        return vote;
     }
 
     @Transactional
@@ -191,6 +225,7 @@ public class VoteService {
         
         // Xóa vote
         voteRepository.delete(vote);
+        voteTallyService.onDeleted(voteId);
     }
 }
 
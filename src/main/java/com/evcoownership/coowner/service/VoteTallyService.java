@@ -0,0 +1,223 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.dto.GroupOwnershipTotals;
+import com.evcoownership.coowner.dto.VoteBallotRow;
+import com.evcoownership.coowner.model.Vote;
+import com.evcoownership.coowner.model.VoteOption;
+import com.evcoownership.coowner.repository.OwnershipShareRepository;
+import com.evcoownership.coowner.repository.UserVoteRepository;
+import com.evcoownership.coowner.repository.VoteOptionRepository;
+import com.evcoownership.coowner.repository.VoteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tally trong bộ nhớ cho từng vote, dựng lại từ user_votes khi khởi động (vote OPEN) hoặc khi đọc lần đầu,
+ * cập nhật sau mỗi lần bỏ phiếu commit. Kết quả được tính theo votingMethod:
+ * SIMPLE_MAJORITY (quá nửa số phiếu), UNANIMOUS (mọi member cùng YES),
+ * OWNERSHIP_WEIGHTED (quá nửa tổng tỉ lệ sở hữu của group).
+ */
+@Service
+public class VoteTallyService {
+    private static final Logger log = LoggerFactory.getLogger(VoteTallyService.class);
+
+    private final VoteRepository voteRepository;
+    private final VoteOptionRepository voteOptionRepository;
+    private final UserVoteRepository userVoteRepository;
+    private final OwnershipShareRepository ownershipShareRepository;
+    private final Map<Long, LiveTally> tallies = new ConcurrentHashMap<>();
+
+    public VoteTallyService(VoteRepository voteRepository,
+                            VoteOptionRepository voteOptionRepository,
+                            UserVoteRepository userVoteRepository,
+                            OwnershipShareRepository ownershipShareRepository) {
+        this.voteRepository = voteRepository;
+        this.voteOptionRepository = voteOptionRepository;
+        this.userVoteRepository = userVoteRepository;
+        this.ownershipShareRepository = ownershipShareRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<Long> openVoteIds = voteRepository.findOpenVoteIds();
+        for (Long voteId : openVoteIds) {
+            tallies.computeIfAbsent(voteId, this::load);
+        }
+        log.info("Vote tallies rebuilt for {} open votes", openVoteIds.size());
+    }
+
+    public Map<String, Object> getResults(Long voteId) {
+        return tallyOf(voteId).results(voteId);
+    }
+
+    // Kết quả chính thức khi đóng vote: APPROVED hoặc REJECTED. Tính lại từ user_votes/vote_options chứ không
+    // dùng tally trong bộ nhớ (có thể thiếu phiếu của instance khác); gọi trong transaction đóng vote
+    public String computeFinalOutcome(Long voteId) {
+        return load(voteId).outcome(true);
+    }
+
+    // Gọi trong transaction castVote; tally chỉ đổi khi commit thành công.
+    // Tally được ghi theo userId nên việc áp dụng lại một lá phiếu đã có trong lần load là vô hại
+    public void onBallotCast(Long voteId, Long userId, String choice, Double ownershipPercentage) {
+        AfterCommit.run(() -> tallies.computeIfPresent(voteId, (id, tally) -> {
+            tally.record(userId, choice, ownershipPercentage != null ? ownershipPercentage : 0.0);
+            return tally;
+        }));
+    }
+
+    public void onStatusChanged(Long voteId, String status) {
+        AfterCommit.run(() -> tallies.computeIfPresent(voteId, (id, tally) -> {
+            tally.setStatus(status);
+            return tally;
+        }));
+    }
+
+    public void onDeleted(Long voteId) {
+        AfterCommit.run(() -> tallies.remove(voteId));
+    }
+
+    // Thành viên hoặc tỉ lệ sở hữu của group thay đổi: trọng số trong tally không còn đúng
+    public void evictGroup(Long groupId) {
+        AfterCommit.run(() -> tallies.values().removeIf(tally -> tally.groupId.equals(groupId)));
+    }
+
+    private LiveTally tallyOf(Long voteId) {
+        return tallies.computeIfAbsent(voteId, this::load);
+    }
+
+    private LiveTally load(Long voteId) {
+        Vote vote = voteRepository.findById(voteId)
+                .orElseThrow(() -> new IllegalArgumentException("Vote không tồn tại"));
+        Long groupId = vote.getGroup().getId();
+        GroupOwnershipTotals totals = ownershipShareRepository.summarizeGroup(groupId);
+
+        List<String> options = new ArrayList<>();
+        for (VoteOption option : voteOptionRepository.findByVoteId(voteId)) {
+            options.add(option.getOption());
+        }
+
+        LiveTally tally = new LiveTally(groupId, vote.getVotingMethod(), vote.getStatus(), options,
+                totals.memberCount().intValue(), totals.totalPercentage() != null ? totals.totalPercentage() : 0.0);
+        for (VoteBallotRow row : userVoteRepository.findBallotRows(voteId)) {
+            tally.record(row.userId(), row.choice(),
+                    row.ownershipPercentage() != null ? row.ownershipPercentage() : 0.0);
+        }
+        return tally;
+    }
+
+    private record Ballot(String choice, double weight) {
+    }
+
+    private static final class LiveTally {
+        private final Long groupId;
+        private final String votingMethod;
+        private final List<String> options;
+        private final int eligibleVoters;
+        private final double totalWeight;
+        private final Map<Long, Ballot> ballots = new HashMap<>();
+        private final Map<String, Integer> counts = new HashMap<>();
+        private final Map<String, Double> weights = new HashMap<>();
+        private String status;
+
+        LiveTally(Long groupId, String votingMethod, String status, List<String> options,
+                  int eligibleVoters, double totalWeight) {
+            this.groupId = groupId;
+            this.votingMethod = votingMethod != null ? votingMethod : "SIMPLE_MAJORITY";
+            this.status = status;
+            this.options = options;
+            this.eligibleVoters = eligibleVoters;
+            this.totalWeight = totalWeight;
+        }
+
+        synchronized void record(Long userId, String choice, double weight) {
+            if (ballots.putIfAbsent(userId, new Ballot(choice, weight)) == null) {
+                counts.merge(choice, 1, Integer::sum);
+                weights.merge(choice, weight, Double::sum);
+            }
+        }
+
+        synchronized void setStatus(String status) {
+            this.status = status;
+        }
+
+        synchronized Map<String, Object> results(Long voteId) {
+            boolean open = "OPEN".equals(status);
+            List<Map<String, Object>> optionResults = new ArrayList<>();
+            for (String option : options) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("option", option);
+                item.put("count", counts.getOrDefault(option, 0));
+                item.put("weight", weights.getOrDefault(option, 0.0));
+                optionResults.add(item);
+            }
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("voteId", voteId);
+            result.put("votingMethod", votingMethod);
+            result.put("status", status);
+            result.put("options", optionResults);
+            result.put("ballotsCast", ballots.size());
+            result.put("eligibleVoters", eligibleVoters);
+            result.put("totalWeight", totalWeight);
+            // Vote còn mở: outcome chỉ có khi kết quả không thể đổi nữa dù các member còn lại bầu thế nào
+            String outcome = outcome(!open);
+            result.put("decided", outcome != null);
+            result.put("outcome", outcome);
+            return result;
+        }
+
+        // isFinal = true: kết quả khi đóng vote (luôn APPROVED/REJECTED); false: null nếu chưa ngã ngũ
+        synchronized String outcome(boolean isFinal) {
+            int cast = ballots.size();
+            int yes = counts.getOrDefault("YES", 0);
+            switch (votingMethod) {
+                case "UNANIMOUS": {
+                    if (cast > yes) {
+                        return "REJECTED";
+                    }
+                    if (eligibleVoters > 0 && yes >= eligibleVoters) {
+                        return "APPROVED";
+                    }
+                    return isFinal ? "REJECTED" : null;
+                }
+                case "OWNERSHIP_WEIGHTED": {
+                    double yesWeight = weights.getOrDefault("YES", 0.0);
+                    if (yesWeight * 2 > totalWeight) {
+                        return "APPROVED";
+                    }
+                    // Phần tỉ lệ chưa bầu cộng vào YES vẫn không quá nửa thì đã thua chắc
+                    double castWeight = weights.values().stream().mapToDouble(Double::doubleValue).sum();
+                    double remaining = Math.max(0.0, totalWeight - castWeight);
+                    if (isFinal || (yesWeight + remaining) * 2 <= totalWeight) {
+                        return "REJECTED";
+                    }
+                    return null;
+                }
+                default: {
+                    // SIMPLE_MAJORITY: YES thắng khi quá nửa số phiếu đã bầu
+                    if (isFinal) {
+                        return cast > 0 && yes * 2 > cast ? "APPROVED" : "REJECTED";
+                    }
+                    int remaining = Math.max(0, eligibleVoters - cast);
+                    if (yes * 2 > cast + remaining) {
+                        return "APPROVED";
+                    }
+                    if ((yes + remaining) * 2 <= cast + remaining) {
+                        return "REJECTED";
+                    }
+                    return null;
+                }
+            }
+        }
+    }
+}
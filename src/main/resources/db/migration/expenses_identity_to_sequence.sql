@@ -0,0 +1,99 @@
+-- Chuyển khóa chính của expenses và expense_shares từ IDENTITY sang SEQUENCE (SQL Server).
+-- Chạy MỘT lần trên database đã có dữ liệu, khi ứng dụng đang dừng, trước khi deploy bản dùng
+-- @SequenceGenerator(expenses_seq / expense_shares_seq, allocationSize = 50).
+-- ddl-auto=update không tự bỏ IDENTITY của cột đã có, nên thiếu script này Hibernate sẽ insert id
+-- tường minh vào cột IDENTITY và lỗi.
+-- Script chạy lại được: bảng nào đã hết IDENTITY và sequence nào đã có thì bỏ qua.
+
+SET XACT_ABORT ON;
+BEGIN TRANSACTION;
+
+-- Sequence bắt đầu trên MAX(id) + 50: pooled optimizer dùng khoảng (giá trị - 50, giá trị],
+-- nên id cấp ra luôn lớn hơn id hiện có
+DECLARE @start BIGINT;
+DECLARE @sql NVARCHAR(MAX);
+
+IF OBJECT_ID(N'dbo.expenses_seq', N'SO') IS NULL
+BEGIN
+    SELECT @start = ISNULL(MAX(id), 0) + 50 FROM dbo.expenses WITH (TABLOCKX);
+    SET @sql = N'CREATE SEQUENCE dbo.expenses_seq AS BIGINT START WITH '
+        + CAST(@start AS NVARCHAR(20)) + N' INCREMENT BY 50';
+    EXEC sp_executesql @sql;
+END;
+
+IF OBJECT_ID(N'dbo.expense_shares_seq', N'SO') IS NULL
+BEGIN
+    SELECT @start = ISNULL(MAX(id), 0) + 50 FROM dbo.expense_shares WITH (TABLOCKX);
+    SET @sql = N'CREATE SEQUENCE dbo.expense_shares_seq AS BIGINT START WITH '
+        + CAST(@start AS NVARCHAR(20)) + N' INCREMENT BY 50';
+    EXEC sp_executesql @sql;
+END;
+
+-- SQL Server không cho ALTER COLUMN bỏ IDENTITY: dựng lại cột id (copy sang cột mới, bỏ PK và các FK
+-- trỏ tới bảng, xóa cột cũ, đổi tên cột mới, tạo lại PK và FK). Giá trị id giữ nguyên.
+DECLARE @tables TABLE (name SYSNAME PRIMARY KEY);
+INSERT INTO @tables (name) VALUES (N'expenses'), (N'expense_shares');
+
+DECLARE @foreignKeys TABLE (fk_name SYSNAME, parent_table SYSNAME, parent_column SYSNAME,
+                            delete_action NVARCHAR(60), update_action NVARCHAR(60));
+DECLARE @pkName SYSNAME;
+DECLARE @table SYSNAME;
+DECLARE table_cursor CURSOR LOCAL FAST_FORWARD FOR SELECT name FROM @tables;
+OPEN table_cursor;
+FETCH NEXT FROM table_cursor INTO @table;
+WHILE @@FETCH_STATUS = 0
+BEGIN
+    IF COLUMNPROPERTY(OBJECT_ID(N'dbo.' + @table), N'id', 'IsIdentity') = 1
+    BEGIN
+        -- Lưu định nghĩa các FK trỏ tới bảng để tạo lại sau
+        DELETE FROM @foreignKeys;
+        INSERT INTO @foreignKeys
+        SELECT fk.name, OBJECT_NAME(fk.parent_object_id), pc.name,
+               fk.delete_referential_action_desc, fk.update_referential_action_desc
+        FROM sys.foreign_keys fk
+        JOIN sys.foreign_key_columns fkc ON fkc.constraint_object_id = fk.object_id
+        JOIN sys.columns pc ON pc.object_id = fkc.parent_object_id AND pc.column_id = fkc.parent_column_id
+        WHERE fk.referenced_object_id = OBJECT_ID(N'dbo.' + @table);
+
+        SET @sql = N'';
+        SELECT @sql = @sql + N'ALTER TABLE dbo.' + QUOTENAME(parent_table)
+            + N' DROP CONSTRAINT ' + QUOTENAME(fk_name) + N';'
+        FROM @foreignKeys;
+        EXEC sp_executesql @sql;
+
+        SET @pkName = (SELECT name FROM sys.key_constraints
+                       WHERE parent_object_id = OBJECT_ID(N'dbo.' + @table) AND type = 'PK');
+        IF @pkName IS NOT NULL
+        BEGIN
+            SET @sql = N'ALTER TABLE dbo.' + QUOTENAME(@table) + N' DROP CONSTRAINT ' + QUOTENAME(@pkName);
+            EXEC sp_executesql @sql;
+        END;
+
+        SET @sql = N'ALTER TABLE dbo.' + QUOTENAME(@table) + N' ADD id_new BIGINT NULL';
+        EXEC sp_executesql @sql;
+        SET @sql = N'UPDATE dbo.' + QUOTENAME(@table) + N' SET id_new = id';
+        EXEC sp_executesql @sql;
+        SET @sql = N'ALTER TABLE dbo.' + QUOTENAME(@table) + N' DROP COLUMN id';
+        EXEC sp_executesql @sql;
+        SET @sql = N'dbo.' + @table + N'.id_new';
+        EXEC sp_rename @sql, N'id', N'COLUMN';
+        SET @sql = N'ALTER TABLE dbo.' + QUOTENAME(@table) + N' ALTER COLUMN id BIGINT NOT NULL';
+        EXEC sp_executesql @sql;
+        SET @sql = N'ALTER TABLE dbo.' + QUOTENAME(@table) + N' ADD CONSTRAINT '
+            + QUOTENAME(ISNULL(@pkName, N'PK_' + @table)) + N' PRIMARY KEY CLUSTERED (id)';
+        EXEC sp_executesql @sql;
+
+        SET @sql = N'';
+        SELECT @sql = @sql + N'ALTER TABLE dbo.' + QUOTENAME(parent_table) + N' WITH CHECK ADD CONSTRAINT '
+            + QUOTENAME(fk_name) + N' FOREIGN KEY (' + QUOTENAME(parent_column) + N') REFERENCES dbo.'
+            + QUOTENAME(@table) + N' (id) ON DELETE ' + REPLACE(delete_action, N'_', N' ')
+            + N' ON UPDATE ' + REPLACE(update_action, N'_', N' ') + N';'
+        FROM @foreignKeys;
+        EXEC sp_executesql @sql;
+    END;
+    FETCH NEXT FROM table_cursor INTO @table;
+END;
+CLOSE table_cursor;
+DEALLOCATE table_cursor;
+
+COMMIT TRANSACTION;
@@ -0,0 +1,84 @@
+package com.evcoownership.coowner;
+
+import com.evcoownership.coowner.model.EContract;
+import com.evcoownership.coowner.model.Group;
+import com.evcoownership.coowner.model.OwnershipShare;
+import com.evcoownership.coowner.model.User;
+import com.evcoownership.coowner.model.Vehicle;
+import com.evcoownership.coowner.repository.EContractRepository;
+import com.evcoownership.coowner.repository.GroupRepository;
+import com.evcoownership.coowner.repository.OwnershipShareRepository;
+import com.evcoownership.coowner.repository.UserRepository;
+import com.evcoownership.coowner.repository.VehicleRepository;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+// Dữ liệu mẫu cho test: user, group (kèm ownership share), hợp đồng và xe
+@TestComponent
+public class TestFixtures {
+    private final UserRepository userRepository;
+    private final GroupRepository groupRepository;
+    private final OwnershipShareRepository ownershipShareRepository;
+    private final EContractRepository eContractRepository;
+    private final VehicleRepository vehicleRepository;
+
+    public TestFixtures(UserRepository userRepository,
+                        GroupRepository groupRepository,
+                        OwnershipShareRepository ownershipShareRepository,
+                        EContractRepository eContractRepository,
+                        VehicleRepository vehicleRepository) {
+        this.userRepository = userRepository;
+        this.groupRepository = groupRepository;
+        this.ownershipShareRepository = ownershipShareRepository;
+        this.eContractRepository = eContractRepository;
+        this.vehicleRepository = vehicleRepository;
+    }
+
+    public User user() {
+        String key = UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setEmail("user-" + key + "@test.local");
+        user.setFullName("User " + key);
+        user.setPassword("x");
+        return userRepository.save(user);
+    }
+
+    public Group group(User creator) {
+        Group group = new Group();
+        group.setName("Group " + UUID.randomUUID());
+        group.setCreatedBy(creator);
+        return groupRepository.save(group);
+    }
+
+    public OwnershipShare share(Group group, User user, double percentage) {
+        OwnershipShare share = new OwnershipShare();
+        share.setGroup(group);
+        share.setUser(user);
+        share.setPercentage(percentage);
+        return ownershipShareRepository.save(share);
+    }
+
+    public EContract contract(Group group, User creator) {
+        EContract contract = new EContract();
+        contract.setGroup(group);
+        contract.setContractNo("C-" + UUID.randomUUID());
+        contract.setStartDate(LocalDate.now().minusYears(1));
+        contract.setEndDate(LocalDate.now().plusYears(1));
+        contract.setStatus("SIGNED");
+        contract.setCreatedBy(creator);
+        contract.setCreatedAt(LocalDate.now());
+        return eContractRepository.save(contract);
+    }
+
+    public Vehicle vehicle(EContract contract) {
+        String key = UUID.randomUUID().toString().substring(0, 8);
+        Vehicle vehicle = new Vehicle();
+        vehicle.setVin("VIN-" + key);
+        vehicle.setPlate("P-" + key);
+        vehicle.setModel("Test EV");
+        vehicle.setGroup(contract);
+        return vehicleRepository.save(vehicle);
+    }
+}
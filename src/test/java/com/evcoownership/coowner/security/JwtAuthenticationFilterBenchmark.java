@@ -0,0 +1,107 @@
+package com.evcoownership.coowner.security;
+
+import com.evcoownership.coowner.model.Role;
+import com.evcoownership.coowner.model.User;
+import com.evcoownership.coowner.repository.UserRepository;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Độ trễ của JwtAuthenticationFilter cho một request có Bearer token:
+ * <ul>
+ *   <li>{@code uncachedVerification}: parse và kiểm chữ ký mỗi request, principal đọc lại mỗi lần
+ *       (như trước khi có claim uid/roles; repository giả lập nên chưa tính round-trip DB thật)</li>
+ *   <li>{@code legacyTokenCachedPrincipal}: token cũ không có claim, principal lấy từ PrincipalCache</li>
+ *   <li>{@code claimsToken}: đường nóng hiện tại, claims lấy từ cache đã xác thực, không đụng repository</li>
+ * </ul>
+ * Chạy: {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="JwtAuthenticationFilterBenchmark"}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+    private static final String SECRET = "evCoownershipSecretKeyForJWTTokenGeneration2024";
+    private static final long EXPIRATION_MS = 3_600_000L;
+    private static final FilterChain NOOP_CHAIN = (request, response) -> { };
+
+    private JwtAuthenticationFilter cachedFilter;
+    private JwtAuthenticationFilter uncachedFilter;
+    private MockHttpServletRequest claimsRequest;
+    private MockHttpServletRequest legacyRequest;
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Setup
+    public void setUp() {
+        User user = new User();
+        ReflectionTestUtils.setField(user, "id", 42L);
+        user.setEmail("bench@test.local");
+        Role role = new Role();
+        role.setName("CO_OWNER");
+        user.getRoles().add(role);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        TokenRevocationService revocationService = new TokenRevocationService(EXPIRATION_MS);
+
+        JwtService jwtService = new JwtService(SECRET, EXPIRATION_MS, 10_000);
+        cachedFilter = new JwtAuthenticationFilter(jwtService,
+                new PrincipalCache(userRepository, 300, 10_000), revocationService);
+        // Cache rỗng và TTL 0: mọi request đều parse token và resolve lại principal
+        uncachedFilter = new JwtAuthenticationFilter(new JwtService(SECRET, EXPIRATION_MS, 0),
+                new PrincipalCache(userRepository, 0, 10_000), revocationService);
+
+        claimsRequest = request(jwtService.generateToken(new AuthenticatedUser(42L, user.getEmail(), List.of("CO_OWNER"))));
+        legacyRequest = request(jwtService.generateToken(user.getEmail()));
+    }
+
+    @Benchmark
+    public Authentication claimsToken() throws Exception {
+        return run(cachedFilter, claimsRequest);
+    }
+
+    @Benchmark
+    public Authentication legacyTokenCachedPrincipal() throws Exception {
+        return run(cachedFilter, legacyRequest);
+    }
+
+    @Benchmark
+    public Authentication uncachedVerification() throws Exception {
+        return run(uncachedFilter, legacyRequest);
+    }
+
+    private Authentication run(JwtAuthenticationFilter filter, MockHttpServletRequest request) throws Exception {
+        filter.doFilter(request, response, NOOP_CHAIN);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/groups");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
@@ -0,0 +1,107 @@
+package com.evcoownership.coowner.security;
+
+import com.evcoownership.coowner.TestFixtures;
+import com.evcoownership.coowner.model.Role;
+import com.evcoownership.coowner.model.User;
+import com.evcoownership.coowner.repository.RoleRepository;
+import com.evcoownership.coowner.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestFixtures.class)
+class TokenRevocationTest {
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+    @Autowired
+    private TokenRevocationService revocationService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void roleChangeRejectsTokensIssuedBeforeIt() throws Exception {
+        role("ADMIN");
+        User user = fixtures.user();
+        String token = jwtService.generateToken(new AuthenticatedUser(user.getId(), user.getEmail(), List.of("CO_OWNER")));
+
+        Authentication before = authenticate(token);
+        assertNotNull(before);
+        assertEquals(user.getEmail(), before.getName());
+
+        userService.updateRoles(user.getId(), Set.of("ADMIN"));
+
+        // Token cũ vẫn đúng chữ ký nhưng mang role cũ: filter phải bỏ qua
+        assertNull(authenticate(token));
+        TokenClaims older = jwtService.verify(token);
+        assertTrue(revocationService.isRevoked(older));
+
+        // Token phát hành sau mốc thu hồi (iat theo giây) không bị ảnh hưởng
+        Instant later = Instant.now().truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+        TokenClaims newer = new TokenClaims("fresh", user.getEmail(), older.principal(), later, later.plusSeconds(60));
+        assertFalse(revocationService.isRevoked(newer));
+    }
+
+    @Test
+    void loggedOutTokenIsRejectedByTheFilter() throws Exception {
+        User user = fixtures.user();
+        String token = jwtService.generateToken(new AuthenticatedUser(user.getId(), user.getEmail(), List.of("CO_OWNER")));
+        String other = jwtService.generateToken(new AuthenticatedUser(user.getId(), user.getEmail(), List.of("CO_OWNER")));
+        assertNotNull(authenticate(token));
+
+        revocationService.revoke(jwtService.verify(token));
+
+        assertNull(authenticate(token));
+        // Chỉ token đó bị thu hồi theo jti
+        assertNotNull(authenticate(other));
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/groups");
+        request.addHeader("Authorization", "Bearer " + token);
+        jwtAuthenticationFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    private void role(String name) {
+        if (roleRepository.findByName(name).isEmpty()) {
+            Role role = new Role();
+            role.setName(name);
+            roleRepository.save(role);
+        }
+    }
+}
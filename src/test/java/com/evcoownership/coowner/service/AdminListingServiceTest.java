@@ -0,0 +1,68 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.TestFixtures;
+import com.evcoownership.coowner.dto.AdminGroupRow;
+import com.evcoownership.coowner.dto.KeysetPage;
+import com.evcoownership.coowner.model.Group;
+import com.evcoownership.coowner.model.User;
+import com.evcoownership.coowner.repository.GroupRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestFixtures.class)
+class AdminListingServiceTest {
+    private static final int GROUPS = 5;
+    private static final int PAGE_SIZE = 2;
+
+    @Autowired
+    private AdminListingService adminListingService;
+    @Autowired
+    private GroupRepository groupRepository;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void keysetPagesCoverEveryRowOnceInBothDirections() {
+        String tag = "admin-" + UUID.randomUUID();
+        User creator = fixtures.user();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < GROUPS; i++) {
+            Group group = fixtures.group(creator);
+            group.setName(tag + "-" + i);
+            ids.add(groupRepository.save(group).getId());
+        }
+
+        List<Long> ascending = new ArrayList<>(ids);
+        ascending.sort(Comparator.naturalOrder());
+        assertEquals(ascending, collect(tag, "asc"));
+        List<Long> descending = new ArrayList<>(ascending);
+        descending.sort(Comparator.reverseOrder());
+        assertEquals(descending, collect(tag, "desc"));
+    }
+
+    private List<Long> collect(String name, String sort) {
+        List<Long> seen = new ArrayList<>();
+        Long cursor = null;
+        int pages = 0;
+        do {
+            KeysetPage<AdminGroupRow> page = adminListingService.listGroups(name, cursor, sort, PAGE_SIZE);
+            page.getItems().forEach(row -> seen.add(row.id()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+        assertEquals((GROUPS + PAGE_SIZE - 1) / PAGE_SIZE, pages);
+        return seen;
+    }
+}
@@ -0,0 +1,138 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.TestFixtures;
+import com.evcoownership.coowner.dto.CreateBookingRequest;
+import com.evcoownership.coowner.model.Booking;
+import com.evcoownership.coowner.model.EContract;
+import com.evcoownership.coowner.model.Group;
+import com.evcoownership.coowner.model.User;
+import com.evcoownership.coowner.model.Vehicle;
+import com.evcoownership.coowner.repository.BookingRepository;
+import com.evcoownership.coowner.security.AuthenticatedUser;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestFixtures.class)
+class BookingConcurrencyStressTest {
+    private static final Logger log = LoggerFactory.getLogger(BookingConcurrencyStressTest.class);
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 200;
+    private static final int VEHICLES = 4;
+    // Slot 1 giờ liền nhau trong 2 ngày, không slot nào giao slot khác
+    private static final int SLOTS_PER_VEHICLE = 48;
+    private static final String OVERLAP_MESSAGE = "This time slot is already booked for this vehicle";
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void concurrentOverlappingRequestsNeverDoubleBook() throws Exception {
+        User owner = fixtures.user();
+        Group group = fixtures.group(owner);
+        EContract contract = fixtures.contract(group, owner);
+        List<Vehicle> vehicles = new ArrayList<>();
+        for (int v = 0; v < VEHICLES; v++) {
+            vehicles.add(fixtures.vehicle(contract));
+        }
+        List<AuthenticatedUser> members = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            User member = i == 0 ? owner : fixtures.user();
+            fixtures.share(group, member, 1.0 / 8);
+            members.add(new AuthenticatedUser(member.getId(), member.getEmail(), List.of("CO_OWNER")));
+        }
+
+        // Mỗi lần đặt nằm trong một slot và luôn chứa đoạn giữa slot (phút 20-40): mọi lần đặt cùng slot
+        // giao nhau, khác slot thì không. Thread t bắt đầu từ slot t và duyệt đủ mọi slot, nên các thread
+        // tranh nhau cùng slot cùng lúc và mỗi slot phải có đúng một booking thành công.
+        int totalSlots = VEHICLES * SLOTS_PER_VEHICLE;
+        LocalDateTime base = LocalDate.now().plusDays(1).atStartOfDay();
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            AuthenticatedUser member = members.get(t % members.size());
+            Random random = new Random(t);
+            int firstSlot = t;
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    int slot = (firstSlot + i) % totalSlots;
+                    Vehicle vehicle = vehicles.get(slot / SLOTS_PER_VEHICLE);
+                    LocalDateTime slotStart = base.plusHours(slot % SLOTS_PER_VEHICLE);
+                    LocalDateTime from = slotStart.plusMinutes(10L * random.nextInt(3));
+                    LocalDateTime to = slotStart.plusMinutes(40L + 10L * random.nextInt(3));
+                    try {
+                        bookingService.createNewBooking(new CreateBookingRequest(vehicle.getId(), from, to), member);
+                        accepted.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        if (OVERLAP_MESSAGE.equals(e.getMessage())) {
+                            rejected.incrementAndGet();
+                        } else {
+                            unexpected.add(e);
+                        }
+                    } catch (Throwable e) {
+                        unexpected.add(e);
+                    }
+                }
+                return null;
+            });
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.MINUTES), "Stress test không kết thúc kịp");
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        int attempts = THREADS * ATTEMPTS_PER_THREAD;
+        log.info("Booking stress: {} attempts over {} vehicles, {} accepted, {} rejected in {} s ({} attempts/s)",
+                attempts, VEHICLES, accepted.get(), rejected.get(), String.format("%.2f", seconds),
+                String.format("%.0f", attempts / seconds));
+
+        assertTrue(unexpected.isEmpty(), () -> "Lỗi không mong đợi: " + unexpected.peek());
+        assertEquals(attempts, accepted.get() + rejected.get());
+        assertEquals(totalSlots, accepted.get());
+
+        for (Vehicle vehicle : vehicles) {
+            List<Booking> bookings = new ArrayList<>(bookingRepository.findByVehicle_Id(vehicle.getId()));
+            assertEquals(SLOTS_PER_VEHICLE, bookings.size());
+            bookings.sort(Comparator.comparing(Booking::getStartTime));
+            for (int i = 1; i < bookings.size(); i++) {
+                Booking previous = bookings.get(i - 1);
+                Booking current = bookings.get(i);
+                assertFalse(current.getStartTime().isBefore(previous.getEndTime()),
+                        () -> "Booking " + previous.getBookingId() + " và " + current.getBookingId() + " trùng lịch");
+            }
+        }
+    }
+}
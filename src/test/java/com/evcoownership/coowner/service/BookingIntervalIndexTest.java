@@ -0,0 +1,93 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.TestFixtures;
+import com.evcoownership.coowner.dto.CreateBookingRequest;
+import com.evcoownership.coowner.model.Booking;
+import com.evcoownership.coowner.model.EContract;
+import com.evcoownership.coowner.model.Group;
+import com.evcoownership.coowner.model.User;
+import com.evcoownership.coowner.model.Vehicle;
+import com.evcoownership.coowner.repository.BookingRepository;
+import com.evcoownership.coowner.repository.UserRepository;
+import com.evcoownership.coowner.repository.VehicleRepository;
+import com.evcoownership.coowner.security.AuthenticatedUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestFixtures.class)
+class BookingIntervalIndexTest {
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private VehicleRepository vehicleRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void bookingWrittenByAnotherInstanceIsSeenUnderTheVehicleLock() {
+        User owner = fixtures.user();
+        Group group = fixtures.group(owner);
+        fixtures.share(group, owner, 1.0);
+        EContract contract = fixtures.contract(group, owner);
+        Vehicle vehicle = fixtures.vehicle(contract);
+        AuthenticatedUser member = new AuthenticatedUser(owner.getId(), owner.getEmail(), List.of("CO_OWNER"));
+        LocalDateTime base = LocalDate.now().plusDays(1).atTime(8, 0);
+
+        bookingService.createNewBooking(request(vehicle, base, base.plusHours(1)), member);
+        assertTrue(bookingIntervalIndex.overlaps(vehicle.getId(), base, base.plusMinutes(30)));
+
+        // Instance khác ghi booking thẳng vào DB: index của instance này không nhận được sự kiện nào
+        transactionTemplate.executeWithoutResult(status -> {
+            Vehicle locked = vehicleRepository.findByIdForUpdate(vehicle.getId()).orElseThrow();
+            Booking booking = new Booking();
+            booking.setVehicle(locked);
+            booking.setUser(userRepository.getReferenceById(owner.getId()));
+            booking.setGroup(locked.getGroup());
+            booking.setStartTime(base.plusHours(2));
+            booking.setEndTime(base.plusHours(3));
+            booking.setStatus("PENDING");
+            bookingRepository.save(booking);
+            locked.setBookingVersion(locked.getBookingVersion() + 1);
+        });
+        assertFalse(bookingIntervalIndex.overlaps(vehicle.getId(), base.plusHours(2), base.plusHours(3)));
+
+        // bookingVersion lệch nên lần đặt dưới lock nạp lại xe và thấy booking đó
+        assertThrows(IllegalArgumentException.class,
+                () -> bookingService.createNewBooking(request(vehicle, base.plusHours(2), base.plusHours(3)), member));
+        assertTrue(bookingIntervalIndex.overlaps(vehicle.getId(), base.plusHours(2), base.plusHours(3)));
+
+        bookingService.createNewBooking(request(vehicle, base.plusHours(3), base.plusHours(4)), member);
+        assertEquals(3, bookingRepository.findByVehicle_Id(vehicle.getId()).size());
+    }
+
+    private static CreateBookingRequest request(Vehicle vehicle, LocalDateTime start, LocalDateTime end) {
+        CreateBookingRequest request = new CreateBookingRequest();
+        request.setVehicleId(vehicle.getId());
+        request.setStartTime(start);
+        request.setEndTime(end);
+        return request;
+    }
+}
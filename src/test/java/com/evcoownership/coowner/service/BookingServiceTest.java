@@ -0,0 +1,102 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.TestFixtures;
+import com.evcoownership.coowner.dto.BatchBookingResult;
+import com.evcoownership.coowner.dto.BookingSlotRequest;
+import com.evcoownership.coowner.dto.CreateBatchBookingRequest;
+import com.evcoownership.coowner.dto.CreateBookingRequest;
+import com.evcoownership.coowner.dto.GroupEvent;
+import com.evcoownership.coowner.model.Booking;
+import com.evcoownership.coowner.model.Group;
+import com.evcoownership.coowner.model.User;
+import com.evcoownership.coowner.model.Vehicle;
+import com.evcoownership.coowner.repository.BookingRepository;
+import com.evcoownership.coowner.security.AuthenticatedUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestFixtures.class)
+@RecordApplicationEvents
+class BookingServiceTest {
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ApplicationEvents events;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void singleBookingMustStartInTheFuture() {
+        User owner = fixtures.user();
+        Group group = fixtures.group(owner);
+        fixtures.share(group, owner, 1.0);
+        Vehicle vehicle = fixtures.vehicle(fixtures.contract(group, owner));
+        LocalDateTime past = LocalDateTime.now().minusHours(2);
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> bookingService.createNewBooking(new CreateBookingRequest(vehicle.getId(), past, past.plusHours(1)),
+                        member(owner)));
+        assertEquals("Start time must be in the future", error.getMessage());
+        assertTrue(bookingRepository.findByVehicle_Id(vehicle.getId()).isEmpty());
+    }
+
+    @Test
+    void batchPublishesOneEventPerCreatedBooking() {
+        User owner = fixtures.user();
+        Group group = fixtures.group(owner);
+        fixtures.share(group, owner, 1.0);
+        Vehicle vehicle = fixtures.vehicle(fixtures.contract(group, owner));
+        LocalDateTime base = LocalDate.now().plusDays(2).atTime(9, 0);
+        bookingService.createNewBooking(new CreateBookingRequest(vehicle.getId(), base, base.plusHours(1)), member(owner));
+        events.clear();
+
+        CreateBatchBookingRequest request = new CreateBatchBookingRequest();
+        request.setVehicleId(vehicle.getId());
+        // Slot đầu trùng booking đã có, ba slot sau được nhận
+        request.setSlots(List.of(slot(base, 1), slot(base.plusHours(2), 1), slot(base.plusHours(4), 2),
+                slot(base.plusDays(1), 1)));
+        BatchBookingResult result = bookingService.createBatchBookings(request, member(owner));
+
+        assertEquals(3, result.getAcceptedCount());
+        List<GroupEvent> created = events.stream(GroupEvent.class)
+                .filter(event -> GroupEvent.BOOKING_CREATED.equals(event.type()))
+                .toList();
+        assertEquals(3, created.size());
+        created.forEach(event -> assertEquals(group.getId(), event.groupId()));
+        Set<Long> newIds = bookingRepository.findByVehicle_Id(vehicle.getId()).stream()
+                .filter(booking -> !booking.getStartTime().equals(base))
+                .map(Booking::getBookingId)
+                .collect(Collectors.toSet());
+        assertEquals(newIds, created.stream().map(GroupEvent::entityId).collect(Collectors.toSet()));
+    }
+
+    private static BookingSlotRequest slot(LocalDateTime start, int hours) {
+        BookingSlotRequest slot = new BookingSlotRequest();
+        slot.setStartTime(start);
+        slot.setEndTime(start.plusHours(hours));
+        return slot;
+    }
+
+    private static AuthenticatedUser member(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), List.of("CO_OWNER"));
+    }
+}
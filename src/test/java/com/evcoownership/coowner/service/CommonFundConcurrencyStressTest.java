@@ -0,0 +1,111 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.TestFixtures;
+import com.evcoownership.coowner.model.CommonFund;
+import com.evcoownership.coowner.model.FundTransaction;
+import com.evcoownership.coowner.model.Group;
+import com.evcoownership.coowner.model.User;
+import com.evcoownership.coowner.repository.CommonFundRepository;
+import com.evcoownership.coowner.repository.FundTransactionRepository;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestFixtures.class)
+class CommonFundConcurrencyStressTest {
+    private static final Logger log = LoggerFactory.getLogger(CommonFundConcurrencyStressTest.class);
+
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 50;
+    private static final BigDecimal DEPOSIT = new BigDecimal("10.00");
+    private static final BigDecimal WITHDRAWAL = new BigDecimal("15.00");
+
+    @Autowired
+    private CommonFundService commonFundService;
+    @Autowired
+    private CommonFundRepository fundRepository;
+    @Autowired
+    private FundTransactionRepository transactionRepository;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void concurrentDepositsAndWithdrawalsNeverLoseUpdatesOrOverdraw() throws Exception {
+        User owner = fixtures.user();
+        Group group = fixtures.group(owner);
+        CommonFund fund = commonFundService.createFund(group.getId(), "MAINTENANCE_RESERVE", "Stress test");
+
+        // Nửa số thread nộp, nửa số thread rút nhiều hơn số nộp: các lần rút thường xuyên gặp quỹ không đủ
+        AtomicInteger deposits = new AtomicInteger();
+        AtomicInteger withdrawals = new AtomicInteger();
+        AtomicInteger insufficient = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            boolean depositor = t % 2 == 0;
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    try {
+                        FundTransaction transaction = depositor
+                                ? commonFundService.deposit(fund.getId(), DEPOSIT, owner.getId(), "nộp")
+                                : commonFundService.withdraw(fund.getId(), WITHDRAWAL, owner.getId(), "rút", null);
+                        // Transaction trả về dùng được ngoài session (open-in-view tắt)
+                        assertTrue(Hibernate.isInitialized(transaction.getFund()));
+                        assertTrue(transaction.getFund().getBalance().signum() >= 0);
+                        (depositor ? deposits : withdrawals).incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        if (depositor || !"Số dư không đủ".equals(e.getMessage())) {
+                            unexpected.add(e);
+                        } else {
+                            insufficient.incrementAndGet();
+                        }
+                    } catch (Throwable e) {
+                        unexpected.add(e);
+                    }
+                }
+                return null;
+            });
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES), "Stress test không kết thúc kịp");
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        int operations = THREADS * OPERATIONS_PER_THREAD;
+        log.info("Fund stress: {} operations, {} deposits, {} withdrawals, {} insufficient in {} s ({} ops/s)",
+                operations, deposits.get(), withdrawals.get(), insufficient.get(),
+                String.format("%.2f", seconds), String.format("%.0f", operations / seconds));
+
+        assertTrue(unexpected.isEmpty(), () -> "Lỗi không mong đợi: " + unexpected.peek());
+        assertEquals(operations, deposits.get() + withdrawals.get() + insufficient.get());
+        assertTrue(withdrawals.get() > 0);
+
+        BigDecimal expected = DEPOSIT.multiply(BigDecimal.valueOf(deposits.get()))
+                .subtract(WITHDRAWAL.multiply(BigDecimal.valueOf(withdrawals.get())));
+        BigDecimal balance = fundRepository.findById(fund.getId()).orElseThrow().getBalance();
+        assertEquals(0, expected.compareTo(balance), () -> "Số dư " + balance + ", mong đợi " + expected);
+        assertTrue(balance.signum() >= 0);
+        assertEquals(deposits.get() + withdrawals.get(), transactionRepository.findByFundId(fund.getId()).size());
+    }
+}
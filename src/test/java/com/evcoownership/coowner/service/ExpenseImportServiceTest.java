@@ -0,0 +1,71 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.TestFixtures;
+import com.evcoownership.coowner.dto.ExpenseImportError;
+import com.evcoownership.coowner.dto.ExpenseImportResult;
+import com.evcoownership.coowner.model.Group;
+import com.evcoownership.coowner.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestFixtures.class)
+class ExpenseImportServiceTest {
+    @Autowired
+    private ExpenseImportService expenseImportService;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void nonObjectElementsAreRowErrorsAndDoNotStopTheImport() throws Exception {
+        User owner = fixtures.user();
+        Group group = fixtures.group(owner);
+        fixtures.share(group, owner, 1.0);
+        String row = expense(group);
+
+        ExpenseImportResult result = expenseImportService.importJson(
+                json("[" + row + ", 42, \"x\", [1, {\"a\": 2}], null, " + row + "]"), owner.getId());
+
+        assertEquals(6, result.getTotalRows());
+        assertEquals(2, result.getImportedCount());
+        assertEquals(List.of(2, 3, 4, 5), result.getErrors().stream().map(ExpenseImportError::getRowNumber).toList());
+        assertTrue(result.getErrors().get(0).getMessage().contains("42"));
+    }
+
+    @Test
+    void trailingGarbageAndUnclosedArraysFailTheImport() {
+        User owner = fixtures.user();
+        Group group = fixtures.group(owner);
+        fixtures.share(group, owner, 1.0);
+        String row = expense(group);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> expenseImportService.importJson(json("[" + row + "] {}"), owner.getId()));
+        assertThrows(IllegalArgumentException.class,
+                () -> expenseImportService.importJson(json("[" + row + "] garbage"), owner.getId()));
+        assertThrows(IllegalArgumentException.class,
+                () -> expenseImportService.importJson(json("[" + row + ", "), owner.getId()));
+    }
+
+    private static String expense(Group group) {
+        return "{\"groupId\": " + group.getId() + ", \"type\": \"CHARGING\", \"amount\": 12.50, "
+                + "\"date\": \"2026-01-15\", \"splitMethod\": \"EQUAL\"}";
+    }
+
+    private static InputStream json(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,44 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.dto.GroupAccessRow;
+import com.evcoownership.coowner.repository.GroupRepository;
+import com.evcoownership.coowner.repository.OwnershipShareRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GroupAccessServiceTest {
+    private static final Long GROUP_ID = 7L;
+    private static final Long CREATOR_ID = 1L;
+    private static final Long REMOVED_ID = 2L;
+
+    private final GroupRepository groupRepository = mock(GroupRepository.class);
+    private final OwnershipShareRepository ownershipShareRepository = mock(OwnershipShareRepository.class);
+    private final GroupAccessService service =
+            new GroupAccessService(groupRepository, ownershipShareRepository, 300, 100);
+
+    @Test
+    void loadRacingWithEvictionDoesNotCacheStaleMembers() {
+        when(groupRepository.findAccessRow(GROUP_ID)).thenReturn(Optional.of(new GroupAccessRow(GROUP_ID, CREATOR_ID)));
+        // removeMember commit (và evict) xảy ra sau khi lần load đầu đã đọc danh sách member cũ
+        when(ownershipShareRepository.findUserIdsByGroupId(GROUP_ID))
+                .thenAnswer(invocation -> {
+                    service.evictGroup(GROUP_ID);
+                    return List.of(CREATOR_ID, REMOVED_ID);
+                })
+                .thenReturn(List.of(CREATOR_ID));
+
+        assertTrue(service.isMember(GROUP_ID, REMOVED_ID));
+        assertFalse(service.isMember(GROUP_ID, REMOVED_ID));
+        assertFalse(service.isMember(GROUP_ID, REMOVED_ID));
+        verify(ownershipShareRepository, times(2)).findUserIdsByGroupId(GROUP_ID);
+    }
+}
@@ -0,0 +1,74 @@
+package com.evcoownership.coowner.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GroupEventBroadcasterTest {
+    private static final Logger log = LoggerFactory.getLogger(GroupEventBroadcasterTest.class);
+
+    private static final int IDLE_SUBSCRIBERS = 5_000;
+    private static final int GROUPS = 50;
+    private static final long MAX_BYTES_PER_SUBSCRIBER = 4_096;
+
+    private final GroupEventBroadcaster broadcaster = new GroupEventBroadcaster(1_800_000L, 64, 4);
+
+    @AfterEach
+    void shutdown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void disconnectClosesOnlyTheRemovedUsersStreams() {
+        broadcaster.subscribe(1L, 10L);
+        broadcaster.subscribe(1L, 10L);
+        broadcaster.subscribe(1L, 11L);
+        broadcaster.subscribe(2L, 10L);
+
+        broadcaster.disconnect(1L, 10L);
+
+        assertEquals(1, broadcaster.subscriberCount(1L));
+        // Stream của cùng user ở group khác không bị ảnh hưởng
+        assertEquals(1, broadcaster.subscriberCount(2L));
+    }
+
+    @Test
+    void idleSubscribersHoldNoThreadsAndLittleHeap() {
+        long heapBefore = usedHeapAfterGc();
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        for (int i = 0; i < IDLE_SUBSCRIBERS; i++) {
+            broadcaster.subscribe((long) (i % GROUPS), (long) i);
+        }
+
+        long heapAfter = usedHeapAfterGc();
+        int threadsAfter = ManagementFactory.getThreadMXBean().getThreadCount();
+        long bytesPerSubscriber = Math.max(0, heapAfter - heapBefore) / IDLE_SUBSCRIBERS;
+        log.info("SSE idle load: {} subscribers, ~{} bytes each, {} -> {} threads",
+                IDLE_SUBSCRIBERS, bytesPerSubscriber, threadsBefore, threadsAfter);
+
+        int total = 0;
+        for (long groupId = 0; groupId < GROUPS; groupId++) {
+            total += broadcaster.subscriberCount(groupId);
+        }
+        assertEquals(IDLE_SUBSCRIBERS, total);
+        assertTrue(bytesPerSubscriber < MAX_BYTES_PER_SUBSCRIBER,
+                () -> "Mỗi subscriber rảnh tốn " + bytesPerSubscriber + " bytes");
+        // Subscriber rảnh không giữ thread; chỉ cho phép vài thread nền của JVM phát sinh
+        assertTrue(threadsAfter - threadsBefore < 4, "Số thread tăng theo số subscriber");
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,60 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.TestFixtures;
+import com.evcoownership.coowner.dto.UserGroupDto;
+import com.evcoownership.coowner.model.Group;
+import com.evcoownership.coowner.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Chống N+1: số câu SQL của getUserGroups không được tăng theo số group hay số member
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import(TestFixtures.class)
+class GroupServiceQueryCountTest {
+    private static final int GROUPS = 6;
+    private static final int MEMBERS_PER_GROUP = 5;
+
+    @Autowired
+    private GroupService groupService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void getUserGroupsRunsTwoQueriesRegardlessOfGroupAndMemberCount() {
+        User user = fixtures.user();
+        for (int g = 0; g < GROUPS; g++) {
+            // Một nửa số group do user tạo, nửa còn lại user chỉ là member
+            User creator = g % 2 == 0 ? user : fixtures.user();
+            Group group = fixtures.group(creator);
+            fixtures.share(group, user, 1.0 / MEMBERS_PER_GROUP);
+            for (int m = 1; m < MEMBERS_PER_GROUP; m++) {
+                fixtures.share(group, fixtures.user(), 1.0 / MEMBERS_PER_GROUP);
+            }
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<UserGroupDto> groups = groupService.getUserGroups(user.getId());
+
+        assertEquals(GROUPS, groups.size());
+        for (UserGroupDto group : groups) {
+            assertEquals(MEMBERS_PER_GROUP, group.ownershipShares().size());
+        }
+        // Một query cho group kèm người tạo, một query cho member của mọi group
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
@@ -0,0 +1,86 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.TestFixtures;
+import com.evcoownership.coowner.model.Expense;
+import com.evcoownership.coowner.model.Group;
+import com.evcoownership.coowner.model.User;
+import com.evcoownership.coowner.repository.ExpenseRepository;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestFixtures.class)
+class ReportExportServiceTest {
+    private static final int DESCRIPTION_COLUMN = 5;
+    private static final LocalDate DATE = LocalDate.of(2026, 3, 10);
+
+    @Autowired
+    private ReportExportService reportExportService;
+    @Autowired
+    private ExpenseRepository expenseRepository;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void xlsxKeepsTextAsIsAndCsvPrefixesFormulaLikeValues() throws Exception {
+        User owner = fixtures.user();
+        Group group = fixtures.group(owner);
+        fixtures.share(group, owner, 1.0);
+        expense(group, owner, "=HYPERLINK(\"http://x\")");
+        expense(group, owner, "-5 lít nước rửa kính");
+        expense(group, owner, "Sạc nhanh");
+
+        ByteArrayOutputStream xlsx = new ByteArrayOutputStream();
+        reportExportService.export(List.of(group.getId()), DATE, DATE, "xlsx", xlsx);
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(xlsx.toByteArray()))) {
+            var sheet = workbook.getSheetAt(0);
+            assertEquals(3, sheet.getLastRowNum());
+            for (int r = 1; r <= 3; r++) {
+                Cell cell = sheet.getRow(r).getCell(DESCRIPTION_COLUMN);
+                assertEquals(CellType.STRING, cell.getCellType());
+                String text = cell.getStringCellValue();
+                assertFalse(text.startsWith("'"), text);
+                // Ô trông giống công thức được đánh dấu quote prefix thay vì sửa giá trị
+                assertEquals(ReportExportService.looksLikeFormula(text), cell.getCellStyle().getQuotePrefixed(), text);
+            }
+        }
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        reportExportService.export(List.of(group.getId()), DATE, DATE, "csv", csv);
+        String content = csv.toString(StandardCharsets.UTF_8);
+        assertTrue(content.contains("\"'=HYPERLINK(\"\"http://x\"\")\""), content);
+        assertTrue(content.contains(",'-5 lít nước rửa kính,"), content);
+        assertTrue(content.contains(",Sạc nhanh,"), content);
+    }
+
+    private void expense(Group group, User creator, String description) {
+        Expense expense = new Expense();
+        expense.setGroup(group);
+        expense.setCreatedBy(creator);
+        expense.setType("OTHER");
+        expense.setAmount(new BigDecimal("100.00"));
+        expense.setDate(DATE);
+        expense.setDescription(description);
+        expense.setSplitMethod("EQUAL");
+        expense.setStatus("PENDING");
+        expenseRepository.save(expense);
+    }
+}
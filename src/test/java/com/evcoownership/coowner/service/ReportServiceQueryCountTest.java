@@ -0,0 +1,133 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.TestFixtures;
+import com.evcoownership.coowner.model.Expense;
+import com.evcoownership.coowner.model.ExpenseShare;
+import com.evcoownership.coowner.model.Group;
+import com.evcoownership.coowner.model.UsageDailyRollup;
+import com.evcoownership.coowner.model.User;
+import com.evcoownership.coowner.repository.ExpenseRepository;
+import com.evcoownership.coowner.repository.ExpenseShareRepository;
+import com.evcoownership.coowner.repository.UsageDailyRollupRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Số câu SQL của các báo cáo không được tăng theo số member hay độ dài lịch sử
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import(TestFixtures.class)
+class ReportServiceQueryCountTest {
+    private static final int MEMBERS = 8;
+    private static final int DAYS = 20;
+
+    @Autowired
+    private ReportService reportService;
+    @Autowired
+    private UsageDailyRollupRepository usageDailyRollupRepository;
+    @Autowired
+    private ExpenseRepository expenseRepository;
+    @Autowired
+    private ExpenseShareRepository expenseShareRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void financialReportsRunAFixedNumberOfQueriesRegardlessOfHistorySize() {
+        User owner = fixtures.user();
+        Group group = fixtures.group(owner);
+        fixtures.share(group, owner, 1.0);
+        LocalDate from = LocalDate.now().minusDays(DAYS);
+        LocalDate to = LocalDate.now();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Cùng số câu SQL khi lịch sử có 5 hay 60 chi phí
+        long expected = 0;
+        for (int batch : new int[] {5, 55}) {
+            for (int i = 0; i < batch; i++) {
+                expense(group, owner, i);
+            }
+            expected += batch;
+
+            statistics.clear();
+            Map<String, Object> groupReport = reportService.getGroupFinancialReport(group.getId(), from, to);
+            assertEquals(expected, groupReport.get("expenseCount"));
+            // findSummaryById và sumByTypeAndStatus
+            assertEquals(2, statistics.getPrepareStatementCount());
+            assertEquals(0, statistics.getEntityLoadCount());
+
+            statistics.clear();
+            Map<String, Object> userReport = reportService.getUserExpenseReport(owner.getId(), from, to);
+            assertEquals(expected, userReport.get("expenseShareCount"));
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertEquals(0, statistics.getEntityLoadCount());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void compareUsageVsOwnershipRunsThreeQueriesRegardlessOfMemberCount() {
+        User owner = fixtures.user();
+        Group group = fixtures.group(owner);
+        for (int m = 0; m < MEMBERS; m++) {
+            User member = m == 0 ? owner : fixtures.user();
+            fixtures.share(group, member, 1.0 / MEMBERS);
+            for (int d = 0; d < DAYS; d++) {
+                UsageDailyRollup rollup = new UsageDailyRollup();
+                rollup.setUserId(member.getId());
+                rollup.setVehicleId(1L);
+                rollup.setUsageDate(LocalDate.now().minusDays(d));
+                rollup.setUsageMinutes(30L * (m + 1));
+                rollup.setDistanceKm(10);
+                rollup.setTripCount(1);
+                usageDailyRollupRepository.save(rollup);
+            }
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Map<String, Object> report = reportService.compareUsageVsOwnership(group.getId(), DAYS);
+
+        List<Map<String, Object>> comparisons = (List<Map<String, Object>>) report.get("userComparisons");
+        assertEquals(MEMBERS, comparisons.size());
+        double usageTotal = comparisons.stream().mapToDouble(c -> (double) c.get("usagePercentage")).sum();
+        assertEquals(100.0, usageTotal, 1e-9);
+        // Tên group, tỉ lệ sở hữu của member, tổng usage theo member; không load User (kèm roles)
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    private void expense(Group group, User owner, int i) {
+        Expense expense = new Expense();
+        expense.setGroup(group);
+        expense.setCreatedBy(owner);
+        expense.setType(i % 2 == 0 ? "CHARGING" : "MAINTENANCE");
+        expense.setAmount(new BigDecimal("100.00"));
+        expense.setDate(LocalDate.now().minusDays(i % DAYS));
+        expense.setSplitMethod("EQUAL");
+        expense.setStatus(i % 3 == 0 ? "PAID" : "PENDING");
+        expenseRepository.save(expense);
+
+        ExpenseShare share = new ExpenseShare();
+        share.setExpense(expense);
+        share.setUser(owner);
+        share.setAmount(expense.getAmount());
+        share.setStatus(expense.getStatus());
+        share.setPaidAmount(i % 3 == 0 ? expense.getAmount() : BigDecimal.ZERO);
+        expenseShareRepository.save(share);
+    }
+}
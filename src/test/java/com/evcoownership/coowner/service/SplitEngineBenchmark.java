@@ -0,0 +1,99 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.model.Expense;
+import com.evcoownership.coowner.model.ExpenseShare;
+import com.evcoownership.coowner.model.OwnershipShare;
+import com.evcoownership.coowner.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput của SplitEngine: allocate thuần và buildShares cho từng split method không cần DB.
+ * Chạy: {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="SplitEngineBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SplitEngineBenchmark {
+    @Param({"2", "10", "50"})
+    public int members;
+
+    private final SplitEngine splitEngine = new SplitEngine(List.of(new EqualSplitStrategy(),
+            new OwnershipSplitStrategy(), new FixedAmountSplitStrategy(), new CustomWeightSplitStrategy()));
+
+    private long[] weights;
+    private List<OwnershipShare> shares;
+    private Map<Long, BigDecimal> customWeights;
+    private Expense equal;
+    private Expense byOwnership;
+    private Expense byCustomWeights;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42L);
+        weights = new long[members];
+        shares = new ArrayList<>(members);
+        customWeights = new HashMap<>();
+        for (int i = 0; i < members; i++) {
+            weights[i] = 1 + random.nextInt(1_000_000);
+            User user = new User();
+            ReflectionTestUtils.setField(user, "id", (long) i + 1);
+            OwnershipShare share = new OwnershipShare();
+            share.setUser(user);
+            share.setPercentage(1.0 / members);
+            shares.add(share);
+            customWeights.put(user.getId(), BigDecimal.valueOf(1 + random.nextInt(10_000), 2));
+        }
+        equal = expense("EQUAL");
+        byOwnership = expense("BY_OWNERSHIP");
+        byCustomWeights = expense("CUSTOM_WEIGHTS");
+    }
+
+    @Benchmark
+    public long[] allocate() {
+        return SplitEngine.allocate(123_456_789L, weights);
+    }
+
+    @Benchmark
+    public List<ExpenseShare> buildEqualShares() {
+        return splitEngine.buildShares(equal, shares, null);
+    }
+
+    @Benchmark
+    public List<ExpenseShare> buildOwnershipShares() {
+        return splitEngine.buildShares(byOwnership, shares, null);
+    }
+
+    @Benchmark
+    public List<ExpenseShare> buildCustomWeightShares() {
+        return splitEngine.buildShares(byCustomWeights, shares, customWeights);
+    }
+
+    private static Expense expense(String splitMethod) {
+        Expense expense = new Expense();
+        expense.setSplitMethod(splitMethod);
+        expense.setAmount(new BigDecimal("1234567.89"));
+        return expense;
+    }
+}
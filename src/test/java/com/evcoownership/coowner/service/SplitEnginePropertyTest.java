@@ -0,0 +1,284 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.dto.UserUsageTotals;
+import com.evcoownership.coowner.model.Expense;
+import com.evcoownership.coowner.model.ExpenseShare;
+import com.evcoownership.coowner.model.Group;
+import com.evcoownership.coowner.model.OwnershipShare;
+import com.evcoownership.coowner.model.User;
+import com.evcoownership.coowner.repository.UsageDailyRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Kiểm tra ngẫu nhiên (seed cố định để lặp lại được): với group 2–50 người, số tiền lẻ xu và trọng số 0,
+ * tổng các phần chia luôn đúng bằng Expense.amount và không phần nào âm, với mọi split method
+ * (BY_USAGE dùng repository giả lập).
+ */
+class SplitEnginePropertyTest {
+    private static final int ITERATIONS = 2_000;
+    private static final int MIN_MEMBERS = 2;
+    private static final int MAX_MEMBERS = 50;
+
+    private final UsageDailyRollupRepository usageDailyRollupRepository = mock(UsageDailyRollupRepository.class);
+    private final SplitEngine splitEngine = new SplitEngine(List.of(
+            new EqualSplitStrategy(), new OwnershipSplitStrategy(), new FixedAmountSplitStrategy(),
+            new CustomWeightSplitStrategy(), new UsageSplitStrategy(usageDailyRollupRepository, "DISTANCE", 30)));
+
+    @Test
+    void allocateAlwaysSumsToTotal() {
+        Random random = new Random(20261018L);
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            int count = memberCount(random);
+            long total = oddCents(random);
+            long[] weights = new long[count];
+            for (int i = 0; i < count; i++) {
+                // Khoảng một phần tư trọng số bằng 0
+                weights[i] = random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(1_000_000);
+            }
+            weights[random.nextInt(count)] = 1 + random.nextInt(1_000_000);
+
+            long[] result = SplitEngine.allocate(total, weights);
+
+            assertEquals(count, result.length);
+            assertEquals(total, sum(result), "allocate " + total + " theo " + count + " trọng số");
+            for (int i = 0; i < count; i++) {
+                assertTrue(result[i] >= 0);
+                if (weights[i] == 0) {
+                    assertEquals(0, result[i], "trọng số 0 phải được 0");
+                }
+            }
+        }
+    }
+
+    @Test
+    void allocateHandlesOverflowingProducts() {
+        Random random = new Random(7L);
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            int count = memberCount(random);
+            long total = Long.MAX_VALUE / 4 - random.nextInt(1_000);
+            long[] weights = new long[count];
+            for (int i = 0; i < count; i++) {
+                weights[i] = random.nextInt(5) == 0 ? 0 : Integer.MAX_VALUE - random.nextInt(1_000);
+            }
+            weights[0] = Integer.MAX_VALUE;
+
+            assertEquals(total, sum(SplitEngine.allocate(total, weights)));
+        }
+    }
+
+    @Test
+    void equalSplitSharesSumToAmount() {
+        Random random = new Random(1L);
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            List<OwnershipShare> members = members(random, memberCount(random));
+            Expense expense = expense("EQUAL", oddCents(random));
+
+            List<ExpenseShare> shares = splitEngine.buildShares(expense, members, null);
+
+            assertSharesSumToAmount(expense, shares, members.size());
+            BigDecimal min = shares.stream().map(ExpenseShare::getAmount).min(BigDecimal::compareTo).orElseThrow();
+            BigDecimal max = shares.stream().map(ExpenseShare::getAmount).max(BigDecimal::compareTo).orElseThrow();
+            assertTrue(max.subtract(min).compareTo(new BigDecimal("0.01")) <= 0, "chia đều lệch tối đa 1 xu");
+        }
+    }
+
+    @Test
+    void ownershipSplitSharesSumToAmount() {
+        Random random = new Random(2L);
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            int count = memberCount(random);
+            List<OwnershipShare> members = members(random, count);
+            // Tỉ lệ sở hữu theo phần triệu, có member 0%; tổng đúng bằng 1.0
+            long[] parts = randomPartition(random, 1_000_000L, count);
+            for (int i = 0; i < count; i++) {
+                members.get(i).setPercentage(parts[i] / 1_000_000.0);
+            }
+            Expense expense = expense("BY_OWNERSHIP", oddCents(random));
+
+            List<ExpenseShare> shares = splitEngine.buildShares(expense, members, null);
+
+            assertSharesSumToAmount(expense, shares, count);
+            for (int i = 0; i < count; i++) {
+                if (parts[i] == 0) {
+                    assertEquals(0, shares.get(i).getAmount().signum(), "tỉ lệ 0 phải được 0");
+                }
+            }
+        }
+    }
+
+    @Test
+    void fixedAmountSplitSharesSumToAmount() {
+        Random random = new Random(3L);
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            int count = memberCount(random);
+            List<OwnershipShare> members = members(random, count);
+            long total = oddCents(random);
+            long[] parts = randomPartition(random, total, count);
+            Map<Long, BigDecimal> allocations = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                // Member 0 xu có khi bỏ hẳn khỏi allocations
+                if (parts[i] != 0 || random.nextBoolean()) {
+                    allocations.put(members.get(i).getUser().getId(), SplitEngine.fromMinor(parts[i]));
+                }
+            }
+            Expense expense = expense("FIXED_AMOUNTS", total);
+
+            List<ExpenseShare> shares = splitEngine.buildShares(expense, members, allocations);
+
+            assertSharesSumToAmount(expense, shares, count);
+            for (int i = 0; i < count; i++) {
+                assertEquals(SplitEngine.fromMinor(parts[i]), shares.get(i).getAmount());
+            }
+        }
+    }
+
+    @Test
+    void customWeightSplitSharesSumToAmount() {
+        Random random = new Random(4L);
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            int count = memberCount(random);
+            List<OwnershipShare> members = members(random, count);
+            // Trọng số tối đa 4 chữ số thập phân; có trọng số 0 và member vắng mặt trong allocations
+            Map<Long, BigDecimal> allocations = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                int pick = random.nextInt(4);
+                if (pick == 0) {
+                    continue;
+                }
+                BigDecimal weight = pick == 1 ? BigDecimal.ZERO : BigDecimal.valueOf(1 + random.nextInt(10_000_000), 4);
+                allocations.put(members.get(i).getUser().getId(), weight);
+            }
+            allocations.put(members.get(random.nextInt(count)).getUser().getId(), BigDecimal.valueOf(1 + random.nextInt(1_000), 2));
+            Expense expense = expense("CUSTOM_WEIGHTS", oddCents(random));
+
+            List<ExpenseShare> shares = splitEngine.buildShares(expense, members, allocations);
+
+            assertSharesSumToAmount(expense, shares, count);
+            for (int i = 0; i < count; i++) {
+                BigDecimal weight = allocations.get(members.get(i).getUser().getId());
+                if (weight == null || weight.signum() == 0) {
+                    assertEquals(0, shares.get(i).getAmount().signum(), "trọng số 0 phải được 0");
+                }
+            }
+        }
+    }
+
+    @Test
+    void usageSplitSharesSumToAmount() {
+        Random random = new Random(5L);
+        Group group = new Group();
+        ReflectionTestUtils.setField(group, "id", 1L);
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            int count = memberCount(random);
+            List<OwnershipShare> members = members(random, count);
+            // Usage chỉ có cho một phần member (có khi không ai): không ai dùng xe thì chia đều
+            List<UserUsageTotals> usage = new ArrayList<>();
+            for (OwnershipShare member : members) {
+                if (random.nextInt(3) == 0) {
+                    long km = random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(100_000);
+                    usage.add(new UserUsageTotals(member.getUser().getId(), 0L, km));
+                }
+            }
+            when(usageDailyRollupRepository.sumUsageForSplitByGroupVehicles(eq(1L), any(), any())).thenReturn(usage);
+            Expense expense = expense("BY_USAGE", oddCents(random));
+            expense.setGroup(group);
+            expense.setDate(LocalDate.now());
+
+            List<ExpenseShare> shares = splitEngine.buildShares(expense, members, null);
+
+            assertSharesSumToAmount(expense, shares, count);
+            long totalKm = usage.stream().mapToLong(UserUsageTotals::distanceKm).sum();
+            if (totalKm > 0) {
+                Map<Long, Long> kmByUser = new HashMap<>();
+                usage.forEach(u -> kmByUser.put(u.userId(), u.distanceKm()));
+                for (int i = 0; i < count; i++) {
+                    if (kmByUser.getOrDefault(members.get(i).getUser().getId(), 0L) == 0) {
+                        assertEquals(0, shares.get(i).getAmount().signum(), "không dùng xe phải được 0");
+                    }
+                }
+            }
+        }
+    }
+
+    private static void assertSharesSumToAmount(Expense expense, List<ExpenseShare> shares, int count) {
+        assertEquals(count, shares.size());
+        BigDecimal sum = BigDecimal.ZERO;
+        for (ExpenseShare share : shares) {
+            assertTrue(share.getAmount().signum() >= 0, "phần chia không được âm");
+            assertEquals(2, share.getAmount().scale());
+            sum = sum.add(share.getAmount());
+        }
+        assertEquals(expense.getAmount(), sum, expense.getSplitMethod() + " với " + count + " member");
+    }
+
+    private static int memberCount(Random random) {
+        return MIN_MEMBERS + random.nextInt(MAX_MEMBERS - MIN_MEMBERS + 1);
+    }
+
+    // Số tiền lẻ xu (từ 0.01 đến khoảng 10 triệu), thường không chia hết cho số member
+    private static long oddCents(Random random) {
+        long cents = 1 + (long) random.nextInt(1_000_000_000);
+        return cents % 2 == 0 ? cents + 1 : cents;
+    }
+
+    // Chia total thành count phần không âm (có phần bằng 0) bằng các điểm cắt ngẫu nhiên
+    private static long[] randomPartition(Random random, long total, int count) {
+        long[] cuts = new long[count + 1];
+        cuts[count] = total;
+        for (int i = 1; i < count; i++) {
+            cuts[i] = random.nextInt(3) == 0 ? cuts[i - 1] : (long) (random.nextDouble() * (total + 1));
+        }
+        Arrays.sort(cuts, 1, count);
+        long[] parts = new long[count];
+        for (int i = 0; i < count; i++) {
+            parts[i] = cuts[i + 1] - cuts[i];
+        }
+        return parts;
+    }
+
+    private static List<OwnershipShare> members(Random random, int count) {
+        List<OwnershipShare> members = new ArrayList<>(count);
+        long firstId = 1 + random.nextInt(1_000);
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            ReflectionTestUtils.setField(user, "id", firstId + i);
+            OwnershipShare share = new OwnershipShare();
+            share.setUser(user);
+            share.setPercentage(1.0 / count);
+            members.add(share);
+        }
+        return members;
+    }
+
+    private static Expense expense(String splitMethod, long totalMinor) {
+        Expense expense = new Expense();
+        expense.setSplitMethod(splitMethod);
+        expense.setAmount(SplitEngine.fromMinor(totalMinor));
+        return expense;
+    }
+
+    private static long sum(long[] values) {
+        long sum = 0;
+        for (long value : values) {
+            sum = Math.addExact(sum, value);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,57 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.TestFixtures;
+import com.evcoownership.coowner.model.EContract;
+import com.evcoownership.coowner.model.Group;
+import com.evcoownership.coowner.model.User;
+import com.evcoownership.coowner.model.Vehicle;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestFixtures.class)
+class VehicleAvailabilityServiceTest {
+    @Autowired
+    private VehicleAvailabilityService vehicleAvailabilityService;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void resolveVehicleIdsOnlyAllowsVehiclesOfTheCallersGroup() {
+        User owner = fixtures.user();
+        Group group = fixtures.group(owner);
+        fixtures.share(group, owner, 1.0);
+        EContract contract = fixtures.contract(group, owner);
+        Vehicle vehicle = fixtures.vehicle(contract);
+
+        User stranger = fixtures.user();
+        Group otherGroup = fixtures.group(stranger);
+        fixtures.share(otherGroup, stranger, 1.0);
+        Vehicle otherVehicle = fixtures.vehicle(fixtures.contract(otherGroup, stranger));
+
+        assertEquals(List.of(vehicle.getId()), vehicleAvailabilityService.resolveVehicleIds(group.getId(), null, owner.getId()));
+        assertEquals(List.of(vehicle.getId()), vehicleAvailabilityService.resolveVehicleIds(null, List.of(vehicle.getId()), owner.getId()));
+
+        // Người ngoài group, kể cả khi chỉ truyền vehicleIds
+        assertThrows(IllegalArgumentException.class,
+                () -> vehicleAvailabilityService.resolveVehicleIds(group.getId(), null, stranger.getId()));
+        assertThrows(IllegalArgumentException.class,
+                () -> vehicleAvailabilityService.resolveVehicleIds(null, List.of(vehicle.getId()), stranger.getId()));
+        // Xe của group khác trộn vào danh sách
+        assertThrows(IllegalArgumentException.class,
+                () -> vehicleAvailabilityService.resolveVehicleIds(group.getId(),
+                        List.of(vehicle.getId(), otherVehicle.getId()), owner.getId()));
+        // Id không tồn tại không còn trả về lịch trống
+        assertThrows(IllegalArgumentException.class,
+                () -> vehicleAvailabilityService.resolveVehicleIds(null, List.of(vehicle.getId(), Long.MAX_VALUE), owner.getId()));
+    }
+}
@@ -0,0 +1,144 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.TestFixtures;
+import com.evcoownership.coowner.dto.UserVoteDto;
+import com.evcoownership.coowner.model.Group;
+import com.evcoownership.coowner.model.User;
+import com.evcoownership.coowner.model.UserVote;
+import com.evcoownership.coowner.model.Vote;
+import com.evcoownership.coowner.model.VoteOption;
+import com.evcoownership.coowner.repository.UserVoteRepository;
+import com.evcoownership.coowner.repository.VoteOptionRepository;
+import com.evcoownership.coowner.security.AuthenticatedUser;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import(TestFixtures.class)
+class VoteConcurrencyStressTest {
+    private static final Logger log = LoggerFactory.getLogger(VoteConcurrencyStressTest.class);
+
+    private static final int MEMBERS = 20;
+    private static final int ATTEMPTS_PER_MEMBER = 4;
+
+    @Autowired
+    private VoteService voteService;
+    @Autowired
+    private UserVoteRepository userVoteRepository;
+    @Autowired
+    private VoteOptionRepository voteOptionRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void concurrentBallotsAreCountedExactlyOncePerMember() throws Exception {
+        User owner = fixtures.user();
+        Group group = fixtures.group(owner);
+        List<User> members = new ArrayList<>();
+        // Thêm một member bỏ phiếu riêng ở cuối để đếm số câu SQL của một lá phiếu
+        for (int i = 0; i <= MEMBERS; i++) {
+            User member = i == 0 ? owner : fixtures.user();
+            fixtures.share(group, member, 1.0 / (MEMBERS + 1));
+            members.add(member);
+        }
+        Vote vote = voteService.createVote(group.getId(), "Bảo dưỡng", "Thay lốp", "SIMPLE_MAJORITY",
+                LocalDateTime.now().plusHours(1), new AuthenticatedUser(owner.getId(), owner.getEmail(), List.of("CO_OWNER")));
+
+        // Mỗi member gửi cùng một lá phiếu nhiều lần từ các thread khác nhau: chỉ một lần được ghi nhận
+        Map<Long, AtomicInteger> acceptedByUser = new ConcurrentHashMap<>();
+        AtomicInteger duplicates = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        for (int attempt = 0; attempt < ATTEMPTS_PER_MEMBER; attempt++) {
+            for (int i = 0; i < MEMBERS; i++) {
+                User member = members.get(i);
+                String choice = i % 3 == 0 ? "NO" : "YES";
+                pool.submit(() -> {
+                    start.await();
+                    try {
+                        UserVoteDto ballot = voteService.castVote(vote.getId(), member.getId(), choice);
+                        assertEquals(vote.getId(), ballot.voteId());
+                        assertEquals(member.getId(), ballot.userId());
+                        assertEquals(choice, ballot.choice());
+                        acceptedByUser.computeIfAbsent(member.getId(), id -> new AtomicInteger()).incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        if ("Bạn đã bỏ phiếu rồi".equals(e.getMessage())) {
+                            duplicates.incrementAndGet();
+                        } else {
+                            unexpected.add(e);
+                        }
+                    } catch (Throwable e) {
+                        unexpected.add(e);
+                    }
+                    return null;
+                });
+            }
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES), "Stress test không kết thúc kịp");
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        int attempts = MEMBERS * ATTEMPTS_PER_MEMBER;
+        log.info("Vote stress: {} ballots, {} accepted, {} duplicates in {} s ({} ballots/s)",
+                attempts, acceptedByUser.size(), duplicates.get(), String.format("%.2f", seconds),
+                String.format("%.0f", attempts / seconds));
+
+        assertTrue(unexpected.isEmpty(), () -> "Lỗi không mong đợi: " + unexpected.peek());
+        assertEquals(MEMBERS, acceptedByUser.size());
+        acceptedByUser.forEach((userId, count) -> assertEquals(1, count.get(), "User " + userId + " bỏ phiếu hai lần"));
+        assertEquals(attempts - MEMBERS, duplicates.get());
+
+        // Một lá phiếu: query kiểm tra quyền, insert user_votes, update count; không load vote hay user (kèm roles)
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        voteService.castVote(vote.getId(), members.get(MEMBERS).getId(), "YES");
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        List<UserVote> ballots = userVoteRepository.findByVoteId(vote.getId());
+        assertEquals(MEMBERS + 1, ballots.size());
+        Set<Long> voters = new HashSet<>();
+        Map<String, Integer> expectedCounts = new HashMap<>();
+        for (UserVote ballot : ballots) {
+            voters.add(ballot.getUser().getId());
+            expectedCounts.merge(ballot.getChoice(), 1, Integer::sum);
+        }
+        assertEquals(MEMBERS + 1, voters.size());
+        for (VoteOption option : voteOptionRepository.findByVoteId(vote.getId())) {
+            assertEquals(expectedCounts.getOrDefault(option.getOption(), 0), option.getCount(),
+                    "Count của option " + option.getOption());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.evcoownership.coowner.service;
+
+import com.evcoownership.coowner.TestFixtures;
+import com.evcoownership.coowner.model.Group;
+import com.evcoownership.coowner.model.User;
+import com.evcoownership.coowner.model.Vote;
+import com.evcoownership.coowner.repository.VoteRepository;
+import com.evcoownership.coowner.security.AuthenticatedUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestFixtures.class)
+class VoteServiceTest {
+    @Autowired
+    private VoteService voteService;
+    @Autowired
+    private VoteRepository voteRepository;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void manualCloseFinalizesTheOutcomeLikeTheDeadline() {
+        User owner = fixtures.user();
+        User second = fixtures.user();
+        User third = fixtures.user();
+        Group group = fixtures.group(owner);
+        fixtures.share(group, owner, 0.4);
+        fixtures.share(group, second, 0.3);
+        fixtures.share(group, third, 0.3);
+
+        Vote approved = createVote(group, owner);
+        voteService.castVote(approved.getId(), owner.getId(), "YES");
+        voteService.castVote(approved.getId(), second.getId(), "YES");
+        assertEquals("APPROVED", voteService.closeVote(approved.getId(), owner.getId()).getStatus());
+        assertEquals("APPROVED", voteRepository.findById(approved.getId()).orElseThrow().getStatus());
+
+        Vote rejected = createVote(group, owner);
+        voteService.castVote(rejected.getId(), second.getId(), "NO");
+        assertEquals("REJECTED", voteService.closeVote(rejected.getId(), owner.getId()).getStatus());
+        assertEquals("REJECTED", voteRepository.findById(rejected.getId()).orElseThrow().getStatus());
+
+        assertThrows(IllegalArgumentException.class, () -> voteService.closeVote(rejected.getId(), owner.getId()));
+        assertThrows(IllegalArgumentException.class, () -> voteService.castVote(rejected.getId(), third.getId(), "YES"));
+    }
+
+    private Vote createVote(Group group, User creator) {
+        return voteService.createVote(group.getId(), "Bảo hiểm", "Gia hạn bảo hiểm", "SIMPLE_MAJORITY",
+                LocalDateTime.now().plusDays(1),
+                new AuthenticatedUser(creator.getId(), creator.getEmail(), List.of("CO_OWNER")));
+    }
+}